@@ -1,6 +1,7 @@
 package dev.echocloud.API;
 
 import dev.echocloud.Cloud.CloudCommunication;
+import dev.echocloud.Cloud.PlayerPrefetch;
 
 /**
  * EchoCloud API Interface für externe Plugins
@@ -14,6 +15,12 @@ public interface EchoCloudAPI {
      */
     CloudCommunication getCommunication();
 
+    /**
+     * Gibt den Prefetch für Spielerdaten zurück (Key-Templates registrieren, Werte ohne Roundtrip lesen)
+     * @return PlayerPrefetch-Instanz oder null wenn nicht verfügbar
+     */
+    PlayerPrefetch getPrefetch();
+
     /**
      * Prüft ob die Cloud-Verbindung aktiv ist
      * @return true wenn verbunden, false sonst
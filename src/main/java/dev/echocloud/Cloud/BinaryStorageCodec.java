@@ -0,0 +1,267 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kompakter Binär-Codec für CloudStorage-Werte.
+ * Jeder Wert beginnt mit einem Typ-Tag, Längen und Ganzzahlen werden als Varint kodiert.
+ * Feldnamen werden pro Wert nur einmal geschrieben und danach über ihren Index referenziert,
+ * was Listen gleichartiger Objekte (Inventare, Statistiken) deutlich verkleinert.
+ */
+public class BinaryStorageCodec implements StorageCodec {
+
+    public static final byte ID = 'B';
+
+    private static final int TAG_NULL = 0;
+    private static final int TAG_TRUE = 1;
+    private static final int TAG_FALSE = 2;
+    private static final int TAG_LONG = 3;
+    private static final int TAG_DOUBLE = 4;
+    private static final int TAG_STRING = 5;
+    private static final int TAG_ARRAY = 6;
+    private static final int TAG_OBJECT = 7;
+    private static final int TAG_DECIMAL = 8;
+
+    // Feldname: neu (Länge + UTF-8) oder Referenz auf einen bereits geschriebenen Namen
+    private static final int FIELD_NEW = 0;
+    private static final int FIELD_REF = 1;
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "binary";
+    }
+
+    @Override
+    public byte[] encode(JsonElement value) {
+        Writer writer = new Writer();
+        writer.writeElement(value);
+        return writer.out.toByteArray();
+    }
+
+    @Override
+    public JsonElement decode(byte[] data, int offset, int length) throws IOException {
+        Reader reader = new Reader(data, offset, offset + length);
+        JsonElement element = reader.readElement();
+        if (reader.position != reader.limit) {
+            throw new IOException("Unerwartete Daten nach Wertende");
+        }
+        return element;
+    }
+
+    private static class Writer {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        final Map<String, Integer> fieldNames = new HashMap<>();
+
+        void writeElement(JsonElement element) {
+            if (element == null || element.isJsonNull()) {
+                out.write(TAG_NULL);
+            } else if (element.isJsonPrimitive()) {
+                writePrimitive(element.getAsJsonPrimitive());
+            } else if (element.isJsonArray()) {
+                JsonArray array = element.getAsJsonArray();
+                out.write(TAG_ARRAY);
+                writeVarint(array.size());
+                for (JsonElement child : array) {
+                    writeElement(child);
+                }
+            } else {
+                JsonObject object = element.getAsJsonObject();
+                out.write(TAG_OBJECT);
+                writeVarint(object.size());
+                for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                    writeFieldName(entry.getKey());
+                    writeElement(entry.getValue());
+                }
+            }
+        }
+
+        void writePrimitive(JsonPrimitive primitive) {
+            if (primitive.isBoolean()) {
+                out.write(primitive.getAsBoolean() ? TAG_TRUE : TAG_FALSE);
+            } else if (primitive.isString()) {
+                out.write(TAG_STRING);
+                writeString(primitive.getAsString());
+            } else {
+                writeNumber(primitive);
+            }
+        }
+
+        void writeNumber(JsonPrimitive primitive) {
+            BigDecimal decimal = primitive.getAsBigDecimal();
+            try {
+                long longValue = decimal.longValueExact();
+                out.write(TAG_LONG);
+                writeVarint((longValue << 1) ^ (longValue >> 63));
+                return;
+            } catch (ArithmeticException ignored) {
+                // keine Ganzzahl im long-Bereich
+            }
+
+            double doubleValue = decimal.doubleValue();
+            if (!Double.isInfinite(doubleValue) && new BigDecimal(Double.toString(doubleValue)).compareTo(decimal) == 0) {
+                out.write(TAG_DOUBLE);
+                long bits = Double.doubleToLongBits(doubleValue);
+                for (int i = 7; i >= 0; i--) {
+                    out.write((int) (bits >>> (i * 8)));
+                }
+            } else {
+                out.write(TAG_DECIMAL);
+                writeString(decimal.toString());
+            }
+        }
+
+        void writeFieldName(String name) {
+            Integer index = fieldNames.get(name);
+            if (index != null) {
+                out.write(FIELD_REF);
+                writeVarint(index);
+            } else {
+                fieldNames.put(name, fieldNames.size());
+                out.write(FIELD_NEW);
+                writeString(name);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+
+    private static class Reader {
+        final byte[] data;
+        final int limit;
+        int position;
+        final List<String> fieldNames = new ArrayList<>();
+
+        Reader(byte[] data, int position, int limit) {
+            this.data = data;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        JsonElement readElement() throws IOException {
+            int tag = readByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return JsonNull.INSTANCE;
+                case TAG_TRUE:
+                    return new JsonPrimitive(true);
+                case TAG_FALSE:
+                    return new JsonPrimitive(false);
+                case TAG_LONG: {
+                    long raw = readVarint();
+                    return new JsonPrimitive((raw >>> 1) ^ -(raw & 1));
+                }
+                case TAG_DOUBLE: {
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        bits = (bits << 8) | readByte();
+                    }
+                    return new JsonPrimitive(Double.longBitsToDouble(bits));
+                }
+                case TAG_STRING:
+                    return new JsonPrimitive(readString());
+                case TAG_DECIMAL:
+                    return new JsonPrimitive(new BigDecimal(readString()));
+                case TAG_ARRAY: {
+                    int size = readLength();
+                    JsonArray array = new JsonArray(Math.min(size, limit - position));
+                    for (int i = 0; i < size; i++) {
+                        array.add(readElement());
+                    }
+                    return array;
+                }
+                case TAG_OBJECT: {
+                    int size = readLength();
+                    JsonObject object = new JsonObject();
+                    for (int i = 0; i < size; i++) {
+                        String name = readFieldName();
+                        object.add(name, readElement());
+                    }
+                    return object;
+                }
+                default:
+                    throw new IOException("Unbekannter Typ-Tag: " + tag);
+            }
+        }
+
+        String readFieldName() throws IOException {
+            int marker = readByte();
+            if (marker == FIELD_REF) {
+                int index = readLength();
+                if (index >= fieldNames.size()) {
+                    throw new IOException("Ungültige Feldreferenz: " + index);
+                }
+                return fieldNames.get(index);
+            }
+            String name = readString();
+            fieldNames.add(name);
+            return name;
+        }
+
+        String readString() throws IOException {
+            int length = readLength();
+            if (length > limit - position) {
+                throw new IOException("String-Länge überschreitet Datenende");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        int readLength() throws IOException {
+            long value = readVarint();
+            if (value < 0 || value > Integer.MAX_VALUE) {
+                throw new IOException("Ungültige Länge: " + value);
+            }
+            return (int) value;
+        }
+
+        long readVarint() throws IOException {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException("Varint zu lang");
+        }
+
+        int readByte() throws IOException {
+            if (position >= limit) {
+                throw new IOException("Unerwartetes Datenende");
+            }
+            return data[position++] & 0xFF;
+        }
+    }
+}
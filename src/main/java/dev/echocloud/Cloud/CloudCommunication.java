@@ -1,14 +1,19 @@
 package dev.echocloud.Cloud;
 
 import com.google.gson.Gson;
+import dev.echocloud.Events.Manager.EventDispatchSettings;
 import dev.echocloud.PluginConfig;
 import org.bukkit.Server;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class CloudCommunication {
 
@@ -19,13 +24,28 @@ public abstract class CloudCommunication {
     protected volatile boolean connected = false;
     protected final Gson gson = new Gson();
     protected final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-    protected final CloudStorage cloudStorage;
+    protected CloudStorage cloudStorage;
+    protected StorageSettings storageSettings = new StorageSettings();
+    // Führt Storage-Callbacks auf dem Server-Thread aus (null außerhalb des Plugins)
+    protected volatile MainThreadDispatcher mainThreadDispatcher;
+    // Verteilt eingehende Nachrichten nach Typ, ohne sie vorher vollständig zu parsen
+    protected final InboundRouter inboundRouter;
+    // Request/Response mit Correlation-IDs über den jeweiligen Transport
+    protected final CloudRpc rpc;
+    // Komprimiert große ausgehende Nachrichten, entpackt eingehende mit Kompressions-Header
+    protected PayloadCodec payloadCodec = new PayloadCodec();
     protected final Server server;
 
     protected ServerMetricsProvider metricsProvider;
 
     protected int reconnectInterval = 30; // seconds
     protected int maxReconnectAttempts = 5;
+    // Backoff mit Jitter; reconnectInterval ist die maximale Wartezeit
+    protected ReconnectPolicy reconnectPolicy = new ReconnectPolicy();
+    protected int reconnectAttempts = 0;
+    // Verhindert, dass mehrere Fehler (z.B. mehrere Subscriber-Threads) parallel Versuche planen
+    protected final AtomicBoolean reconnectScheduled = new AtomicBoolean(false);
+    protected volatile boolean shuttingDown = false;
     protected int heartbeatTimeout = 20; // seconds
 
     public interface ServerMetricsProvider {
@@ -45,7 +65,39 @@ public abstract class CloudCommunication {
         this.authToken = authToken;
         this.logger = logger;
         this.server = server;
-        this.cloudStorage = CloudStorage.fromCommunication(this, logger);
+        this.inboundRouter = new InboundRouter(gson, logger);
+        this.inboundRouter.register("storage_invalidate", message -> handleStorageInvalidation(message.getRaw()));
+        this.rpc = new CloudRpc(this, gson, logger, scheduler);
+        this.inboundRouter.register(CloudRpc.REQUEST_TYPE, rpc::handleRequest);
+        this.inboundRouter.register(CloudRpc.RESPONSE_TYPE, rpc::handleResponse);
+    }
+
+    /**
+     * Gibt die RPC-Schicht zurück (z.B. um Handler für eigene Anfragetypen zu registrieren)
+     */
+    public CloudRpc getRpc() {
+        return rpc;
+    }
+
+    /**
+     * Sendet eine Anfrage an einen anderen Server und liefert dessen Antwort
+     */
+    public CompletableFuture<String> request(String targetServerId, String type, String payload, long timeoutMillis) {
+        return rpc.request(targetServerId, type, payload, timeoutMillis);
+    }
+
+    /**
+     * Sendet eine Anfrage an alle Server und sammelt bis zur Deadline höchstens {@code expectedResponses} Antworten
+     */
+    public CompletableFuture<Map<String, String>> gather(String type, String payload, int expectedResponses, long timeoutMillis) {
+        return rpc.gather(type, payload, expectedResponses, timeoutMillis);
+    }
+
+    /**
+     * Gibt den Router für eingehende Nachrichten zurück (z.B. um Handler für eigene Typen zu registrieren)
+     */
+    public InboundRouter getInboundRouter() {
+        return inboundRouter;
     }
 
     public void setMetricsProvider(ServerMetricsProvider provider) {
@@ -54,29 +106,185 @@ public abstract class CloudCommunication {
 
     public void setReconnectInterval(int seconds) {
         this.reconnectInterval = seconds;
+        this.reconnectPolicy.setMaxDelayMillis(seconds * 1000L);
     }
 
     public void setMaxReconnectAttempts(int attempts) {
         this.maxReconnectAttempts = attempts;
+        this.reconnectPolicy.setMaxAttempts(attempts);
+    }
+
+    public void setReconnectPolicy(ReconnectPolicy policy) {
+        this.reconnectPolicy = policy;
+    }
+
+    /**
+     * Gibt die Reconnect-Strategie zurück (inklusive Metriken zur Zeit bis zur Wiederverbindung)
+     */
+    public ReconnectPolicy getReconnectPolicy() {
+        return reconnectPolicy;
+    }
+
+    public void setPayloadCodec(PayloadCodec codec) {
+        this.payloadCodec = codec;
+    }
+
+    /**
+     * Gibt den Codec für die Nachrichten-Kompression zurück (inklusive eingesparter Bytes und CPU-Zeit)
+     */
+    public PayloadCodec getPayloadCodec() {
+        return payloadCodec;
     }
 
     public void setHeartbeatTimeout(int seconds) {
         this.heartbeatTimeout = seconds;
     }
 
+    public void setStorageSettings(StorageSettings settings) {
+        this.storageSettings = settings;
+    }
+
+    public StorageSettings getStorageSettings() {
+        return storageSettings;
+    }
+
+    public void setMainThreadDispatcher(MainThreadDispatcher dispatcher) {
+        this.mainThreadDispatcher = dispatcher;
+        CloudStorage storage = cloudStorage;
+        if (storage != null) {
+            storage.setMainThreadDispatcher(dispatcher);
+        }
+    }
+
+    public MainThreadDispatcher getMainThreadDispatcher() {
+        return mainThreadDispatcher;
+    }
+
     public boolean isConnected() {
         return connected;
     }
-    public CloudStorage getCloudStorage() {
+
+    /**
+     * Gibt den CloudStorage zurück. Wird beim ersten Zugriff erstellt, damit
+     * Passwort, Datenbank und Pool-Einstellungen bereits gesetzt sind.
+     */
+    public synchronized CloudStorage getCloudStorage() {
+        if (cloudStorage == null) {
+            cloudStorage = CloudStorage.fromCommunication(this, logger);
+            cloudStorage.setMainThreadDispatcher(mainThreadDispatcher);
+        }
         return cloudStorage;
     }
 
+    protected synchronized void closeCloudStorage() {
+        if (cloudStorage != null) {
+            cloudStorage.close();
+            cloudStorage = null;
+        }
+    }
+
     public abstract void connect();
     public abstract void sendLogEvent(String playerName, String uuid, String action, boolean forced);
     public abstract void sendHeartbeatResponse(HeartbeatRequest request);
     public abstract void sendShutdownHeartbeat();
     public abstract void disconnect();
 
+    /**
+     * Sendet eine fertige JSON-Nachricht an einen Server ("all" für alle). Das Future liefert true,
+     * sobald der Transport sie angenommen hat.
+     */
+    protected abstract CompletableFuture<Boolean> sendRaw(String targetServerId, String json);
+
+    /**
+     * Zählt einen Verbindungsversuch und berechnet seine Wartezeit. Gibt -1 zurück, wenn bereits ein Versuch
+     * geplant ist, keine Versuche mehr erlaubt sind oder der Server herunterfährt.
+     */
+    protected long planReconnect(String logPrefix) {
+        if (shuttingDown || !reconnectScheduled.compareAndSet(false, true)) {
+            return -1;
+        }
+        reconnectPolicy.markDisconnected();
+        if (!reconnectPolicy.canRetry(reconnectAttempts)) {
+            reconnectScheduled.set(false);
+            logger.error(logPrefix + " Maximale Reconnect-Versuche erreicht ({} in {}s). Gebe auf.", reconnectAttempts,
+                    reconnectPolicy.getRetryWindowMillis() / 1000);
+            return -1;
+        }
+
+        reconnectAttempts++;
+        long delay = reconnectPolicy.nextDelayMillis(reconnectAttempts);
+        logger.info(logPrefix + " Versuche Reconnect in {}ms... (Versuch {}/{})", delay, reconnectAttempts,
+                reconnectPolicy.isUnlimited() ? "unbegrenzt"
+                        : reconnectPolicy.getMaxAttempts() + ", mindestens " + reconnectPolicy.getRetryWindowMillis() / 1000 + "s");
+        return delay;
+    }
+
+    /**
+     * Führt {@link #connect()} nach der geplanten Wartezeit aus
+     */
+    protected void reconnectAfter(long delayMillis) {
+        try {
+            scheduler.schedule(() -> {
+                reconnectScheduled.set(false);
+                if (!connected && !shuttingDown) {
+                    connect();
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Scheduler bereits beendet
+            reconnectScheduled.set(false);
+        }
+    }
+
+    /**
+     * Verbindung erfolgreich aufgebaut: Zähler zurücksetzen und Zeit bis zur Wiederverbindung erfassen
+     */
+    protected void onConnected() {
+        reconnectAttempts = 0;
+        reconnectPolicy.markConnected();
+    }
+
+    /**
+     * Entpackt eine eingehende Nachricht; null wenn sie verworfen werden muss
+     */
+    protected String decodeInbound(String message) {
+        String decoded = payloadCodec.decode(message);
+        if (decoded == null) {
+            logger.warn("[EchoCloud] Komprimierte Nachricht ist beschädigt oder größer als {} Bytes und wird verworfen",
+                    payloadCodec.getMaxDecodedBytes());
+        }
+        return decoded;
+    }
+
+    /**
+     * Verarbeitet eine Invalidierungs-Nachricht der Cloud für den lokalen Storage-Cache
+     */
+    protected void handleStorageInvalidation(String message) {
+        CloudStorage storage = cloudStorage;
+        if (storage == null) {
+            return;
+        }
+
+        StorageInvalidation invalidation = gson.fromJson(message, StorageInvalidation.class);
+        if (invalidation == null) {
+            return;
+        }
+        if (invalidation.server_id != null && !serverId.equals(invalidation.server_id) && !"all".equals(invalidation.server_id)) {
+            return;
+        }
+
+        if (invalidation.key != null) {
+            storage.invalidateLocal(invalidation.key);
+        }
+        if (invalidation.keys != null) {
+            invalidation.keys.forEach(storage::invalidateLocal);
+        }
+        if (invalidation.key == null && invalidation.keys == null) {
+            storage.invalidateAllLocal();
+        }
+        logger.debug("[EchoCloud] Storage-Invalidierung verarbeitet: " + message);
+    }
+
     protected HeartbeatResponse createHeartbeatResponse(HeartbeatRequest request) {
         if (metricsProvider == null) {
             logger.warn("[EchoCloud] MetricsProvider nicht gesetzt - verwende Standard-Werte");
@@ -126,6 +334,8 @@ public abstract class CloudCommunication {
     }
 
     public void shutdown() {
+        // Ab hier keine neuen Reconnect-Versuche mehr planen
+        shuttingDown = true;
         logger.info("[EchoCloud] Sende Shutdown-Benachrichtigung...");
 
         try {
@@ -139,6 +349,8 @@ public abstract class CloudCommunication {
             logger.error("[EchoCloud] Fehler beim Senden des Shutdown-Heartbeats: " + e.getMessage());
         }
 
+        // Offene Anfragen abbrechen statt auf ihren Timeout zu warten
+        rpc.close();
         disconnect();
         scheduler.shutdown();
         try {
@@ -152,7 +364,9 @@ public abstract class CloudCommunication {
     }
 
     public static CloudCommunication create(String type, String baseUrl, String serverId, String authToken, CloudLogger logger, Server server) {
-        if ("Redis".equalsIgnoreCase(type)) {
+        if ("redis-streams".equalsIgnoreCase(type)) {
+            return new RedisStreamsCommunication(baseUrl, serverId, authToken, logger, server);
+        } else if ("Redis".equalsIgnoreCase(type)) {
             return new RedisCommunication(baseUrl, serverId, authToken, logger, server);
         } else {
             return new WebSocketCommunication(baseUrl, serverId, authToken, logger, true, server);
@@ -162,14 +376,24 @@ public abstract class CloudCommunication {
     public static CloudCommunication createFromConfig(PluginConfig config, CloudLogger logger, Server server) {
         String communicationType = config.getString("communication.type", "websocket").toLowerCase();
 
-        if ("redis".equals(communicationType)) {
+        if ("redis".equals(communicationType) || "redis-streams".equals(communicationType)) {
             String host = config.getString("redis.host", "127.0.0.1");
             int port = config.getInt("redis.port", 6379);
             String serverId = config.getString("websocket.serverId", "UNKNOWN");
             String authToken = config.getString("websocket.authToken", "");
 
             String redisUrl = host + ":" + port;
-            RedisCommunication redis = new RedisCommunication(redisUrl, serverId, authToken, logger, server);
+            RedisCommunication redis;
+            if ("redis-streams".equals(communicationType)) {
+                // Streams mit Consumer-Group statt Pub/Sub
+                RedisStreamsCommunication streams = new RedisStreamsCommunication(redisUrl, serverId, authToken, logger, server);
+                streams.setMaxLength(config.getInt("redis.streams.maxLength", 10000));
+                streams.setReadBatchSize(config.getInt("redis.streams.readBatchSize", 100));
+                streams.setBlockMillis(config.getInt("redis.streams.blockMillis", 2000));
+                redis = streams;
+            } else {
+                redis = new RedisCommunication(redisUrl, serverId, authToken, logger, server);
+            }
 
 
             // Redis
@@ -178,6 +402,15 @@ public abstract class CloudCommunication {
             redis.setChannel(config.getString("redis.channel", "echocloud:all"));
             redis.setReconnectInterval(config.getInt("communication.reconnectInterval", 30));
             redis.setMaxReconnectAttempts(config.getInt("communication.maxReconnectAttempts", 5));
+            redis.setReconnectPolicy(ReconnectPolicy.fromConfig(config));
+            redis.setPublishQueueCapacity(config.getInt("redis.publish.queueCapacity", 10000));
+            redis.setPublishMaxBatch(config.getInt("redis.publish.maxBatch", 128));
+            redis.setPublishLingerMicros(config.getInt("redis.publish.lingerMicros", 200));
+            redis.setPublishOverflow(config.getString("redis.publish.overflow", "drop-oldest"),
+                    config.getInt("redis.publish.blockTimeoutMillis", 100));
+            redis.setStorageSettings(StorageSettings.fromConfig(config));
+            redis.setPayloadCodec(PayloadCodec.fromConfig(config));
+            redis.getEventManager().setSettings(EventDispatchSettings.fromConfig(config));
 
             return redis;
         } else {
@@ -194,6 +427,10 @@ public abstract class CloudCommunication {
             WebSocketCommunication ws = new WebSocketCommunication(baseUrl, serverId, authToken, logger, true, server);
             ws.setReconnectInterval(config.getInt("communication.reconnectInterval", 30));
             ws.setMaxReconnectAttempts(config.getInt("communication.maxReconnectAttempts", 5));
+            ws.setReconnectPolicy(ReconnectPolicy.fromConfig(config));
+            ws.setStorageSettings(StorageSettings.fromConfig(config));
+            ws.setPayloadCodec(PayloadCodec.fromConfig(config));
+            ws.setPermessageDeflate(config.getBoolean("compression.permessageDeflate", true));
 
             return ws;
         }
@@ -223,6 +460,15 @@ public abstract class CloudCommunication {
         HeartbeatRequest() {}
     }
 
+    protected static class StorageInvalidation {
+        String type;
+        String server_id;
+        String key;
+        List<String> keys;
+
+        StorageInvalidation() {}
+    }
+
     protected static class HeartbeatResponse {
         String type;
         String server_id;
@@ -0,0 +1,85 @@
+package dev.echocloud.Cloud;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Netzwerkweiter Zähler mit lokaler Akkumulation.
+ * Erhöhungen landen in einem {@link LongAdder} und werden periodisch als Delta (INCRBY) übertragen.
+ * {@link #get()} kombiniert den zuletzt bekannten Cloud-Wert mit den noch nicht übertragenen Deltas.
+ */
+public class CloudCounter {
+
+    private final String key;
+    private final CloudCounters owner;
+    private final LongAdder pending = new LongAdder();
+    private volatile long lastKnownRemote = 0;
+    private volatile boolean remoteLoaded = false;
+
+    CloudCounter(String key, CloudCounters owner) {
+        this.key = key;
+        this.owner = owner;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void decrement() {
+        add(-1);
+    }
+
+    public void add(long delta) {
+        pending.add(delta);
+        owner.recordLocalOperation();
+    }
+
+    /**
+     * Aktueller Wert aus Sicht dieses Servers (Cloud-Wert + lokale, noch nicht übertragene Deltas)
+     */
+    public long get() {
+        return lastKnownRemote + pending.sum();
+    }
+
+    /**
+     * Noch nicht übertragene lokale Deltas
+     */
+    public long getPendingDelta() {
+        return pending.sum();
+    }
+
+    /**
+     * Zuletzt von der Cloud gemeldeter Wert
+     */
+    public long getLastKnownRemote() {
+        return lastKnownRemote;
+    }
+
+    public boolean isRemoteLoaded() {
+        return remoteLoaded;
+    }
+
+    /**
+     * Überträgt sofort alle Deltas dieses Zählers und liefert den neuen Gesamtwert
+     */
+    public CompletableFuture<Long> flush() {
+        return owner.flushCounter(this);
+    }
+
+    long drainPending() {
+        return pending.sumThenReset();
+    }
+
+    void restorePending(long delta) {
+        pending.add(delta);
+    }
+
+    void updateRemote(long value) {
+        lastKnownRemote = value;
+        remoteLoaded = true;
+    }
+}
@@ -0,0 +1,175 @@
+package dev.echocloud.Cloud;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Verwaltet alle {@link CloudCounter} einer CloudStorage-Instanz und überträgt deren Deltas
+ * gebündelt in einem Aufruf pro Intervall (Redis: Pipeline aus INCRBY, HTTP: eine Batch-Anfrage).
+ */
+public class CloudCounters {
+
+    // Key -> Delta, Ergebnis: Key -> neuer Gesamtwert (Delta 0 liest nur den aktuellen Wert)
+    private final Function<Map<String, Long>, CompletableFuture<Map<String, Long>>> writer;
+    private final CloudLogger logger;
+    private final Map<String, CloudCounter> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final long flushTimeoutMillis = 30_000;
+
+    private final LongAdder localOperations = new LongAdder();
+    private final LongAdder remoteUpdates = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder uncertainDeltas = new LongAdder();
+
+    public CloudCounters(Function<Map<String, Long>, CompletableFuture<Map<String, Long>>> writer,
+                         CloudLogger logger, long flushIntervalMillis) {
+        this.writer = writer;
+        this.logger = logger;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EchoCloud-Storage-Counters");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gibt den Zähler für einen Key zurück und legt ihn bei Bedarf an.
+     * Der aktuelle Cloud-Wert wird beim nächsten Flush geladen.
+     */
+    public CloudCounter get(String key) {
+        return counters.computeIfAbsent(key, k -> new CloudCounter(k, this));
+    }
+
+    /**
+     * Entfernt einen Zähler, nachdem seine ausstehenden Deltas übertragen wurden
+     */
+    public CompletableFuture<Long> remove(String key) {
+        CloudCounter counter = counters.remove(key);
+        if (counter == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return flushCounter(counter);
+    }
+
+    void recordLocalOperation() {
+        localOperations.increment();
+    }
+
+    CompletableFuture<Long> flushCounter(CloudCounter counter) {
+        return CompletableFuture.supplyAsync(() -> {
+            flush(Map.of(counter.getKey(), counter));
+            return counter.get();
+        }, flusher);
+    }
+
+    private void flushAll() {
+        try {
+            if (!counters.isEmpty()) {
+                flush(counters);
+            }
+        } catch (Exception e) {
+            logger.error("[CloudStorage] Zähler: Fehler beim Flush: " + e.getMessage());
+        }
+    }
+
+    private void flush(Map<String, CloudCounter> batch) {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        for (CloudCounter counter : batch.values()) {
+            long delta = counter.drainPending();
+            // Unveränderte Zähler werden mitgelesen, damit Erhöhungen anderer Server sichtbar werden
+            deltas.put(counter.getKey(), delta);
+            if (delta != 0) {
+                remoteUpdates.increment();
+            }
+        }
+
+        Map<String, Long> results;
+        try {
+            results = writer.apply(deltas).get(flushTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // Ausgang unbekannt: ein erneutes Senden könnte Deltas doppelt zählen, daher nicht zurücklegen
+            flushCount.increment();
+            failedFlushes.increment();
+            long pending = deltas.values().stream().filter(delta -> delta != 0).count();
+            uncertainDeltas.add(pending);
+            logger.error("[CloudStorage] Zähler: Übertragung von " + deltas.size() + " Zählern fehlgeschlagen, "
+                    + pending + " Deltas mit unbekanntem Ausgang werden nicht wiederholt: " + e.getMessage());
+            return;
+        }
+        flushCount.increment();
+
+        boolean failed = false;
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            CloudCounter counter = batch.get(entry.getKey());
+            Long total = results.get(entry.getKey());
+            if (total != null) {
+                counter.updateRemote(total);
+            } else {
+                // Sicher nicht angewendet: Delta zurücklegen und beim nächsten Intervall erneut versuchen
+                counter.restorePending(entry.getValue());
+                failed = true;
+            }
+        }
+        if (failed) {
+            failedFlushes.increment();
+        }
+    }
+
+    /**
+     * Stoppt den Hintergrund-Thread und überträgt alle ausstehenden Deltas
+     */
+    public void close() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(flushTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+    }
+
+    public int getCounterCount() {
+        return counters.size();
+    }
+
+    /**
+     * Anzahl lokaler Erhöhungen seit dem Start
+     */
+    public long getLocalOperations() {
+        return localOperations.sum();
+    }
+
+    /**
+     * Anzahl tatsächlich übertragener Deltas (INCRBY) seit dem Start
+     */
+    public long getRemoteUpdates() {
+        return remoteUpdates.sum();
+    }
+
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    public long getFailedFlushes() {
+        return failedFlushes.sum();
+    }
+
+    /**
+     * Deltas, deren Übertragung mit unbekanntem Ausgang abbrach und die deshalb nicht wiederholt wurden
+     */
+    public long getUncertainDeltas() {
+        return uncertainDeltas.sum();
+    }
+}
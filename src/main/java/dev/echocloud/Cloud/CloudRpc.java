@@ -0,0 +1,400 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.Gson;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Request/Response über den Cloud-Kanal (Redis oder WebSocket). Anfragen tragen eine Correlation-ID,
+ * Antworten werden über eine Tabelle offener Anfragen ihrem Future zugeordnet. Timeouts laufen über
+ * ein Timer-Wheel mit einem einzigen Tick-Task statt einer geplanten Aufgabe pro Anfrage.
+ */
+public class CloudRpc {
+
+    public static final String REQUEST_TYPE = "rpc_request";
+    public static final String RESPONSE_TYPE = "rpc_response";
+
+    /**
+     * Beantwortet eine Anfrage; der Rückgabewert wird als Payload zurückgeschickt
+     */
+    @FunctionalInterface
+    public interface Handler {
+        String handle(String senderId, String payload) throws Exception;
+    }
+
+    /**
+     * Beantwortet eine Anfrage asynchron (z.B. nach Arbeit auf dem Server-Thread)
+     */
+    @FunctionalInterface
+    public interface AsyncHandler {
+        CompletionStage<String> handle(String senderId, String payload);
+    }
+
+    private static final long TICK_MILLIS = 50;
+    private static final int WHEEL_SIZE = 512;
+
+    private final CloudCommunication communication;
+    private final Gson gson;
+    private final CloudLogger logger;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, AsyncHandler> handlers = new ConcurrentHashMap<>();
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    // Timer-Wheel: jeder Slot enthält die Anfragen, deren Deadline auf diesen Slot fällt (ggf. erst in späteren Runden)
+    private final Queue<Pending>[] wheel;
+    private final AtomicLong currentTick = new AtomicLong();
+    private ScheduledFuture<?> tickTask;
+
+    private final String idPrefix;
+    private final AtomicLong idCounter = new AtomicLong();
+
+    private final LongAdder requestsSent = new LongAdder();
+    private final LongAdder responsesReceived = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder remoteErrors = new LongAdder();
+    private final LongAdder requestsHandled = new LongAdder();
+    private final LongAdder roundTripNanos = new LongAdder();
+    private final LongAdder roundTrips = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public CloudRpc(CloudCommunication communication, Gson gson, CloudLogger logger, ScheduledExecutorService scheduler) {
+        this.communication = communication;
+        this.gson = gson;
+        this.logger = logger;
+        this.scheduler = scheduler;
+        this.wheel = new Queue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        // Eindeutig auch über Neustarts hinweg, ohne pro Anfrage eine UUID zu erzeugen
+        this.idPrefix = communication.serverId + "-" + Long.toHexString(System.currentTimeMillis()) + "-";
+    }
+
+    /**
+     * Registriert einen Handler für einen Anfragetyp (ersetzt einen vorhandenen).
+     * Läuft im Empfangs-Thread, daher sollte er nicht blockieren.
+     */
+    public void register(String type, Handler handler) {
+        handlers.put(type, (senderId, payload) -> {
+            try {
+                return CompletableFuture.completedFuture(handler.handle(senderId, payload));
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    public void registerAsync(String type, AsyncHandler handler) {
+        handlers.put(type, handler);
+    }
+
+    public void unregister(String type) {
+        handlers.remove(type);
+    }
+
+    /**
+     * Sendet eine Anfrage an einen Server. Das Future liefert den Payload der Antwort und schlägt mit
+     * einer {@link TimeoutException} fehl, wenn innerhalb von {@code timeoutMillis} keine Antwort kommt.
+     */
+    public CompletableFuture<String> request(String targetServerId, String type, String payload, long timeoutMillis) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        send(targetServerId, type, payload, timeoutMillis, 1, (responses, timedOut) -> {
+            if (timedOut) {
+                future.completeExceptionally(new TimeoutException("Keine Antwort auf " + type + " von " + targetServerId
+                        + " innerhalb von " + timeoutMillis + "ms"));
+                return;
+            }
+            RpcMessage response = responses.values().iterator().next();
+            if (response.error != null) {
+                future.completeExceptionally(new IllegalStateException("Fehler bei " + targetServerId + ": " + response.error));
+            } else {
+                future.complete(response.payload);
+            }
+        }, future);
+        return future;
+    }
+
+    /**
+     * Sendet eine Anfrage an alle Server und sammelt die Antworten (Server-ID -> Payload), bis
+     * {@code expectedResponses} erreicht oder die Deadline abgelaufen ist. Nach der Deadline wird mit den
+     * bis dahin eingegangenen Antworten abgeschlossen. Fehlerantworten werden nicht übernommen.
+     */
+    public CompletableFuture<Map<String, String>> gather(String type, String payload, int expectedResponses, long timeoutMillis) {
+        CompletableFuture<Map<String, String>> future = new CompletableFuture<>();
+        send("all", type, payload, timeoutMillis, expectedResponses, (responses, timedOut) -> {
+            Map<String, String> result = new LinkedHashMap<>();
+            responses.forEach((server, response) -> {
+                if (response.error == null) {
+                    result.put(server, response.payload);
+                }
+            });
+            future.complete(Collections.unmodifiableMap(result));
+        }, future);
+        return future;
+    }
+
+    private void send(String targetServerId, String type, String payload, long timeoutMillis, int expected,
+                      BiConsumer<Map<String, RpcMessage>, Boolean> onDone, CompletableFuture<?> future) {
+        if (!communication.isConnected()) {
+            future.completeExceptionally(new IllegalStateException("Keine Verbindung zur Cloud"));
+            return;
+        }
+        ensureTimer();
+
+        String correlationId = idPrefix + idCounter.incrementAndGet();
+        Pending entry = new Pending(correlationId, expected, onDone);
+        pending.put(correlationId, entry);
+        schedule(entry, timeoutMillis);
+
+        RpcMessage request = new RpcMessage(REQUEST_TYPE, correlationId, communication.serverId, targetServerId, type,
+                payload, null);
+        communication.sendRaw(targetServerId, gson.toJson(request)).whenComplete((sent, error) -> {
+            if (error != null || !Boolean.TRUE.equals(sent)) {
+                if (pending.remove(correlationId) != null) {
+                    future.completeExceptionally(new IllegalStateException("Anfrage " + type + " konnte nicht gesendet werden"));
+                }
+            }
+        });
+        requestsSent.increment();
+    }
+
+    /**
+     * Verarbeitet eine eingehende Anfrage und schickt die Antwort an den Absender
+     */
+    void handleRequest(InboundRouter.Message message) {
+        RpcMessage request = message.getBody(RpcMessage.class);
+        if (request == null || request.correlation_id == null || request.sender_id == null) {
+            return;
+        }
+        String serverId = communication.serverId;
+        boolean broadcast = "all".equals(request.target_id);
+        // Eigene Broadcasts und Anfragen an andere Server ignorieren
+        if (serverId.equals(request.sender_id) || (!broadcast && !serverId.equals(request.target_id))) {
+            return;
+        }
+
+        AsyncHandler handler = request.rpc_type != null ? handlers.get(request.rpc_type) : null;
+        if (handler == null) {
+            // Bei Broadcasts antworten nur Server, die den Typ kennen
+            if (!broadcast) {
+                reply(request, null, "Kein Handler für " + request.rpc_type);
+            }
+            return;
+        }
+
+        requestsHandled.increment();
+        CompletionStage<String> result;
+        try {
+            result = handler.handle(request.sender_id, request.payload);
+        } catch (Exception e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((payload, error) -> {
+            if (error != null) {
+                logger.error("[EchoCloud] Fehler im RPC-Handler " + request.rpc_type + ": " + error.getMessage());
+                reply(request, null, String.valueOf(error.getMessage()));
+            } else {
+                reply(request, payload, null);
+            }
+        });
+    }
+
+    private void reply(RpcMessage request, String payload, String error) {
+        RpcMessage response = new RpcMessage(RESPONSE_TYPE, request.correlation_id, communication.serverId,
+                request.sender_id, request.rpc_type, payload, error);
+        communication.sendRaw(request.sender_id, gson.toJson(response));
+    }
+
+    /**
+     * Ordnet eine Antwort über die Correlation-ID der offenen Anfrage zu
+     */
+    void handleResponse(InboundRouter.Message message) {
+        RpcMessage response = message.getBody(RpcMessage.class);
+        if (response == null || response.correlation_id == null || !communication.serverId.equals(response.target_id)) {
+            return;
+        }
+        Pending entry = pending.get(response.correlation_id);
+        if (entry == null) {
+            // Zu spät oder doppelt zugestellt (z.B. bei at-least-once über Streams)
+            return;
+        }
+        responsesReceived.increment();
+        if (response.error != null) {
+            remoteErrors.increment();
+        }
+
+        boolean complete;
+        synchronized (entry) {
+            entry.responses.putIfAbsent(response.sender_id != null ? response.sender_id : "unknown", response);
+            complete = entry.expected > 0 && entry.responses.size() >= entry.expected;
+        }
+        if (complete && pending.remove(entry.correlationId, entry)) {
+            long rtt = System.nanoTime() - entry.startedAt;
+            roundTripNanos.add(rtt);
+            roundTrips.increment();
+            finish(entry, false);
+        }
+    }
+
+    private void finish(Pending entry, boolean timedOut) {
+        try {
+            synchronized (entry) {
+                entry.onDone.accept(new LinkedHashMap<>(entry.responses), timedOut);
+            }
+        } catch (Exception e) {
+            logger.error("[EchoCloud] Fehler beim Abschließen einer RPC-Anfrage: " + e.getMessage());
+        }
+    }
+
+    private synchronized void ensureTimer() {
+        if (tickTask == null) {
+            tickTask = scheduler.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void schedule(Pending entry, long timeoutMillis) {
+        long ticks = Math.max(1, (timeoutMillis + TICK_MILLIS - 1) / TICK_MILLIS);
+        // Ein Tick Reserve, falls das Wheel gerade weiterläuft
+        entry.deadlineTick = currentTick.get() + ticks + 1;
+        wheel[(int) (entry.deadlineTick % WHEEL_SIZE)].add(entry);
+    }
+
+    /**
+     * Ein Schritt des Timer-Wheels: prüft nur den aktuellen Slot
+     */
+    private void tick() {
+        long tick = currentTick.incrementAndGet();
+        Queue<Pending> slot = wheel[(int) (tick % WHEEL_SIZE)];
+        int size = slot.size();
+        for (int i = 0; i < size; i++) {
+            Pending entry = slot.poll();
+            if (entry == null) {
+                break;
+            }
+            if (!pending.containsKey(entry.correlationId)) {
+                // Bereits beantwortet
+                continue;
+            }
+            if (entry.deadlineTick > tick) {
+                // Deadline liegt in einer späteren Runde
+                slot.add(entry);
+                continue;
+            }
+            if (pending.remove(entry.correlationId, entry)) {
+                // Scatter-Gather ohne feste Anzahl endet regulär mit der Deadline
+                if (entry.expected > 0) {
+                    timeouts.increment();
+                }
+                finish(entry, entry.responses.isEmpty());
+            }
+        }
+    }
+
+    /**
+     * Bricht alle offenen Anfragen ab und stoppt das Timer-Wheel
+     */
+    public synchronized void close() {
+        if (tickTask != null) {
+            tickTask.cancel(false);
+            tickTask = null;
+        }
+        for (Pending entry : pending.values()) {
+            if (pending.remove(entry.correlationId, entry)) {
+                finish(entry, true);
+            }
+        }
+        for (Queue<Pending> slot : wheel) {
+            slot.clear();
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getRequestsSent() {
+        return requestsSent.sum();
+    }
+
+    public long getResponsesReceived() {
+        return responsesReceived.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long getRemoteErrorCount() {
+        return remoteErrors.sum();
+    }
+
+    /**
+     * Von diesem Server beantwortete Anfragen
+     */
+    public long getRequestsHandled() {
+        return requestsHandled.sum();
+    }
+
+    /**
+     * Durchschnittliche Zeit bis zur (letzten erwarteten) Antwort in Millisekunden
+     */
+    public double getAverageRoundTripMillis() {
+        long count = roundTrips.sum();
+        return count == 0 ? 0.0 : roundTripNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    private static class Pending {
+        final String correlationId;
+        final int expected;
+        final BiConsumer<Map<String, RpcMessage>, Boolean> onDone;
+        final Map<String, RpcMessage> responses = new LinkedHashMap<>();
+        final long startedAt = System.nanoTime();
+        long deadlineTick;
+
+        Pending(String correlationId, int expected, BiConsumer<Map<String, RpcMessage>, Boolean> onDone) {
+            this.correlationId = correlationId;
+            this.expected = expected;
+            this.onDone = onDone;
+        }
+    }
+
+    private static class RpcMessage {
+        String type;
+        String correlation_id;
+        String sender_id;
+        String target_id;
+        String rpc_type;
+        String payload;
+        String error;
+        String timestamp;
+
+        RpcMessage() {}
+
+        RpcMessage(String type, String correlationId, String senderId, String targetId, String rpcType,
+                   String payload, String error) {
+            this.type = type;
+            this.correlation_id = correlationId;
+            this.sender_id = senderId;
+            this.target_id = targetId;
+            this.rpc_type = rpcType;
+            this.payload = payload;
+            this.error = error;
+            this.timestamp = Instant.now().toString();
+        }
+    }
+}
@@ -1,21 +1,62 @@
 package dev.echocloud.Cloud;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
-import okhttp3.*;
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.ConnectionPoolConfig;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
-
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.params.SetParams;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.util.Pool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.net.ConnectException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class CloudStorage {
 
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>(){}.getType();
+
     private final String baseUrl;
     private final String serverId;
     private final String authToken;
@@ -25,21 +66,59 @@ public class CloudStorage {
 
     private final HttpClient httpClient;
 
-    private Jedis redisClient;
+    // Thread-safe: jeder Befehl leiht sich eine eigene Verbindung aus dem Pool des zuständigen Knotens
+    private volatile StorageShards shards;
     private final String redisPassword;
     private final int redisDatabase;
+    private final StorageSettings settings;
+    private final RedisTopology topology;
+    // Im Cluster stehen alle Keys eines Servers per Hash-Tag im selben Slot (MGET/MSET/SCAN bleiben möglich)
+    private final String keyPrefix;
+    private final StorageExecutor executor;
+    private final StorageCodecs codecs;
+
+    // Optionaler lokaler Cache (null wenn deaktiviert)
+    private final StorageCache cache;
+    // Fasst gleichzeitige Loads für denselben Key zusammen
+    private final StorageSingleFlight singleFlight;
+    // Optionaler Write-Behind-Puffer (null wenn deaktiviert)
+    private final WriteBehindBuffer writeBehind;
+    // Optionaler lokaler Spool für Backend-Ausfälle (null wenn deaktiviert)
+    private final StorageSpool spool;
+    // Gibt Chunks ersetzter oder gelöschter Blobs frei (nur Redis, null wenn deaktiviert)
+    private final ScheduledExecutorService blobSweeper;
+    // Zähler werden erst bei der ersten Verwendung angelegt
+    private CloudCounters counters;
+    // Ein Keyspace-Abonnement pro Redis-Knoten, jeweils auf einer eigenen Verbindung außerhalb des Pools
+    private final Map<HostAndPort, InvalidationSubscription> invalidationSubscribers = new ConcurrentHashMap<>();
+    // Werden bei lokalen Schreibvorgängen und Invalidierungen eines Keys benachrichtigt (z.B. Prefetch-Sessions)
+    private final List<Consumer<String>> changeListeners = new CopyOnWriteArrayList<>();
+    // Führt Callbacks auf dem Server-Thread aus und erkennt blockierende Sync-Aufrufe (null außerhalb des Plugins)
+    private volatile MainThreadDispatcher mainThread;
+    private volatile boolean closed = false;
 
     public CloudStorage(String baseUrl, String serverId, String authToken, CloudLogger logger) {
-        this(baseUrl, serverId, authToken, logger, "http", "", 0);
+        this(baseUrl, serverId, authToken, logger, "http", "", 0, new StorageSettings());
+    }
+
+    public CloudStorage(String baseUrl, String serverId, String authToken, CloudLogger logger,
+                        StorageSettings settings) {
+        this(baseUrl, serverId, authToken, logger, "http", "", 0, settings);
     }
 
     public CloudStorage(String baseUrl, String serverId, String authToken, CloudLogger logger,
                         String redisPassword, int redisDatabase) {
-        this(baseUrl, serverId, authToken, logger, "redis", redisPassword, redisDatabase);
+        this(baseUrl, serverId, authToken, logger, "redis", redisPassword, redisDatabase, new StorageSettings());
+    }
+
+    public CloudStorage(String baseUrl, String serverId, String authToken, CloudLogger logger,
+                        String redisPassword, int redisDatabase, StorageSettings settings) {
+        this(baseUrl, serverId, authToken, logger, "redis", redisPassword, redisDatabase, settings);
     }
 
     private CloudStorage(String baseUrl, String serverId, String authToken, CloudLogger logger,
-                         String communicationType, String redisPassword, int redisDatabase) {
+                         String communicationType, String redisPassword, int redisDatabase,
+                         StorageSettings settings) {
         this.baseUrl = baseUrl;
         this.serverId = serverId;
         this.authToken = authToken;
@@ -48,6 +127,16 @@ public class CloudStorage {
         this.communicationType = communicationType.toLowerCase();
         this.redisPassword = redisPassword;
         this.redisDatabase = redisDatabase;
+        this.settings = settings;
+        this.topology = settings.getRedisTopology();
+        this.keyPrefix = topology.isCluster() ? "server:{" + serverId + "}:" : "server:" + serverId + ":";
+        this.executor = new StorageExecutor(logger, settings.getExecutorType(), settings.getExecutorPlatformThreads(),
+                settings.getExecutorMaxInFlight(), settings.getExecutorMaxQueued());
+        this.codecs = new StorageCodecs(settings.getCodec(), settings.getCompressionThreshold());
+        this.singleFlight = new StorageSingleFlight(settings.isSingleFlightEnabled(), settings.getSingleFlightNamespaces());
+        this.cache = settings.isCacheEnabled()
+                ? new StorageCache(settings.getCacheMaxEntries(), settings.getCacheTtlMillis())
+                : null;
 
         if ("http".equals(this.communicationType) || "websocket".equals(this.communicationType)) {
             this.httpClient = HttpClient.newBuilder()
@@ -56,6 +145,34 @@ public class CloudStorage {
         } else {
             this.httpClient = null;
             initializeRedis();
+            if (cache != null && "keyspace".equalsIgnoreCase(settings.getCacheInvalidation())) {
+                if (topology.isCluster()) {
+                    // Keyspace-Notifications sind knotenlokal und im Cluster nicht zuverlässig abonnierbar
+                    logger.warn("[CloudStorage] Keyspace-Invalidierung wird im Cluster-Modus nicht unterstützt, Cache läuft nur mit TTL");
+                } else {
+                    startKeyspaceInvalidation();
+                    logger.info("[CloudStorage] Lokaler Cache aktiv (Invalidierung über Keyspace-Notifications)");
+                }
+            }
+        }
+
+        this.spool = settings.isSpoolEnabled() ? createSpool() : null;
+
+        this.writeBehind = settings.isWriteBehindEnabled()
+                ? new WriteBehindBuffer(this::storeAllDurable, logger, settings.getWriteBehindFlushIntervalMillis(),
+                        settings.getWriteBehindBatchSize(), settings.getWriteBehindFlushThreshold())
+                : null;
+
+        int sweepInterval = settings.getBlobSweepIntervalSeconds();
+        if ("redis".equals(this.communicationType) && sweepInterval > 0) {
+            this.blobSweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "EchoCloud-Storage-BlobSweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.blobSweeper.scheduleWithFixedDelay(this::sweepBlobs, sweepInterval, sweepInterval, TimeUnit.SECONDS);
+        } else {
+            this.blobSweeper = null;
         }
     }
 
@@ -68,106 +185,575 @@ public class CloudStorage {
                     communication.authToken,
                     logger,
                     "redis",
-                    "",
-                    0
+                    redis.getPassword(),
+                    redis.getDatabase(),
+                    communication.storageSettings
             );
         } else {
             return new CloudStorage(
                     communication.baseUrl,
                     communication.serverId,
                     communication.authToken,
-                    logger
+                    logger,
+                    communication.storageSettings
             );
         }
     }
 
-    private void initializeRedis() {
+    private StorageSpool createSpool() {
         try {
-            String[] parts = baseUrl.split(":");
-            String host = parts[0];
-            int port = parts.length > 1 ? Integer.parseInt(parts[1]) : 6379;
+            StorageSpool created = new StorageSpool(settings.getSpoolPath(), settings.getSpoolMaxSizeBytes(),
+                    settings.getSpoolFsync(), settings.getSpoolFsyncIntervalMillis(),
+                    settings.getSpoolReplayIntervalMillis(), settings.getSpoolReplayBatchSize(),
+                    codecs, logger, this::storeAllDirect, this::deleteAllForReplay);
+            logger.info("[CloudStorage] Lokaler Spool aktiv: {} ({} MB, fsync: {})", settings.getSpoolPath(),
+                    settings.getSpoolMaxSizeBytes() / (1024 * 1024), settings.getSpoolFsync());
+            return created;
+        } catch (Exception e) {
+            logger.error("[CloudStorage] Spool konnte nicht geöffnet werden, Schreibvorgänge werden bei Ausfällen nicht gesichert: " + e.getMessage());
+            return null;
+        }
+    }
 
-            redisClient = new Jedis(host, port);
+    private synchronized void initializeRedis() {
+        if (shards != null) {
+            return;
+        }
 
-            if (redisPassword != null && !redisPassword.isEmpty()) {
-                redisClient.auth(redisPassword);
+        try {
+            // Ohne konfigurierte Shards wird nur der Knoten aus der Verbindungsadresse verwendet
+            List<HostAndPort> nodes = new ArrayList<>();
+            if (topology.getMode() == RedisTopology.Mode.STANDALONE) {
+                for (String node : settings.getShardNodes()) {
+                    nodes.add(parseHostAndPort(node));
+                }
+            } else if (!settings.getShardNodes().isEmpty()) {
+                // Sentinel bzw. Cluster übernehmen Failover und Verteilung selbst
+                logger.warn("[CloudStorage] redis.shards wird im Modus {} ignoriert", topology.getMode());
+            }
+            if (nodes.isEmpty()) {
+                nodes.add(parseHostAndPort(baseUrl));
+            }
+            if (topology.isCluster() && redisDatabase != 0) {
+                logger.warn("[CloudStorage] Redis Cluster unterstützt nur Datenbank 0, redis.database ({}) wird ignoriert", redisDatabase);
             }
 
-            if (redisDatabase != 0) {
-                redisClient.select(redisDatabase);
+            shards = new StorageShards(nodes, settings.getShardVirtualNodes(), this::createPool, logger);
+
+            String target = topology.getMode() == RedisTopology.Mode.STANDALONE
+                    ? String.join(", ", shards.getNodeNames())
+                    : topology.describe(nodes.get(0));
+            logger.info("[CloudStorage] Redis-Pool initialisiert: {} (DB: {}, maxTotal: {} pro Knoten)",
+                    target, redisDatabase, settings.getPoolMaxTotal());
+        } catch (Exception e) {
+            logger.error("[CloudStorage] Fehler beim Initialisieren des Redis-Pools: " + e.getMessage());
+        }
+    }
+
+    private static HostAndPort parseHostAndPort(String address) {
+        return RedisTopology.parseNode(address, 6379);
+    }
+
+    private DefaultJedisClientConfig clientConfig() {
+        DefaultJedisClientConfig.Builder clientConfig = DefaultJedisClientConfig.builder()
+                .timeoutMillis(settings.getRedisTimeoutMillis())
+                .database(topology.isCluster() ? 0 : redisDatabase);
+
+        if (redisPassword != null && !redisPassword.isEmpty()) {
+            clientConfig.password(redisPassword);
+        }
+        return clientConfig.build();
+    }
+
+    private UnifiedJedis createPool(HostAndPort address) {
+
+        ConnectionPoolConfig poolConfig = new ConnectionPoolConfig();
+        poolConfig.setMaxTotal(settings.getPoolMaxTotal());
+        poolConfig.setMaxIdle(settings.getPoolMaxIdle());
+        poolConfig.setMinIdle(settings.getPoolMinIdle());
+        poolConfig.setBlockWhenExhausted(true);
+        poolConfig.setMaxWait(Duration.ofMillis(settings.getPoolMaxWaitMillis()));
+        poolConfig.setTestOnBorrow(settings.isPoolTestOnBorrow());
+        poolConfig.setTestWhileIdle(settings.isPoolTestWhileIdle());
+        poolConfig.setTimeBetweenEvictionRuns(Duration.ofSeconds(30));
+        poolConfig.setJmxEnabled(false);
+
+        return topology.createClient(address, clientConfig(), poolConfig);
+    }
+
+    private StorageShards shards() {
+        StorageShards current = shards;
+        if (current == null) {
+            initializeRedis();
+            current = shards;
+            if (current == null) {
+                throw new IllegalStateException("Redis-Pool nicht verfügbar");
             }
+        }
+        return current;
+    }
+
+    /**
+     * Pool des Knotens, dem der Key gehört
+     */
+    private UnifiedJedis redis(byte[] storageKey) {
+        return shards().forKey(storageKey);
+    }
+
+    private UnifiedJedis redisFor(String key) {
+        return redis(storageKey(key));
+    }
 
-            logger.info("[CloudStorage] Redis-Verbindung initialisiert: {}:{} (DB: {})", host, port, redisDatabase);
+    /**
+     * Knoten für Teil-Updates und Lesezugriffe ohne eigenen Fallback; während einer Shard-Migration
+     * wird der Key vorher auf seinen neuen Knoten verschoben
+     */
+    private UnifiedJedis redisMigrated(byte[] storageKey) {
+        return shards().forKeyMigrated(storageKey);
+    }
+
+    /**
+     * Führt eine Mehr-Key-Operation pro Knoten aus (parallel bei mehreren Knoten) und fasst die Ergebnisse zusammen
+     */
+    private <R> CompletableFuture<Map<String, R>> perShard(Collection<String> keys,
+                                                           BiFunction<UnifiedJedis, List<String>, Map<String, R>> operation) {
+        return perShard(keys, operation, false);
+    }
+
+    /**
+     * @param failOnError bei Lesezugriffen schlägt das Future fehl, statt eine leere Map zu liefern,
+     *                    damit ein Verbindungsfehler nicht wie "Key existiert nicht" aussieht
+     */
+    private <R> CompletableFuture<Map<String, R>> perShard(Collection<String> keys,
+                                                           BiFunction<UnifiedJedis, List<String>, Map<String, R>> operation,
+                                                           boolean failOnError) {
+        Map<UnifiedJedis, List<String>> groups;
+        try {
+            groups = shards().group(keys, this::storageKey);
         } catch (Exception e) {
-            logger.error("[CloudStorage] Fehler beim Initialisieren der Redis-Verbindung: " + e.getMessage());
+            logger.error("[CloudStorage] Redis: " + e.getMessage());
+            if (failOnError) {
+                return CompletableFuture.failedFuture(e);
+            }
+            // Fehlende Keys im Ergebnis gelten als fehlgeschlagen
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+
+        List<CompletableFuture<Map<String, R>>> futures = new ArrayList<>();
+        groups.forEach((client, group) -> futures.add(executor.supplyAsync(() -> operation.apply(client, group))));
+        if (futures.size() == 1) {
+            return futures.get(0);
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<String, R> results = new LinkedHashMap<>();
+            futures.forEach(future -> results.putAll(future.join()));
+            return results;
+        });
+    }
+
+    /**
+     * Löscht Keys während einer Shard-Migration auch auf ihrem bisherigen Knoten,
+     * damit Lese-Fallback und Migration sie nicht wiederherstellen
+     */
+    private void deleteFromPreviousOwners(Collection<byte[]> storageKeys) {
+        StorageShards current = shards;
+        if (current == null || !current.isMigrating()) {
+            return;
+        }
+        for (byte[] storageKey : storageKeys) {
+            current.deleteMigrating(storageKey);
+        }
+    }
+
+    /**
+     * Fügt einen Redis-Knoten hinzu und verschiebt im Hintergrund die Keys, die nun ihm gehören (ca. 1/n).
+     * Bis zum Abschluss lesen Einzel- und Batch-Abfragen fehlende Keys vom bisherigen Knoten.
+     * Ist die Migration zu diesem Knoten abgebrochen, setzt ein erneuter Aufruf sie fort.
+     *
+     * @return Anzahl verschobener Keys, null bei Fehlern
+     */
+    public CompletableFuture<Long> addShard(String address) {
+        if (!"redis".equals(communicationType)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return executor.supplyAsync(() -> {
+            try {
+                if (topology.getMode() != RedisTopology.Mode.STANDALONE) {
+                    logger.warn("[CloudStorage] Knoten können im Modus {} nicht manuell hinzugefügt werden", topology.getMode());
+                    return null;
+                }
+                if (!shards().addNode(parseHostAndPort(address))) {
+                    // Knoten bereits vorhanden: eine abgebrochene Migration fortsetzen
+                    return shards().isMigrating() ? shards().migrate(storageKey("*")) : 0L;
+                }
+                invalidateAllLocal();
+                if (cache != null && "keyspace".equalsIgnoreCase(settings.getCacheInvalidation())) {
+                    startKeyspaceInvalidation();
+                }
+                return shards().migrate(storageKey("*"));
+            } catch (Exception e) {
+                logger.error("[CloudStorage] Fehler beim Hinzufügen des Redis-Knotens " + address + ": " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    public StorageShards getShards() {
+        return shards;
+    }
+
+    /**
+     * Hört auf Redis Keyspace-Notifications und invalidiert geänderte Keys im lokalen Cache.
+     * Voraussetzung: notify-keyspace-events enthält mindestens "K", "g" und "$" (z.B. "Kg$x").
+     * Jeder Knoten meldet nur seine eigenen Keys, daher wird jeder Knoten einzeln abonniert.
+     */
+    private void startKeyspaceInvalidation() {
+        StorageShards current = shards;
+        if (current == null) {
+            return;
+        }
+        for (HostAndPort node : current.getNodeAddresses()) {
+            if (!invalidationSubscribers.containsKey(node)) {
+                startKeyspaceInvalidation(node);
+            }
+        }
+    }
+
+    private void startKeyspaceInvalidation(HostAndPort node) {
+        String channelPrefix = "__keyspace@" + redisDatabase + "__:" + keyPrefix;
+
+        JedisPubSub subscriber = new JedisPubSub() {
+            @Override
+            public void onPMessage(String pattern, String channel, String message) {
+                if (channel.startsWith(channelPrefix)) {
+                    cache.invalidate(channel.substring(channelPrefix.length()));
+                }
+            }
+        };
+        InvalidationSubscription subscription = new InvalidationSubscription(subscriber);
+        invalidationSubscribers.put(node, subscription);
+
+        Thread thread = new Thread(() -> {
+            while (!closed) {
+                // Eigene Verbindung statt einer dauerhaft aus dem Pool geliehenen
+                try (Jedis connection = topology.createDedicatedConnection(node, clientConfig())) {
+                    subscription.connection = connection;
+                    if (!closed) {
+                        connection.psubscribe(subscriber, channelPrefix + "*");
+                    }
+                } catch (Exception e) {
+                    if (closed) {
+                        break;
+                    }
+                    logger.warn("[CloudStorage] Keyspace-Invalidierung unterbrochen: {}", e.getMessage());
+                } finally {
+                    subscription.connection = null;
+                }
+                if (closed) {
+                    break;
+                }
+                // Ohne Invalidierungskanal ist der Cache nicht mehr vertrauenswürdig
+                cache.invalidateAll();
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }, "EchoCloud-Storage-Invalidation");
+        thread.setDaemon(true);
+        subscription.thread = thread;
+        thread.start();
+    }
+
+    private static class InvalidationSubscription {
+        final JedisPubSub subscriber;
+        volatile Jedis connection;
+        volatile Thread thread;
+
+        InvalidationSubscription(JedisPubSub subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void close() {
+            if (subscriber.isSubscribed()) {
+                subscriber.punsubscribe();
+            }
+            Jedis current = connection;
+            if (current != null) {
+                current.close();
+            }
+            Thread running = thread;
+            if (running != null) {
+                running.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Entfernt einen Key aus dem lokalen Cache (z.B. nach einer Invalidierungs-Nachricht der Cloud)
+     */
+    public void invalidateLocal(String key) {
+        fireChanged(key);
+        singleFlight.forget(key);
+        StorageCache localCache = cache;
+        if (localCache != null) {
+            localCache.invalidate(key);
+        }
+    }
+
+    /**
+     * Registriert einen Listener, der bei jeder lokalen Änderung oder Invalidierung eines Keys aufgerufen wird
+     */
+    public void addChangeListener(Consumer<String> listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Consumer<String> listener) {
+        changeListeners.remove(listener);
+    }
+
+    private void fireChanged(String key) {
+        for (Consumer<String> listener : changeListeners) {
+            try {
+                listener.accept(key);
+            } catch (Exception e) {
+                logger.error("[CloudStorage] Fehler im Change-Listener - Key: " + key + ", Error: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Leert den lokalen Cache vollständig
+     */
+    public void invalidateAllLocal() {
+        StorageCache localCache = cache;
+        if (localCache != null) {
+            localCache.invalidateAll();
         }
     }
 
     /**
-     * Speichert Daten in der Cloud
+     * Gibt den lokalen Cache zurück (für Metriken), null wenn deaktiviert
+     */
+    public StorageCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Sendet eine Aktion an die Storage-API der Cloud
+     */
+    private HttpResponse<String> postStorageRequest(Map<String, Object> requestBody) throws Exception {
+        String jsonBody = gson.toJson(requestBody);
+        String url = baseUrl + "/api/storage/" + serverId + "/" + authToken;
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Gibt die Codec-Registry zurück (z.B. um eigene Codecs zu registrieren)
+     */
+    public StorageCodecs getCodecs() {
+        return codecs;
+    }
+
+    private byte[] storageKey(String key) {
+        return (keyPrefix + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gibt den Storage-Executor zurück (für Metriken)
+     */
+    public StorageExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Gibt die Single-Flight-Zusammenfassung zurück (für Metriken wie eingesparte Requests)
+     */
+    public StorageSingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * Gibt den Write-Behind-Puffer zurück (für Metriken), null wenn deaktiviert
+     */
+    public WriteBehindBuffer getWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Gibt den lokalen Spool zurück (für Metriken), null wenn deaktiviert
+     */
+    public StorageSpool getSpool() {
+        return spool;
+    }
+
+    /**
+     * Speichert Daten in der Cloud.
+     * Im Write-Behind-Modus wird der Wert nur gepuffert und das Future sofort mit true abgeschlossen.
      */
     public CompletableFuture<Boolean> store(String key, Object data) {
+        JsonElement value = gson.toJsonTree(data);
+        fireChanged(key);
+
+        if (writeBehind != null) {
+            writeBehind.enqueue(key, value);
+            return CompletableFuture.completedFuture(true);
+        }
+        return storeDirect(key, value, -1);
+    }
+
+    /**
+     * Speichert Daten mit Ablaufzeit. Der Key wird vom Backend nach {@code ttl} entfernt.
+     * Schreibvorgänge mit TTL umgehen den Write-Behind-Puffer.
+     */
+    public CompletableFuture<Boolean> store(String key, Object data, Duration ttl) {
+        JsonElement value = gson.toJsonTree(data);
+        long ttlMillis = Math.max(1, ttl.toMillis());
+        fireChanged(key);
+
+        if (writeBehind != null) {
+            return writeBehind.discardThen(key, () -> storeDirect(key, value, ttlMillis));
+        }
+        return storeDirect(key, value, ttlMillis);
+    }
+
+    private CompletableFuture<Boolean> storeDirect(String key, JsonElement value, long ttlMillis) {
+        singleFlight.forget(key);
+        StorageCache localCache = cache;
+        if (localCache != null) {
+            localCache.invalidate(key);
+        }
+
+        // Schreibvorgänge mit TTL werden nicht gespoolt, da die Ablaufzeit beim Nachspielen nicht mehr stimmt
+        boolean durable = spool != null && ttlMillis <= 0;
+        if (durable && spool.hasPending()) {
+            return CompletableFuture.completedFuture(spool.appendStore(key, value));
+        }
+
+        CompletableFuture<Boolean> future;
         if ("redis".equals(communicationType)) {
-            return storeViaRedis(key, data);
+            future = storeViaRedis(key, value, ttlMillis);
+        } else {
+            future = storeViaHttp(key, value, ttlMillis);
+        }
+        if (durable) {
+            // Nur Verbindungsfehler und unklare Ausgänge spoolen; abgelehnte Werte würden beim Nachspielen erneut scheitern
+            future = future.handle((success, error) -> error == null ? success : spool.appendStore(key, value));
         } else {
-            return storeViaHttp(key, data);
+            future = discardSpooledOnSuccess(key, future.exceptionally(error -> false));
         }
+
+        if (localCache == null) {
+            return future;
+        }
+        return future.thenApply(success -> {
+            if (success) {
+                localCache.put(key, value, ttlMillis);
+            }
+            return success;
+        });
     }
 
-    private CompletableFuture<Boolean> storeViaHttp(String key, Object data) {
-        return CompletableFuture.supplyAsync(() -> {
+    /**
+     * false, wenn das Backend den Wert ablehnt (4xx); bei Verbindungsfehlern und 5xx schlägt das Future fehl
+     */
+    private CompletableFuture<Boolean> storeViaHttp(String key, JsonElement data, long ttlMillis) {
+        return executor.supplyAsync(() -> {
+            HttpResponse<String> response;
             try {
                 Map<String, Object> requestBody = new HashMap<>();
                 requestBody.put("action", "store");
                 requestBody.put("key", key);
                 requestBody.put("data", data);
-
-                String jsonBody = gson.toJson(requestBody);
-                String url = baseUrl + "/api/storage/" + serverId + "/" + authToken;
-
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(url))
-                        .header("Content-Type", "application/json")
-                        .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                        .timeout(Duration.ofSeconds(30))
-                        .build();
-
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-                if (response.statusCode() == 200) {
-                    logger.debug("[CloudStorage] HTTP: Daten erfolgreich gespeichert - Key: " + key);
-                    return true;
-                } else {
-                    logger.error("[CloudStorage] HTTP: Fehler beim Speichern - Key: " + key + ", Status: " + response.statusCode());
-                    return false;
+                if (ttlMillis > 0) {
+                    requestBody.put("ttl_ms", ttlMillis);
                 }
 
+                response = postStorageRequest(requestBody);
             } catch (Exception e) {
                 logger.error("[CloudStorage] HTTP: Exception beim Speichern - Key: " + key + ", Error: " + e.getMessage());
+                throw new CompletionException(e);
+            }
+
+            if (response.statusCode() == 200) {
+                logger.debug("[CloudStorage] HTTP: Daten erfolgreich gespeichert - Key: " + key);
+                return true;
+            }
+            logger.error("[CloudStorage] HTTP: Fehler beim Speichern - Key: " + key + ", Status: " + response.statusCode());
+            if (isRejected(response.statusCode())) {
                 return false;
             }
+            throw new IllegalStateException("HTTP-Status " + response.statusCode());
         });
     }
 
-    private CompletableFuture<Boolean> storeViaRedis(String key, Object data) {
-        return CompletableFuture.supplyAsync(() -> {
+    /**
+     * false, wenn der Wert nicht kodierbar ist; bei Redis-Fehlern schlägt das Future fehl
+     */
+    private CompletableFuture<Boolean> storeViaRedis(String key, JsonElement data, long ttlMillis) {
+        return executor.supplyAsync(() -> {
+            byte[] encoded;
+            try {
+                encoded = codecs.encode(data);
+            } catch (Exception e) {
+                logger.error("[CloudStorage] Redis: Wert nicht kodierbar - Key: " + key + ", Error: " + e.getMessage());
+                return false;
+            }
+
             try {
-                if (redisClient == null) {
-                    initializeRedis();
+                if (ttlMillis > 0) {
+                    redisFor(key).set(storageKey(key), encoded, SetParams.setParams().px(ttlMillis));
+                } else {
+                    redisFor(key).set(storageKey(key), encoded);
                 }
 
-                String storageKey = "server:" + serverId + ":" + key;
-                String jsonData = gson.toJson(data);
-
-                redisClient.set(storageKey, jsonData);
-
                 logger.debug("[CloudStorage] Redis: Daten erfolgreich gespeichert - Key: " + key);
                 return true;
 
             } catch (Exception e) {
                 logger.error("[CloudStorage] Redis: Exception beim Speichern - Key: " + key + ", Error: " + e.getMessage());
-                return false;
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Vom Backend endgültig abgelehnt (4xx); ein erneuter Versuch mit denselben Daten würde wieder scheitern
+     */
+    private static boolean isRejected(int statusCode) {
+        return statusCode >= 400 && statusCode < 500;
+    }
+
+    /**
+     * Verwirft einen noch gespoolten Wert, nachdem ein Schreibvorgang am Spool vorbei erfolgreich war,
+     * damit das spätere Nachspielen ihn nicht mit dem älteren Wert überschreibt
+     */
+    private void discardSpooled(String key) {
+        StorageSpool current = spool;
+        if (current != null) {
+            current.discard(key);
+        }
+    }
+
+    private <T> CompletableFuture<T> discardSpooledOnSuccess(String key, CompletableFuture<T> future) {
+        if (spool == null) {
+            return future;
+        }
+        return future.thenApply(result -> {
+            if (result != null && !Boolean.FALSE.equals(result)) {
+                discardSpooled(key);
             }
+            return result;
         });
     }
 
@@ -175,40 +761,72 @@ public class CloudStorage {
      * Ruft Daten aus der Cloud ab
      */
     public <T> CompletableFuture<T> get(String key, Class<T> clazz) {
+        return getRaw(key).thenApply(value -> fromTree(key, value, clazz));
+    }
+
+    /**
+     * Liefert den dekodierten Wert, bevorzugt aus Write-Behind-Puffer oder lokalem Cache
+     */
+    private CompletableFuture<JsonElement> getRaw(String key) {
+        if (writeBehind != null) {
+            JsonElement pending = writeBehind.getPending(key);
+            if (pending != null) {
+                return CompletableFuture.completedFuture(pending);
+            }
+        }
+        if (spool != null) {
+            JsonElement spooled = spool.getPending(key);
+            if (spooled != null) {
+                return CompletableFuture.completedFuture(spooled.isJsonNull() ? null : spooled);
+            }
+        }
+
+        StorageCache localCache = cache;
+        if (localCache != null) {
+            JsonElement cached = localCache.get(key);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+
+        // Gleichzeitige Aufrufer teilen sich einen Load, nur dieser trägt das Ergebnis in den Cache ein
+        return singleFlight.load(key, () -> {
+            long stamp = localCache != null ? localCache.stamp() : 0;
+            return loadRaw(key).thenApply(loaded -> {
+                if (loaded == null) {
+                    return null;
+                }
+                if (localCache != null) {
+                    localCache.putIfFresh(key, loaded.value, stamp, loaded.ttlMillis);
+                }
+                return loaded.value;
+            });
+        });
+    }
+
+    private CompletableFuture<LoadedValue> loadRaw(String key) {
         if ("redis".equals(communicationType)) {
-            return getViaRedis(key, clazz);
+            return getRawViaRedis(key);
         } else {
-            return getViaHttp(key, clazz);
+            return getRawViaHttp(key);
         }
     }
 
-    private <T> CompletableFuture<T> getViaHttp(String key, Class<T> clazz) {
-        return CompletableFuture.supplyAsync(() -> {
+    private CompletableFuture<LoadedValue> getRawViaHttp(String key) {
+        return executor.supplyAsync(() -> {
             try {
                 Map<String, Object> requestBody = new HashMap<>();
                 requestBody.put("action", "get");
                 requestBody.put("key", key);
 
-                String jsonBody = gson.toJson(requestBody);
-                String url = baseUrl + "/api/storage/" + serverId + "/" + authToken;
-
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(url))
-                        .header("Content-Type", "application/json")
-                        .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                        .timeout(Duration.ofSeconds(30))
-                        .build();
-
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> response = postStorageRequest(requestBody);
 
                 if (response.statusCode() == 200) {
                     StorageResponse storageResponse = gson.fromJson(response.body(), StorageResponse.class);
 
-                    if (storageResponse != null && storageResponse.data != null) {
-                        String dataJson = gson.toJson(storageResponse.data);
-                        T result = gson.fromJson(dataJson, clazz);
+                    if (storageResponse != null && storageResponse.data != null && !storageResponse.data.isJsonNull()) {
                         logger.debug("[CloudStorage] HTTP: Daten erfolgreich abgerufen - Key: " + key);
-                        return result;
+                        return new LoadedValue(storageResponse.data, storageResponse.ttl_ms != null ? storageResponse.ttl_ms : -1);
                     }
                 }
 
@@ -222,20 +840,36 @@ public class CloudStorage {
         });
     }
 
-    private <T> CompletableFuture<T> getViaRedis(String key, Class<T> clazz) {
-        return CompletableFuture.supplyAsync(() -> {
+    private CompletableFuture<LoadedValue> getRawViaRedis(String key) {
+        return executor.supplyAsync(() -> {
             try {
-                if (redisClient == null) {
-                    initializeRedis();
+                byte[] data;
+                long ttlMillis = -1;
+                if (cache != null) {
+                    // Restlaufzeit mitlesen, damit der lokale Cache den Wert nicht länger hält als Redis
+                    try (AbstractPipeline pipeline = redisFor(key).pipelined()) {
+                        Response<byte[]> valueResponse = pipeline.get(storageKey(key));
+                        Response<Long> ttlResponse = pipeline.pttl(storageKey(key));
+                        pipeline.sync();
+                        data = valueResponse.get();
+                        ttlMillis = ttlResponse.get();
+                    }
+                } else {
+                    data = redisFor(key).get(storageKey(key));
                 }
 
-                String storageKey = "server:" + serverId + ":" + key;
-                String jsonData = redisClient.get(storageKey);
+                if (data == null) {
+                    // Während einer Shard-Migration liegt der Key eventuell noch auf dem alten Knoten
+                    UnifiedJedis previousOwner = shards().previousOwner(storageKey(key));
+                    if (previousOwner != null) {
+                        data = previousOwner.get(storageKey(key));
+                        ttlMillis = data != null && cache != null ? previousOwner.pttl(storageKey(key)) : ttlMillis;
+                    }
+                }
 
-                if (jsonData != null && !jsonData.isEmpty()) {
-                    T result = gson.fromJson(jsonData, clazz);
+                if (data != null && data.length > 0) {
                     logger.debug("[CloudStorage] Redis: Daten erfolgreich abgerufen - Key: " + key);
-                    return result;
+                    return new LoadedValue(codecs.decode(data), ttlMillis);
                 } else {
                     logger.debug("[CloudStorage] Redis: Keine Daten gefunden - Key: " + key);
                     return null;
@@ -248,132 +882,1624 @@ public class CloudStorage {
         });
     }
 
+    private <T> T fromTree(String key, JsonElement value, Class<T> clazz) {
+        if (value == null || value.isJsonNull()) {
+            return null;
+        }
+        try {
+            return gson.fromJson(value, clazz);
+        } catch (Exception e) {
+            logger.error("[CloudStorage] Fehler beim Deserialisieren - Key: " + key + ", Error: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Ruft Daten als Map ab
      */
     public CompletableFuture<Map<String, Object>> getAsMap(String key) {
-        return CompletableFuture.supplyAsync(() -> {
+        return getRaw(key).thenApply(value -> {
+            if (value == null || value.isJsonNull()) {
+                return null;
+            }
             try {
-                if ("redis".equals(communicationType)) {
-                    if (redisClient == null) {
-                        initializeRedis();
+                Map<String, Object> result = gson.fromJson(value, MAP_TYPE);
+                logger.debug("[CloudStorage] Daten als Map abgerufen - Key: " + key);
+                return result;
+            } catch (Exception e) {
+                logger.error("[CloudStorage] Exception beim Abrufen als Map - Key: " + key + ", Error: " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Löscht Daten aus der Cloud
+     */
+    public CompletableFuture<Boolean> delete(String key) {
+        fireChanged(key);
+        if (writeBehind != null) {
+            return writeBehind.discardThen(key, () -> deleteDirect(key));
+        }
+        return deleteDirect(key);
+    }
+
+    private CompletableFuture<Boolean> deleteDirect(String key) {
+        singleFlight.forget(key);
+        StorageCache localCache = cache;
+        if (localCache != null) {
+            localCache.invalidate(key);
+        }
+
+        if (spool != null && spool.hasPending()) {
+            return CompletableFuture.completedFuture(spool.appendDelete(key));
+        }
+
+        if ("redis".equals(communicationType)) {
+            return deleteViaRedis(key);
+        } else {
+            return deleteViaHttp(key);
+        }
+    }
+
+    private CompletableFuture<Boolean> deleteViaHttp(String key) {
+        return executor.supplyAsync(() -> {
+            try {
+                Map<String, Object> requestBody = new HashMap<>();
+                requestBody.put("action", "delete");
+                requestBody.put("key", key);
+
+                HttpResponse<String> response = postStorageRequest(requestBody);
+
+                if (response.statusCode() == 200) {
+                    logger.debug("[CloudStorage] HTTP: Daten erfolgreich gelöscht - Key: " + key);
+                    return true;
+                } else {
+                    logger.error("[CloudStorage] HTTP: Fehler beim Löschen - Key: " + key + ", Status: " + response.statusCode());
+                    return false;
+                }
+
+            } catch (Exception e) {
+                logger.error("[CloudStorage] HTTP: Exception beim Löschen - Key: " + key + ", Error: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    private CompletableFuture<Boolean> deleteViaRedis(String key) {
+        return executor.supplyAsync(() -> {
+            try {
+                long deletedCount = redisFor(key).del(storageKey(key));
+                deleteFromPreviousOwners(List.of(storageKey(key)));
+
+                boolean success = deletedCount > 0;
+                if (success) {
+                    logger.debug("[CloudStorage] Redis: Daten erfolgreich gelöscht - Key: " + key);
+                } else {
+                    logger.debug("[CloudStorage] Redis: Keine Daten zum Löschen gefunden - Key: " + key);
+                }
+                return success;
+
+            } catch (Exception e) {
+                logger.error("[CloudStorage] Redis: Exception beim Löschen - Key: " + key + ", Error: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Setzt die Ablaufzeit eines bestehenden Keys. Gibt false zurück, wenn der Key nicht existiert.
+     */
+    public CompletableFuture<Boolean> expire(String key, Duration ttl) {
+        long ttlMillis = Math.max(1, ttl.toMillis());
+        invalidateLocal(key);
+
+        if ("redis".equals(communicationType)) {
+            return executor.supplyAsync(() -> {
+                try {
+                    return redisFor(key).pexpire(storageKey(key), ttlMillis) == 1;
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception bei PEXPIRE - Key: " + key + ", Error: " + e.getMessage());
+                    return false;
+                }
+            });
+        }
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("action", "expire");
+        requestBody.put("key", key);
+        requestBody.put("ttl_ms", ttlMillis);
+        return sendFieldWriteViaHttp(requestBody, key);
+    }
+
+    /**
+     * Entfernt die Ablaufzeit eines Keys. Gibt false zurück, wenn der Key keine Ablaufzeit hatte.
+     */
+    public CompletableFuture<Boolean> persist(String key) {
+        invalidateLocal(key);
+
+        if ("redis".equals(communicationType)) {
+            return executor.supplyAsync(() -> {
+                try {
+                    return redisFor(key).persist(storageKey(key)) == 1;
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception bei PERSIST - Key: " + key + ", Error: " + e.getMessage());
+                    return false;
+                }
+            });
+        }
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("action", "persist");
+        requestBody.put("key", key);
+        return sendFieldWriteViaHttp(requestBody, key);
+    }
+
+    /**
+     * Restlaufzeit eines Keys in Millisekunden.
+     * Wie bei Redis: -1 = keine Ablaufzeit, -2 = Key existiert nicht, null bei Fehler.
+     */
+    public CompletableFuture<Long> ttl(String key) {
+        if ("redis".equals(communicationType)) {
+            return executor.supplyAsync(() -> {
+                try {
+                    return redisFor(key).pttl(storageKey(key));
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception bei PTTL - Key: " + key + ", Error: " + e.getMessage());
+                    return null;
+                }
+            });
+        }
+
+        return executor.supplyAsync(() -> {
+            try {
+                Map<String, Object> requestBody = new HashMap<>();
+                requestBody.put("action", "ttl");
+                requestBody.put("key", key);
+
+                HttpResponse<String> response = postStorageRequest(requestBody);
+
+                if (response.statusCode() == 200) {
+                    StorageResponse storageResponse = gson.fromJson(response.body(), StorageResponse.class);
+                    if (storageResponse != null && storageResponse.ttl_ms != null) {
+                        return storageResponse.ttl_ms;
+                    }
+                    if (storageResponse != null && storageResponse.data != null && storageResponse.data.isJsonPrimitive()) {
+                        return storageResponse.data.getAsLong();
                     }
+                }
+                logger.error("[CloudStorage] HTTP: Fehler bei ttl - Key: " + key + ", Status: " + response.statusCode());
+                return null;
+            } catch (Exception e) {
+                logger.error("[CloudStorage] HTTP: Exception bei ttl - Key: " + key + ", Error: " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Speichert mehrere Keys in einem Aufruf (Redis: MSET, HTTP: eine Batch-Anfrage).
+     * Das Ergebnis enthält pro Key, ob das Speichern erfolgreich war.
+     */
+    public CompletableFuture<Map<String, Boolean>> storeAll(Map<String, ?> entries) {
+        if (entries.isEmpty()) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+
+        Map<String, JsonElement> values = new LinkedHashMap<>();
+        entries.forEach((key, value) -> values.put(key, gson.toJsonTree(value)));
+        values.keySet().forEach(this::fireChanged);
+
+        if (writeBehind != null) {
+            Map<String, Boolean> results = new LinkedHashMap<>();
+            values.forEach((key, value) -> {
+                writeBehind.enqueue(key, value);
+                results.put(key, true);
+            });
+            return CompletableFuture.completedFuture(results);
+        }
+
+        return storeAllDurable(values);
+    }
+
+    /**
+     * Wie storeAllDirect, sichert aber nicht angenommene Werte im Spool (falls aktiv)
+     */
+    private CompletableFuture<Map<String, Boolean>> storeAllDurable(Map<String, JsonElement> entries) {
+        if (spool == null) {
+            return storeAllDirect(entries).thenApply(results -> {
+                entries.keySet().forEach(key -> results.putIfAbsent(key, false));
+                return results;
+            });
+        }
+
+        if (spool.hasPending()) {
+            entries.keySet().forEach(this::invalidateLocal);
+            Map<String, Boolean> results = new LinkedHashMap<>();
+            entries.forEach((key, value) -> results.put(key, spool.appendStore(key, value)));
+            return CompletableFuture.completedFuture(results);
+        }
+
+        return storeAllDirect(entries).handle((results, error) -> {
+            Map<String, Boolean> durable = new LinkedHashMap<>();
+            entries.forEach((key, value) -> {
+                // Fehlt der Key, ist der Ausgang unklar; abgelehnte Werte (false) werden nicht gespoolt
+                Boolean stored = results != null ? results.get(key) : null;
+                durable.put(key, stored != null ? stored : spool.appendStore(key, value));
+            });
+            return durable;
+        });
+    }
+
+    private CompletableFuture<Map<String, Boolean>> storeAllDirect(Map<String, JsonElement> entries) {
+        entries.keySet().forEach(singleFlight::forget);
+        StorageCache localCache = cache;
+        if (localCache != null) {
+            entries.keySet().forEach(localCache::invalidate);
+        }
+
+        CompletableFuture<Map<String, Boolean>> future;
+        if ("redis".equals(communicationType)) {
+            future = storeAllViaRedis(entries);
+        } else {
+            future = storeAllViaHttp(entries);
+        }
 
-                    String storageKey = "server:" + serverId + ":" + key;
-                    String jsonData = redisClient.get(storageKey);
+        if (localCache == null) {
+            return future;
+        }
+        return future.thenApply(results -> {
+            results.forEach((key, success) -> {
+                if (success) {
+                    localCache.put(key, entries.get(key));
+                }
+            });
+            return results;
+        });
+    }
 
-                    if (jsonData != null && !jsonData.isEmpty()) {
-                        Map<String, Object> result = gson.fromJson(jsonData, new TypeToken<Map<String, Object>>(){}.getType());
-                        logger.debug("[CloudStorage] Redis: Daten als Map abgerufen - Key: " + key);
-                        return result;
+    private CompletableFuture<Map<String, Boolean>> storeAllViaRedis(Map<String, JsonElement> entries) {
+        return perShard(entries.keySet(), (client, keys) -> {
+            Map<String, Boolean> results = new LinkedHashMap<>();
+            List<byte[]> keysValues = new ArrayList<>(keys.size() * 2);
+            List<String> encodedKeys = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                try {
+                    byte[] encoded = codecs.encode(entries.get(key));
+                    keysValues.add(storageKey(key));
+                    keysValues.add(encoded);
+                    encodedKeys.add(key);
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Wert nicht kodierbar - Key: " + key + ", Error: " + e.getMessage());
+                    results.put(key, false);
+                }
+            }
+            if (encodedKeys.isEmpty()) {
+                return results;
+            }
+
+            try {
+                client.mset(keysValues.toArray(new byte[0][]));
+
+                encodedKeys.forEach(key -> results.put(key, true));
+                logger.debug("[CloudStorage] Redis: {} Keys erfolgreich gespeichert", encodedKeys.size());
+            } catch (Exception e) {
+                // Ausgang unklar, die Keys fehlen im Ergebnis
+                logger.error("[CloudStorage] Redis: Exception beim Batch-Speichern von " + encodedKeys.size() + " Keys, Error: " + e.getMessage());
+            }
+            return results;
+        });
+    }
+
+    private CompletableFuture<Map<String, Boolean>> storeAllViaHttp(Map<String, JsonElement> entries) {
+        return executor.supplyAsync(() -> {
+            Map<String, Object> requestBody = new HashMap<>();
+            requestBody.put("action", "batch");
+            requestBody.put("operation", "store");
+            requestBody.put("entries", entries);
+
+            return sendBatchWriteViaHttp(requestBody, entries.keySet(), "Speichern");
+        });
+    }
+
+    /**
+     * Ruft mehrere Keys in einem Aufruf ab (Redis: MGET, HTTP: eine Batch-Anfrage).
+     * Das Ergebnis enthält nur Keys, für die ein Wert gefunden wurde; ist Redis bzw. die API
+     * nicht erreichbar, schlägt das Future fehl.
+     */
+    public <T> CompletableFuture<Map<String, T>> getAll(Collection<String> keys, Class<T> clazz) {
+        return getAllRaw(keys).thenApply(rawValues -> {
+            Map<String, T> results = new LinkedHashMap<>();
+            rawValues.forEach((key, raw) -> {
+                T value = fromTree(key, raw, clazz);
+                if (value != null) {
+                    results.put(key, value);
+                }
+            });
+            return results;
+        });
+    }
+
+    private CompletableFuture<Map<String, JsonElement>> getAllRaw(Collection<String> keys) {
+        Map<String, JsonElement> cached = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+
+        StorageCache localCache = cache;
+        for (String key : keys) {
+            JsonElement pending = writeBehind != null ? writeBehind.getPending(key) : null;
+            if (pending != null) {
+                cached.put(key, pending);
+                continue;
+            }
+            JsonElement spooled = spool != null ? spool.getPending(key) : null;
+            if (spooled != null) {
+                if (!spooled.isJsonNull()) {
+                    cached.put(key, spooled);
+                }
+                continue;
+            }
+
+            JsonElement value = localCache != null ? localCache.get(key) : null;
+            if (value != null) {
+                cached.put(key, value);
+            } else {
+                missing.add(key);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        long stamp = localCache != null ? localCache.stamp() : 0;
+        CompletableFuture<Map<String, LoadedValue>> future;
+        if ("redis".equals(communicationType)) {
+            future = getAllRawViaRedis(missing);
+        } else {
+            future = getAllRawViaHttp(missing);
+        }
+
+        return future.thenApply(loaded -> {
+            loaded.forEach((key, value) -> {
+                if (localCache != null) {
+                    localCache.putIfFresh(key, value.value, stamp, value.ttlMillis);
+                }
+                cached.put(key, value.value);
+            });
+            return cached;
+        });
+    }
+
+    private CompletableFuture<Map<String, LoadedValue>> getAllRawViaRedis(List<String> allKeys) {
+        return perShard(allKeys, (client, keys) -> {
+            Map<String, LoadedValue> results = new LinkedHashMap<>();
+            try {
+                byte[][] storageKeys = new byte[keys.size()][];
+                for (int i = 0; i < keys.size(); i++) {
+                    storageKeys[i] = storageKey(keys.get(i));
+                }
+
+                List<byte[]> values;
+                long[] ttls = new long[keys.size()];
+                if (cache != null) {
+                    // Restlaufzeiten im selben Roundtrip lesen, damit der lokale Cache sie einhält
+                    try (AbstractPipeline pipeline = client.pipelined()) {
+                        Response<List<byte[]>> valuesResponse = pipeline.mget(storageKeys);
+                        List<Response<Long>> ttlResponses = new ArrayList<>();
+                        for (byte[] storageKey : storageKeys) {
+                            ttlResponses.add(pipeline.pttl(storageKey));
+                        }
+                        pipeline.sync();
+                        values = valuesResponse.get();
+                        for (int i = 0; i < ttls.length; i++) {
+                            ttls[i] = ttlResponses.get(i).get();
+                        }
                     }
-                    return null;
                 } else {
-                    Map<String, Object> requestBody = new HashMap<>();
-                    requestBody.put("action", "get");
-                    requestBody.put("key", key);
-
-                    String jsonBody = gson.toJson(requestBody);
-                    String url = baseUrl + "/api/storage/" + serverId + "/" + authToken;
-
-                    HttpRequest request = HttpRequest.newBuilder()
-                            .uri(URI.create(url))
-                            .header("Content-Type", "application/json")
-                            .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                            .timeout(Duration.ofSeconds(30))
-                            .build();
-
-                    HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-                    if (response.statusCode() == 200) {
-                        StorageResponse storageResponse = gson.fromJson(response.body(), StorageResponse.class);
-                        if (storageResponse != null && storageResponse.data != null) {
-                            logger.debug("[CloudStorage] HTTP: Daten als Map abgerufen - Key: " + key);
-                            return (Map<String, Object>) storageResponse.data;
+                    values = client.mget(storageKeys);
+                    Arrays.fill(ttls, -1);
+                }
+
+                for (int i = 0; i < keys.size(); i++) {
+                    byte[] data = values.get(i);
+                    if (data == null) {
+                        // Während einer Shard-Migration liegt der Key eventuell noch auf dem alten Knoten
+                        UnifiedJedis previousOwner = shards().previousOwner(storageKeys[i]);
+                        if (previousOwner != null) {
+                            data = previousOwner.get(storageKeys[i]);
+                            ttls[i] = -1;
                         }
                     }
+                    if (data == null || data.length == 0) {
+                        continue;
+                    }
+                    try {
+                        results.put(keys.get(i), new LoadedValue(codecs.decode(data), ttls[i]));
+                    } catch (Exception e) {
+                        logger.error("[CloudStorage] Redis: Fehler beim Dekodieren - Key: " + keys.get(i) + ", Error: " + e.getMessage());
+                    }
+                }
+                logger.debug("[CloudStorage] Redis: {}/{} Keys abgerufen", results.size(), keys.size());
+            } catch (Exception e) {
+                logger.error("[CloudStorage] Redis: Exception beim Batch-Abrufen - Keys: " + keys + ", Error: " + e.getMessage());
+                throw new CompletionException(e);
+            }
+            return results;
+        }, true);
+    }
+
+    private CompletableFuture<Map<String, LoadedValue>> getAllRawViaHttp(List<String> keys) {
+        return executor.supplyAsync(() -> {
+            Map<String, LoadedValue> results = new LinkedHashMap<>();
+            try {
+                Map<String, Object> requestBody = new HashMap<>();
+                requestBody.put("action", "batch");
+                requestBody.put("operation", "get");
+                requestBody.put("keys", keys);
+
+                HttpResponse<String> response = postStorageRequest(requestBody);
+
+                if (response.statusCode() == 200) {
+                    BatchResponse batchResponse = gson.fromJson(response.body(), BatchResponse.class);
+                    if (batchResponse != null && batchResponse.data != null) {
+                        batchResponse.data.forEach((key, value) -> {
+                            if (value != null && !value.isJsonNull()) {
+                                Long ttl = batchResponse.ttl_ms != null ? batchResponse.ttl_ms.get(key) : null;
+                                results.put(key, new LoadedValue(value, ttl != null ? ttl : -1));
+                            }
+                        });
+                    }
+                    if (batchResponse != null && batchResponse.errors != null) {
+                        batchResponse.errors.forEach((key, error) ->
+                                logger.error("[CloudStorage] HTTP: Fehler beim Abrufen - Key: " + key + ", Error: " + error));
+                    }
+                    logger.debug("[CloudStorage] HTTP: {}/{} Keys abgerufen", results.size(), keys.size());
+                } else {
+                    logger.error("[CloudStorage] HTTP: Fehler beim Batch-Abrufen - Keys: " + keys + ", Status: " + response.statusCode());
+                    throw new IllegalStateException("HTTP-Status " + response.statusCode());
+                }
+            } catch (IllegalStateException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("[CloudStorage] HTTP: Exception beim Batch-Abrufen - Keys: " + keys + ", Error: " + e.getMessage());
+                throw new CompletionException(e);
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Löscht mehrere Keys in einem Aufruf (Redis: Pipeline, HTTP: eine Batch-Anfrage).
+     * Das Ergebnis enthält pro Key, ob etwas gelöscht wurde.
+     */
+    public CompletableFuture<Map<String, Boolean>> deleteAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+        keys.forEach(this::fireChanged);
+
+        if (writeBehind != null) {
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            for (String key : keys) {
+                futures.add(writeBehind.discardThen(key, () -> CompletableFuture.completedFuture(true)));
+            }
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .thenCompose(ignored -> deleteAllDirect(keys));
+        }
+        return deleteAllDirect(keys);
+    }
+
+    private CompletableFuture<Map<String, Boolean>> deleteAllDirect(Collection<String> keys) {
+        keys.forEach(singleFlight::forget);
+        StorageCache localCache = cache;
+        if (localCache != null) {
+            keys.forEach(localCache::invalidate);
+        }
+
+        if (spool != null && spool.hasPending()) {
+            Map<String, Boolean> results = new LinkedHashMap<>();
+            keys.forEach(key -> results.put(key, spool.appendDelete(key)));
+            return CompletableFuture.completedFuture(results);
+        }
+
+        if ("redis".equals(communicationType)) {
+            return deleteAllViaRedis(keys);
+        } else {
+            return deleteAllViaHttp(keys).thenApply(results -> {
+                keys.forEach(key -> results.putIfAbsent(key, false));
+                return results;
+            });
+        }
+    }
+
+    private CompletableFuture<Map<String, Boolean>> deleteAllViaRedis(Collection<String> allKeys) {
+        return perShard(allKeys, (client, keys) -> {
+            Map<String, Boolean> results = new LinkedHashMap<>();
+            try (AbstractPipeline pipeline = client.pipelined()) {
+                Map<String, Response<Long>> responses = new LinkedHashMap<>();
+                for (String key : keys) {
+                    responses.put(key, pipeline.del(storageKey(key)));
+                }
+                pipeline.sync();
+
+                responses.forEach((key, response) -> results.put(key, response.get() > 0));
+                deleteFromPreviousOwners(keys.stream().map(this::storageKey).toList());
+                logger.debug("[CloudStorage] Redis: {} Keys gelöscht", keys.size());
+            } catch (Exception e) {
+                logger.error("[CloudStorage] Redis: Exception beim Batch-Löschen - Keys: " + keys + ", Error: " + e.getMessage());
+                keys.forEach(key -> results.putIfAbsent(key, false));
+            }
+            return results;
+        });
+    }
+
+    private CompletableFuture<Map<String, Boolean>> deleteAllViaHttp(Collection<String> keys) {
+        return executor.supplyAsync(() -> {
+            Map<String, Object> requestBody = new HashMap<>();
+            requestBody.put("action", "batch");
+            requestBody.put("operation", "delete");
+            requestBody.put("keys", keys);
+
+            return sendBatchWriteViaHttp(requestBody, keys, "Löschen");
+        });
+    }
+
+    /**
+     * Löschen beim Nachspielen des Spools: bei Verbindungsfehlern fehlen die Keys im Ergebnis
+     * bzw. das Future schlägt fehl, damit die Sätze erhalten bleiben; false nur bei endgültiger Ablehnung
+     */
+    private CompletableFuture<Map<String, Boolean>> deleteAllForReplay(Collection<String> keys) {
+        if ("redis".equals(communicationType)) {
+            return perShard(keys, (client, group) -> {
+                List<byte[]> storageKeys = group.stream().map(this::storageKey).toList();
+                client.del(storageKeys.toArray(new byte[0][]));
+                deleteFromPreviousOwners(storageKeys);
+                Map<String, Boolean> results = new LinkedHashMap<>();
+                group.forEach(key -> results.put(key, true));
+                return results;
+            });
+        }
+
+        return executor.supplyAsync(() -> {
+            Map<String, Object> requestBody = new HashMap<>();
+            requestBody.put("action", "batch");
+            requestBody.put("operation", "delete");
+            requestBody.put("keys", keys);
+            HttpResponse<String> response;
+            try {
+                response = postStorageRequest(requestBody);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+            if (response.statusCode() != 200 && !isRejected(response.statusCode())) {
+                throw new IllegalStateException("HTTP-Status " + response.statusCode());
+            }
+            if (response.statusCode() != 200) {
+                logger.error("[CloudStorage] HTTP: Fehler beim Batch-Löschen - Status: " + response.statusCode());
+            }
+            Map<String, Boolean> results = new LinkedHashMap<>();
+            keys.forEach(key -> results.put(key, response.statusCode() == 200));
+            return results;
+        });
+    }
+
+    /**
+     * Sendet eine schreibende Batch-Anfrage und wertet das Ergebnis pro Key aus.
+     * false bei Ablehnung (Fehler pro Key, 4xx); bei Verbindungsfehlern und 5xx fehlen die Keys im Ergebnis.
+     */
+    private Map<String, Boolean> sendBatchWriteViaHttp(Map<String, Object> requestBody, Collection<String> keys, String operationName) {
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        try {
+            HttpResponse<String> response = postStorageRequest(requestBody);
+
+            if (response.statusCode() == 200) {
+                BatchResponse batchResponse = gson.fromJson(response.body(), BatchResponse.class);
+                for (String key : keys) {
+                    boolean success = true;
+                    if (batchResponse != null && batchResponse.results != null && batchResponse.results.containsKey(key)) {
+                        success = Boolean.TRUE.equals(batchResponse.results.get(key));
+                    }
+                    if (batchResponse != null && batchResponse.errors != null && batchResponse.errors.containsKey(key)) {
+                        success = false;
+                        logger.error("[CloudStorage] HTTP: Fehler beim " + operationName + " - Key: " + key + ", Error: " + batchResponse.errors.get(key));
+                    }
+                    results.put(key, success);
+                }
+                logger.debug("[CloudStorage] HTTP: Batch-" + operationName + " für {} Keys abgeschlossen", keys.size());
+            } else {
+                logger.error("[CloudStorage] HTTP: Fehler beim Batch-" + operationName + " - Status: " + response.statusCode());
+                if (isRejected(response.statusCode())) {
+                    keys.forEach(key -> results.put(key, false));
+                }
+            }
+        } catch (Exception e) {
+            logger.error("[CloudStorage] HTTP: Exception beim Batch-" + operationName + " - Error: " + e.getMessage());
+        }
+        return results;
+    }
+
+    /**
+     * Speichert eine Map als Redis-Hash (ersetzt den bisherigen Inhalt).
+     * Einzelne Felder können danach mit getField/setFields/incrementField bearbeitet werden.
+     */
+    public CompletableFuture<Boolean> storeStructured(String key, Map<String, ?> fields) {
+        invalidateLocal(key);
+
+        if ("redis".equals(communicationType)) {
+            return discardSpooledOnSuccess(key, executor.supplyAsync(() -> {
+                try {
+                    byte[] storageKey = storageKey(key);
+                    Map<byte[], byte[]> hash = encodeFields(fields);
+                    // Auch beim Ersetzen vorher verschieben, sonst ergänzt die Migration alte Felder
+                    UnifiedJedis client = redisMigrated(storageKey);
+                    if (topology.isCluster()) {
+                        // Keine Transaktionen über den Cluster-Client, DEL und HSET gehen als Pipeline an denselben Slot
+                        try (AbstractPipeline pipeline = client.pipelined()) {
+                            pipeline.del(storageKey);
+                            if (!hash.isEmpty()) {
+                                pipeline.hset(storageKey, hash);
+                            }
+                            pipeline.sync();
+                        }
+                    } else {
+                        try (var transaction = client.multi()) {
+                            transaction.del(storageKey);
+                            if (!hash.isEmpty()) {
+                                transaction.hset(storageKey, hash);
+                            }
+                            transaction.exec();
+                        }
+                    }
+                    logger.debug("[CloudStorage] Redis: Hash gespeichert - Key: " + key + ", Felder: " + fields.size());
+                    return true;
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception beim Speichern des Hashes - Key: " + key + ", Error: " + e.getMessage());
+                    return false;
+                }
+            }));
+        }
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("action", "store_fields");
+        requestBody.put("key", key);
+        requestBody.put("fields", toTrees(fields));
+        return discardSpooledOnSuccess(key, sendFieldWriteViaHttp(requestBody, key));
+    }
+
+    /**
+     * Liest alle Felder eines Redis-Hashes
+     */
+    public CompletableFuture<Map<String, Object>> getStructured(String key) {
+        if ("redis".equals(communicationType)) {
+            return executor.supplyAsync(() -> {
+                try {
+                    Map<byte[], byte[]> hash = redisMigrated(storageKey(key)).hgetAll(storageKey(key));
+                    if (hash == null || hash.isEmpty()) {
+                        return null;
+                    }
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    hash.forEach((field, value) ->
+                            result.put(new String(field, StandardCharsets.UTF_8), decodeField(value, Object.class)));
+                    return result;
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception beim Abrufen des Hashes - Key: " + key + ", Error: " + e.getMessage());
                     return null;
                 }
-            } catch (Exception e) {
-                logger.error("[CloudStorage] Exception beim Abrufen als Map - Key: " + key + ", Error: " + e.getMessage());
-                return null;
+            });
+        }
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("action", "get_fields");
+        requestBody.put("key", key);
+        return getFieldsViaHttp(requestBody, key);
+    }
+
+    /**
+     * Setzt einzelne Felder eines Hashes, ohne die übrigen Felder zu lesen oder zu überschreiben
+     */
+    public CompletableFuture<Boolean> setFields(String key, Map<String, ?> fields) {
+        if (fields.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        invalidateLocal(key);
+
+        if ("redis".equals(communicationType)) {
+            return discardSpooledOnSuccess(key, executor.supplyAsync(() -> {
+                try {
+                    redisMigrated(storageKey(key)).hset(storageKey(key), encodeFields(fields));
+                    logger.debug("[CloudStorage] Redis: Felder gesetzt - Key: " + key + ", Felder: " + fields.keySet());
+                    return true;
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception beim Setzen von Feldern - Key: " + key + ", Error: " + e.getMessage());
+                    return false;
+                }
+            }));
+        }
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("action", "set_fields");
+        requestBody.put("key", key);
+        requestBody.put("fields", toTrees(fields));
+        return discardSpooledOnSuccess(key, sendFieldWriteViaHttp(requestBody, key));
+    }
+
+    /**
+     * Liest ein einzelnes Feld eines Hashes
+     */
+    public <T> CompletableFuture<T> getField(String key, String field, Class<T> clazz) {
+        if ("redis".equals(communicationType)) {
+            return executor.supplyAsync(() -> {
+                try {
+                    byte[] value = redisMigrated(storageKey(key)).hget(storageKey(key), field.getBytes(StandardCharsets.UTF_8));
+                    return decodeField(value, clazz);
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception beim Abrufen des Feldes - Key: " + key + ", Feld: " + field + ", Error: " + e.getMessage());
+                    return null;
+                }
+            });
+        }
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("action", "get_fields");
+        requestBody.put("key", key);
+        requestBody.put("fields", List.of(field));
+        return getFieldsViaHttp(requestBody, key).thenApply(fields -> {
+            if (fields == null || fields.get(field) == null) {
+                return null;
+            }
+            return gson.fromJson(gson.toJsonTree(fields.get(field)), clazz);
+        });
+    }
+
+    /**
+     * Liest nur die angegebenen Felder eines Hashes. Fehlende Felder sind nicht im Ergebnis enthalten.
+     */
+    public CompletableFuture<Map<String, Object>> getFields(String key, String... fields) {
+        if (fields.length == 0) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+
+        if ("redis".equals(communicationType)) {
+            return executor.supplyAsync(() -> {
+                try {
+                    byte[][] fieldNames = new byte[fields.length][];
+                    for (int i = 0; i < fields.length; i++) {
+                        fieldNames[i] = fields[i].getBytes(StandardCharsets.UTF_8);
+                    }
+
+                    List<byte[]> values = redisMigrated(storageKey(key)).hmget(storageKey(key), fieldNames);
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    for (int i = 0; i < fields.length; i++) {
+                        Object value = decodeField(values.get(i), Object.class);
+                        if (value != null) {
+                            result.put(fields[i], value);
+                        }
+                    }
+                    return result;
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception beim Abrufen von Feldern - Key: " + key + ", Error: " + e.getMessage());
+                    return null;
+                }
+            });
+        }
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("action", "get_fields");
+        requestBody.put("key", key);
+        requestBody.put("fields", List.of(fields));
+        return getFieldsViaHttp(requestBody, key);
+    }
+
+    /**
+     * Erhöht ein ganzzahliges Feld atomar (HINCRBY) und gibt den neuen Wert zurück
+     */
+    public CompletableFuture<Long> incrementField(String key, String field, long delta) {
+        invalidateLocal(key);
+
+        if ("redis".equals(communicationType)) {
+            return discardSpooledOnSuccess(key, executor.supplyAsync(() -> {
+                try {
+                    return redisMigrated(storageKey(key)).hincrBy(storageKey(key), field.getBytes(StandardCharsets.UTF_8), delta);
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception bei HINCRBY - Key: " + key + ", Feld: " + field + ", Error: " + e.getMessage());
+                    return null;
+                }
+            }));
+        }
+
+        return discardSpooledOnSuccess(key, incrementFieldViaHttp(key, field, delta).thenApply(value -> value != null ? value.longValue() : null));
+    }
+
+    /**
+     * Erhöht ein Dezimal-Feld atomar (HINCRBYFLOAT) und gibt den neuen Wert zurück
+     */
+    public CompletableFuture<Double> incrementField(String key, String field, double delta) {
+        invalidateLocal(key);
+
+        if ("redis".equals(communicationType)) {
+            return discardSpooledOnSuccess(key, executor.supplyAsync(() -> {
+                try {
+                    return redisMigrated(storageKey(key)).hincrByFloat(storageKey(key), field.getBytes(StandardCharsets.UTF_8), delta);
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception bei HINCRBYFLOAT - Key: " + key + ", Feld: " + field + ", Error: " + e.getMessage());
+                    return null;
+                }
+            }));
+        }
+
+        return discardSpooledOnSuccess(key, incrementFieldViaHttp(key, field, delta).thenApply(value -> value != null ? value.doubleValue() : null));
+    }
+
+    /**
+     * Entfernt einzelne Felder eines Hashes
+     */
+    public CompletableFuture<Boolean> deleteFields(String key, String... fields) {
+        if (fields.length == 0) {
+            return CompletableFuture.completedFuture(true);
+        }
+        invalidateLocal(key);
+
+        if ("redis".equals(communicationType)) {
+            return discardSpooledOnSuccess(key, executor.supplyAsync(() -> {
+                try {
+                    byte[][] fieldNames = new byte[fields.length][];
+                    for (int i = 0; i < fields.length; i++) {
+                        fieldNames[i] = fields[i].getBytes(StandardCharsets.UTF_8);
+                    }
+                    return redisMigrated(storageKey(key)).hdel(storageKey(key), fieldNames) > 0;
+                } catch (Exception e) {
+                    logger.error("[CloudStorage] Redis: Exception beim Löschen von Feldern - Key: " + key + ", Error: " + e.getMessage());
+                    return false;
+                }
+            }));
+        }
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("action", "delete_fields");
+        requestBody.put("key", key);
+        requestBody.put("fields", List.of(fields));
+        return discardSpooledOnSuccess(key, sendFieldWriteViaHttp(requestBody, key));
+    }
+
+    private Map<String, JsonElement> toTrees(Map<String, ?> fields) {
+        Map<String, JsonElement> trees = new LinkedHashMap<>();
+        fields.forEach((field, value) -> trees.put(field, gson.toJsonTree(value)));
+        return trees;
+    }
+
+    /**
+     * Hash-Felder werden als JSON-Text gespeichert, damit Zahlen für HINCRBY lesbar bleiben
+     */
+    private Map<byte[], byte[]> encodeFields(Map<String, ?> fields) {
+        Map<byte[], byte[]> hash = new LinkedHashMap<>();
+        fields.forEach((field, value) -> hash.put(
+                field.getBytes(StandardCharsets.UTF_8),
+                gson.toJson(gson.toJsonTree(value)).getBytes(StandardCharsets.UTF_8)));
+        return hash;
+    }
+
+    private <T> T decodeField(byte[] value, Class<T> clazz) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        String text = new String(value, StandardCharsets.UTF_8);
+        try {
+            return gson.fromJson(JsonParser.parseString(text), clazz);
+        } catch (Exception e) {
+            // Von außen gesetzte Felder sind nicht unbedingt JSON
+            return clazz.isInstance(text) ? clazz.cast(text) : null;
+        }
+    }
+
+    private CompletableFuture<Map<String, Object>> getFieldsViaHttp(Map<String, Object> requestBody, String key) {
+        return executor.supplyAsync(() -> {
+            try {
+                HttpResponse<String> response = postStorageRequest(requestBody);
+
+                if (response.statusCode() == 200) {
+                    StorageResponse storageResponse = gson.fromJson(response.body(), StorageResponse.class);
+                    if (storageResponse != null && storageResponse.data != null && storageResponse.data.isJsonObject()) {
+                        return gson.fromJson(storageResponse.data, MAP_TYPE);
+                    }
+                }
+                logger.debug("[CloudStorage] HTTP: Keine Felder gefunden - Key: " + key);
+                return null;
+            } catch (Exception e) {
+                logger.error("[CloudStorage] HTTP: Exception beim Abrufen von Feldern - Key: " + key + ", Error: " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private CompletableFuture<Number> incrementFieldViaHttp(String key, String field, Number delta) {
+        return executor.supplyAsync(() -> {
+            try {
+                Map<String, Object> requestBody = new HashMap<>();
+                requestBody.put("action", "increment_field");
+                requestBody.put("key", key);
+                requestBody.put("field", field);
+                requestBody.put("delta", delta);
+
+                HttpResponse<String> response = postStorageRequest(requestBody);
+
+                if (response.statusCode() == 200) {
+                    StorageResponse storageResponse = gson.fromJson(response.body(), StorageResponse.class);
+                    if (storageResponse != null && storageResponse.data != null && storageResponse.data.isJsonPrimitive()) {
+                        return storageResponse.data.getAsNumber();
+                    }
+                }
+                logger.error("[CloudStorage] HTTP: Fehler bei increment_field - Key: " + key + ", Feld: " + field + ", Status: " + response.statusCode());
+                return null;
+            } catch (Exception e) {
+                logger.error("[CloudStorage] HTTP: Exception bei increment_field - Key: " + key + ", Feld: " + field + ", Error: " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    private CompletableFuture<Boolean> sendFieldWriteViaHttp(Map<String, Object> requestBody, String key) {
+        return executor.supplyAsync(() -> {
+            try {
+                HttpResponse<String> response = postStorageRequest(requestBody);
+
+                if (response.statusCode() == 200) {
+                    logger.debug("[CloudStorage] HTTP: " + requestBody.get("action") + " erfolgreich - Key: " + key);
+                    return true;
+                }
+                logger.error("[CloudStorage] HTTP: Fehler bei " + requestBody.get("action") + " - Key: " + key + ", Status: " + response.statusCode());
+                return false;
+            } catch (Exception e) {
+                logger.error("[CloudStorage] HTTP: Exception bei " + requestBody.get("action") + " - Key: " + key + ", Error: " + e.getMessage());
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Gibt einen netzwerkweiten Zähler zurück. Erhöhungen werden lokal gesammelt und
+     * im Intervall storage.counters.flushIntervalMillis als Delta übertragen.
+     */
+    public CloudCounter counter(String key) {
+        return getCounters().get(key);
+    }
+
+    /**
+     * Gibt die Zählerverwaltung zurück (für Metriken)
+     */
+    public synchronized CloudCounters getCounters() {
+        if (counters == null) {
+            counters = new CloudCounters(this::incrementAllDirect, logger, settings.getCounterFlushIntervalMillis());
+        }
+        return counters;
+    }
+
+    /**
+     * Überträgt Zähler-Deltas in einem Aufruf und liefert die neuen Gesamtwerte.
+     * Ein Delta von 0 liest nur den aktuellen Wert. Fehlt ein Key im Ergebnis, wurde sein Delta sicher
+     * nicht angewendet; ist der Ausgang unklar (Verbindungsabbruch, Timeout), schlägt das Future fehl.
+     */
+    private CompletableFuture<Map<String, Long>> incrementAllDirect(Map<String, Long> deltas) {
+        deltas.forEach((key, delta) -> {
+            if (delta != 0) {
+                invalidateLocal(key);
+            }
+        });
+        if (spool == null) {
+            return incrementAllViaBackend(deltas);
+        }
+        return incrementAllViaBackend(deltas).thenApply(results -> {
+            results.keySet().forEach(key -> {
+                if (deltas.getOrDefault(key, 0L) != 0) {
+                    discardSpooled(key);
+                }
+            });
+            return results;
+        });
+    }
+
+    private CompletableFuture<Map<String, Long>> incrementAllViaBackend(Map<String, Long> deltas) {
+
+        if ("redis".equals(communicationType)) {
+            return perShard(deltas.keySet(), (client, keys) -> {
+                Map<String, Long> results = new LinkedHashMap<>();
+                if (shards().isMigrating()) {
+                    // INCRBY auf einem leeren neuen Knoten würde den bisherigen Zählerstand verdecken
+                    keys.forEach(key -> redisMigrated(storageKey(key)));
+                }
+                Map<String, Response<Long>> increments = new LinkedHashMap<>();
+                Map<String, Response<byte[]>> reads = new LinkedHashMap<>();
+                try (AbstractPipeline pipeline = client.pipelined()) {
+                    for (String key : keys) {
+                        long delta = deltas.get(key);
+                        if (delta != 0) {
+                            increments.put(key, pipeline.incrBy(storageKey(key), delta));
+                        } else {
+                            reads.put(key, pipeline.get(storageKey(key)));
+                        }
+                    }
+                    pipeline.sync();
+                } catch (Exception e) {
+                    // Ob die Befehle ausgeführt wurden, ist unbekannt
+                    logger.error("[CloudStorage] Redis: Exception beim Übertragen von Zählern - Keys: " + keys + ", Error: " + e.getMessage());
+                    throw new CompletionException(e);
+                }
+
+                // Fehlerantworten einzelner Keys (z.B. WRONGTYPE) betreffen nur diesen Key, der Befehl lief nicht
+                increments.forEach((key, response) -> {
+                    try {
+                        results.put(key, response.get());
+                    } catch (Exception e) {
+                        logger.error("[CloudStorage] Redis: Zähler " + key + " nicht erhöht: " + e.getMessage());
+                    }
+                });
+                reads.forEach((key, response) -> {
+                    try {
+                        results.put(key, parseCounterValue(key, response.get()));
+                    } catch (Exception e) {
+                        logger.error("[CloudStorage] Redis: Zähler " + key + " nicht lesbar: " + e.getMessage());
+                    }
+                });
+                return results;
+            });
+        }
+
+        return executor.supplyAsync(() -> {
+            Map<String, Long> results = new LinkedHashMap<>();
+            try {
+                Map<String, Object> requestBody = new HashMap<>();
+                requestBody.put("action", "batch");
+                requestBody.put("operation", "increment");
+                requestBody.put("deltas", deltas);
+
+                HttpResponse<String> response = postStorageRequest(requestBody);
+
+                if (response.statusCode() == 200) {
+                    BatchResponse batchResponse = gson.fromJson(response.body(), BatchResponse.class);
+                    if (batchResponse != null && batchResponse.data != null) {
+                        batchResponse.data.forEach((key, value) -> {
+                            if (value != null && value.isJsonPrimitive()) {
+                                results.put(key, value.getAsLong());
+                            }
+                        });
+                    }
+                } else if (response.statusCode() >= 400 && response.statusCode() < 500) {
+                    // Anfrage abgelehnt, es wurde nichts angewendet
+                    logger.error("[CloudStorage] HTTP: Fehler beim Übertragen von Zählern - Status: " + response.statusCode());
+                } else {
+                    throw new IllegalStateException("HTTP-Status " + response.statusCode());
+                }
+            } catch (ConnectException e) {
+                // Verbindung kam nicht zustande, die Anfrage wurde nicht gesendet
+                logger.error("[CloudStorage] HTTP: Exception beim Übertragen von Zählern - Error: " + e.getMessage());
+            } catch (IllegalStateException e) {
+                logger.error("[CloudStorage] HTTP: Fehler beim Übertragen von Zählern - " + e.getMessage());
+                throw e;
+            } catch (Exception e) {
+                logger.error("[CloudStorage] HTTP: Exception beim Übertragen von Zählern - Error: " + e.getMessage());
+                throw new CompletionException(e);
+            }
+            return results;
+        });
+    }
+
+    private Long parseCounterValue(String key, byte[] data) {
+        if (data == null || data.length == 0) {
+            return 0L;
+        }
+        try {
+            JsonElement value = codecs.decode(data);
+            return value != null && value.isJsonPrimitive() ? value.getAsLong() : 0L;
+        } catch (Exception e) {
+            logger.error("[CloudStorage] Zählerwert ungültig - Key: " + key + ", Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Iteriert lazy über alle Keys dieses Servers, die auf {@code pattern} passen (Glob, z.B. "player:*").
+     * Redis: SCAN-Cursor, HTTP: paginierte "list"-Aktion. Es wird immer nur eine Seite im Speicher gehalten.
+     * Blockiert beim Nachladen jeder Seite und darf daher nicht im Main-Thread konsumiert werden.
+     * Wie bei SCAN kann ein Key mehrfach geliefert werden, noch nicht übertragene Write-Behind-Werte fehlen.
+     * Schlägt das Laden einer Seite fehl, wirft der Stream eine {@link UncheckedIOException}.
+     */
+    public Stream<String> scan(String pattern) {
+        return scan(pattern, settings.getScanCount());
+    }
+
+    /**
+     * Wie {@link #scan(String)}, mit eigener Seitengröße (COUNT-Hinweis für Redis)
+     */
+    public Stream<String> scan(String pattern, int count) {
+        return scanPages(pattern, count, false).flatMap(page -> page.keys.stream());
+    }
+
+    /**
+     * Iteriert lazy über Keys und Werte. Die Werte jeder Seite werden in einem Aufruf nachgeladen
+     * (Redis: MGET pro Seite), zwischenzeitlich gelöschte Keys werden übersprungen.
+     */
+    public <T> Stream<Map.Entry<String, T>> scanEntries(String pattern, Class<T> clazz) {
+        return scanEntries(pattern, clazz, settings.getScanCount());
+    }
+
+    public <T> Stream<Map.Entry<String, T>> scanEntries(String pattern, Class<T> clazz, int count) {
+        return scanPages(pattern, count, true).flatMap(page -> {
+            List<Map.Entry<String, T>> entries = new ArrayList<>(page.keys.size());
+            for (int i = 0; i < page.keys.size(); i++) {
+                String key = page.keys.get(i);
+                JsonElement value = writeBehind != null ? writeBehind.getPending(key) : null;
+                if (value == null) {
+                    value = page.values.get(i);
+                }
+                T converted = fromTree(key, value, clazz);
+                if (converted != null) {
+                    entries.add(Map.entry(key, converted));
+                }
             }
+            return entries.stream();
         });
     }
 
+    private Stream<ScanPage> scanPages(String pattern, int count, boolean withValues) {
+        Iterator<ScanPage> pages = new ScanIterator(pattern, Math.max(1, count), withValues);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
     /**
-     * Löscht Daten aus der Cloud
+     * Lädt eine Seite. Gibt null bei Fehlern zurück, die Iteration bricht dann mit einer Exception ab.
      */
-    public CompletableFuture<Boolean> delete(String key) {
+    private ScanPage fetchScanPage(String pattern, String cursor, int count, boolean withValues) {
         if ("redis".equals(communicationType)) {
-            return deleteViaRedis(key);
+            return scanPageViaRedis(pattern, cursor, count, withValues);
         } else {
-            return deleteViaHttp(key);
+            return scanPageViaHttp(pattern, cursor, count, withValues);
         }
     }
 
-    private CompletableFuture<Boolean> deleteViaHttp(String key) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Map<String, Object> requestBody = new HashMap<>();
-                requestBody.put("action", "delete");
-                requestBody.put("key", key);
+    /**
+     * Bei mehreren Knoten werden diese nacheinander gescannt, der Cursor hat dann die Form "knoten:cursor"
+     */
+    private ScanPage scanPageViaRedis(String pattern, String cursor, int count, boolean withValues) {
+        try {
+            List<UnifiedJedis> nodes = shards().nodes();
+            int nodeIndex = 0;
+            String nodeCursor = cursor;
+            int separator = cursor.indexOf(':');
+            if (separator > 0) {
+                nodeIndex = Integer.parseInt(cursor.substring(0, separator));
+                nodeCursor = cursor.substring(separator + 1);
+            }
+            UnifiedJedis client = nodes.get(nodeIndex);
 
-                String jsonBody = gson.toJson(requestBody);
-                String url = baseUrl + "/api/storage/" + serverId + "/" + authToken;
+            ScanParams params = new ScanParams().match(storageKey(pattern)).count(count);
+            ScanResult<byte[]> result = client.scan(nodeCursor.getBytes(StandardCharsets.UTF_8), params);
 
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(url))
-                        .header("Content-Type", "application/json")
-                        .POST(HttpRequest.BodyPublishers.ofString(jsonBody))
-                        .timeout(Duration.ofSeconds(30))
-                        .build();
+            List<byte[]> rawKeys = result.getResult();
+            int prefixLength = storageKey("").length;
+            List<String> keys = new ArrayList<>(rawKeys.size());
+            for (byte[] rawKey : rawKeys) {
+                keys.add(new String(rawKey, prefixLength, rawKey.length - prefixLength, StandardCharsets.UTF_8));
+            }
 
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            List<JsonElement> values = null;
+            if (withValues) {
+                values = new ArrayList<>(rawKeys.size());
+                List<byte[]> rawValues = rawKeys.isEmpty()
+                        ? List.of()
+                        : client.mget(rawKeys.toArray(new byte[0][]));
+                for (int i = 0; i < rawValues.size(); i++) {
+                    byte[] data = rawValues.get(i);
+                    try {
+                        values.add(data != null && data.length > 0 ? codecs.decode(data) : null);
+                    } catch (Exception e) {
+                        // Hash- oder Zähler-Keys lassen sich nicht als Wert lesen
+                        logger.debug("[CloudStorage] Redis: Wert beim Scan übersprungen - Key: " + keys.get(i) + ", Error: " + e.getMessage());
+                        values.add(null);
+                    }
+                }
+            }
 
-                if (response.statusCode() == 200) {
-                    logger.debug("[CloudStorage] HTTP: Daten erfolgreich gelöscht - Key: " + key);
+            String nextCursor;
+            if (!ScanParams.SCAN_POINTER_START.equals(result.getCursor())) {
+                nextCursor = nodeIndex + ":" + result.getCursor();
+            } else if (nodeIndex + 1 < nodes.size()) {
+                nextCursor = (nodeIndex + 1) + ":" + ScanParams.SCAN_POINTER_START;
+            } else {
+                nextCursor = ScanParams.SCAN_POINTER_START;
+            }
+            return new ScanPage(nextCursor, keys, values);
+        } catch (Exception e) {
+            logger.error("[CloudStorage] Redis: Exception bei SCAN - Pattern: " + pattern + ", Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private ScanPage scanPageViaHttp(String pattern, String cursor, int count, boolean withValues) {
+        try {
+            Map<String, Object> requestBody = new HashMap<>();
+            requestBody.put("action", "list");
+            requestBody.put("pattern", pattern);
+            requestBody.put("cursor", cursor);
+            requestBody.put("count", count);
+            requestBody.put("include_values", withValues);
+
+            HttpResponse<String> response = postStorageRequest(requestBody);
+
+            if (response.statusCode() == 200) {
+                ScanResponse scanResponse = gson.fromJson(response.body(), ScanResponse.class);
+                if (scanResponse != null) {
+                    List<String> keys = scanResponse.keys != null ? scanResponse.keys : List.of();
+                    List<JsonElement> values = null;
+                    if (withValues) {
+                        values = new ArrayList<>(keys.size());
+                        for (String key : keys) {
+                            JsonElement value = scanResponse.data != null ? scanResponse.data.get(key) : null;
+                            values.add(value != null && !value.isJsonNull() ? value : null);
+                        }
+                    }
+                    String nextCursor = scanResponse.cursor != null ? scanResponse.cursor : ScanParams.SCAN_POINTER_START;
+                    return new ScanPage(nextCursor, keys, values);
+                }
+            }
+            logger.error("[CloudStorage] HTTP: Fehler bei list - Pattern: " + pattern + ", Status: " + response.statusCode());
+            return null;
+        } catch (Exception e) {
+            logger.error("[CloudStorage] HTTP: Exception bei list - Pattern: " + pattern + ", Error: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Eine Seite eines Scans; values nur bei scanEntries gesetzt (null = Key nicht mehr vorhanden)
+    private static class ScanPage {
+        final String cursor;
+        final List<String> keys;
+        final List<JsonElement> values;
+
+        ScanPage(String cursor, List<String> keys, List<JsonElement> values) {
+            this.cursor = cursor;
+            this.keys = keys;
+            this.values = values;
+        }
+    }
+
+    // Lädt die nächste Seite erst, wenn der Konsument sie anfordert
+    private class ScanIterator implements Iterator<ScanPage> {
+        private final String pattern;
+        private final int count;
+        private final boolean withValues;
+        private String cursor = ScanParams.SCAN_POINTER_START;
+        private boolean finished;
+
+        ScanIterator(String pattern, int count, boolean withValues) {
+            this.pattern = Objects.requireNonNull(pattern, "pattern");
+            this.count = count;
+            this.withValues = withValues;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !finished && !closed;
+        }
+
+        @Override
+        public ScanPage next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ScanPage page = fetchScanPage(pattern, cursor, count, withValues);
+            if (page == null) {
+                // Abbrechen statt still zu enden, sonst sähe ein unvollständiger Scan wie ein vollständiger aus
+                finished = true;
+                throw new UncheckedIOException(new IOException("Scan abgebrochen - Pattern: " + pattern + ", Cursor: " + cursor));
+            }
+            cursor = page.cursor;
+            finished = ScanParams.SCAN_POINTER_START.equals(cursor);
+            return page;
+        }
+    }
+
+    /**
+     * Öffnet einen Stream zum Schreiben eines großen Werts (z.B. Schematics, Karten-Snapshots).
+     * Die Daten werden in Chunks fester Größe übertragen und erst mit {@code close()} sichtbar.
+     * Der Stream blockiert beim Übertragen und darf nicht im Main-Thread verwendet werden.
+     */
+    public StorageBlobOutputStream openWrite(String key) {
+        return new StorageBlobOutputStream(this, key, settings.getBlobChunkSize(), settings.isBlobCompression());
+    }
+
+    /**
+     * Öffnet einen Stream zum Lesen eines mit {@link #openWrite(String)} gespeicherten Werts.
+     * Gibt null zurück, wenn unter dem Key kein Blob existiert.
+     */
+    public StorageBlobInputStream openRead(String key) throws IOException {
+        JsonObject manifest = readBlobManifest(key);
+        return manifest != null ? new StorageBlobInputStream(this, key, manifest) : null;
+    }
+
+    /**
+     * Löscht einen Blob samt Chunks
+     */
+    public CompletableFuture<Boolean> deleteBlob(String key) {
+        invalidateLocal(key);
+        return discardSpooledOnSuccess(key, executor.supplyAsync(() -> {
+            try {
+                if ("redis".equals(communicationType)) {
+                    JsonObject manifest = readBlobManifest(key);
+                    if (manifest == null) {
+                        return false;
+                    }
+                    String uploadId = manifest.get("upload_id").getAsString();
+                    int chunks = manifest.get("chunks").getAsInt();
+                    redisFor(key).del(storageKey(key));
+                    pipelinePerShard(blobChunkKeys(key, uploadId, chunks), AbstractPipeline::del);
+                    unregisterBlob(key, uploadId);
+                    logger.debug("[CloudStorage] Redis: Blob gelöscht - Key: " + key + ", Chunks: " + chunks);
                     return true;
-                } else {
-                    logger.error("[CloudStorage] HTTP: Fehler beim Löschen - Key: " + key + ", Status: " + response.statusCode());
-                    return false;
                 }
 
+                Map<String, Object> requestBody = new HashMap<>();
+                requestBody.put("action", "blob_delete");
+                requestBody.put("key", key);
+                HttpResponse<String> response = postStorageRequest(requestBody);
+                if (response.statusCode() == 200) {
+                    return true;
+                }
+                logger.error("[CloudStorage] HTTP: Fehler beim Löschen des Blobs - Key: " + key + ", Status: " + response.statusCode());
+                return false;
             } catch (Exception e) {
-                logger.error("[CloudStorage] HTTP: Exception beim Löschen - Key: " + key + ", Error: " + e.getMessage());
+                logger.error("[CloudStorage] Exception beim Löschen des Blobs - Key: " + key + ", Error: " + e.getMessage());
                 return false;
             }
-        });
+        }));
     }
 
-    private CompletableFuture<Boolean> deleteViaRedis(String key) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                if (redisClient == null) {
-                    initializeRedis();
+    private byte[] blobChunkKey(String key, String uploadId, int index) {
+        return storageKey(key + ":blob:" + uploadId + ":" + index);
+    }
+
+    private List<byte[]> blobChunkKeys(String key, String uploadId, int chunks) {
+        List<byte[]> chunkKeys = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            chunkKeys.add(blobChunkKey(key, uploadId, i));
+        }
+        return chunkKeys;
+    }
+
+    /**
+     * Führt einen Befehl pro Key aus, gebündelt in einer Pipeline pro Knoten.
+     * Gibt die Anzahl der Antworten mit dem Wert 1 zurück (z.B. erfolgreiche PERSIST/EXPIRE).
+     */
+    private long pipelinePerShard(List<byte[]> storageKeys, BiFunction<AbstractPipeline, byte[], Response<Long>> command) {
+        StorageShards current = shards();
+        if (current.isMigrating()) {
+            // PERSIST/EXPIRE müssen den Chunk auf seinem neuen Knoten treffen
+            storageKeys.forEach(current::forKeyMigrated);
+        }
+        long confirmed = 0;
+        for (Map.Entry<UnifiedJedis, List<byte[]>> group : current.group(storageKeys, storageKey -> storageKey).entrySet()) {
+            List<Response<Long>> responses = new ArrayList<>(group.getValue().size());
+            try (AbstractPipeline pipeline = group.getKey().pipelined()) {
+                group.getValue().forEach(storageKey -> responses.add(command.apply(pipeline, storageKey)));
+                pipeline.sync();
+            }
+            for (Response<Long> response : responses) {
+                if (Long.valueOf(1).equals(response.get())) {
+                    confirmed++;
                 }
+            }
+        }
+        return confirmed;
+    }
 
-                String storageKey = "server:" + serverId + ":" + key;
-                Long deletedCount = redisClient.del(storageKey);
+    /**
+     * Registry der Uploads dieses Servers (Feld "key:uploadId", Wert "chunks:startMillis"). Darüber findet
+     * {@link #sweepBlobs()} Chunks, deren Manifest über einen beliebigen Weg (store, delete, Ablauf) ersetzt wurde.
+     * Liegt auf dem ersten Knoten, der sich beim Hinzufügen weiterer Knoten nicht ändert.
+     */
+    private byte[] blobRegistryKey() {
+        String owner = topology.isCluster() ? "{" + serverId + "}" : serverId;
+        return ("echocloud:blobs:" + owner).getBytes(StandardCharsets.UTF_8);
+    }
 
-                boolean success = deletedCount > 0;
-                if (success) {
-                    logger.debug("[CloudStorage] Redis: Daten erfolgreich gelöscht - Key: " + key);
-                } else {
-                    logger.debug("[CloudStorage] Redis: Keine Daten zum Löschen gefunden - Key: " + key);
+    private void registerBlob(String key, String uploadId, int chunks) {
+        byte[] registryKey = blobRegistryKey();
+        shards().primary().hset(registryKey, (key + ":" + uploadId).getBytes(StandardCharsets.UTF_8),
+                (chunks + ":" + System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void unregisterBlob(String key, String uploadId) {
+        shards().primary().hdel(blobRegistryKey(), (key + ":" + uploadId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void expireBlobChunks(String key, String uploadId, int chunks) {
+        int staleTtl = settings.getBlobStaleTtlSeconds();
+        pipelinePerShard(blobChunkKeys(key, uploadId, chunks), (pipeline, chunkKey) -> pipeline.expire(chunkKey, staleTtl));
+    }
+
+    /**
+     * Lässt Chunks ablaufen, deren Upload nicht mehr vom aktuellen Manifest referenziert wird.
+     * Einträge jünger als storage.blob.uncommittedTtlSeconds werden übersprungen, da ihr Commit noch laufen kann.
+     */
+    private void sweepBlobs() {
+        if (closed) {
+            return;
+        }
+        try {
+            byte[] registryKey = blobRegistryKey();
+            UnifiedJedis client = shards().primary();
+            long cutoff = System.currentTimeMillis() - settings.getBlobUncommittedTtlSeconds() * 1000L;
+            int swept = 0;
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do {
+                ScanResult<Map.Entry<byte[], byte[]>> page = client.hscan(registryKey, cursor.getBytes(StandardCharsets.UTF_8));
+                for (Map.Entry<byte[], byte[]> entry : page.getResult()) {
+                    String field = new String(entry.getKey(), StandardCharsets.UTF_8);
+                    String[] info = new String(entry.getValue(), StandardCharsets.UTF_8).split(":");
+                    int separator = field.lastIndexOf(':');
+                    if (separator <= 0 || info.length != 2 || Long.parseLong(info[1]) > cutoff) {
+                        continue;
+                    }
+                    String key = field.substring(0, separator);
+                    String uploadId = field.substring(separator + 1);
+                    JsonObject manifest = readBlobManifest(key);
+                    if (manifest != null && uploadId.equals(manifest.get("upload_id").getAsString())) {
+                        continue;
+                    }
+                    expireBlobChunks(key, uploadId, Integer.parseInt(info[0]));
+                    client.hdel(registryKey, entry.getKey());
+                    swept++;
                 }
-                return success;
+                cursor = page.getCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
 
-            } catch (Exception e) {
-                logger.error("[CloudStorage] Redis: Exception beim Löschen - Key: " + key + ", Error: " + e.getMessage());
-                return false;
+            if (swept > 0) {
+                logger.debug("[CloudStorage] Redis: Chunks von {} verwaisten Blob-Uploads freigegeben", swept);
             }
-        });
+        } catch (Exception e) {
+            logger.warn("[CloudStorage] Redis: Fehler beim Aufräumen verwaister Blobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Überträgt einen Chunk. Chunks laufen ab, falls der Upload nie abgeschlossen wird.
+     */
+    void writeBlobChunk(String key, String uploadId, int index, byte[] data, int length) throws IOException {
+        try {
+            if ("redis".equals(communicationType)) {
+                byte[] chunkKey = blobChunkKey(key, uploadId, index);
+                redis(chunkKey).set(chunkKey, Arrays.copyOf(data, length),
+                        SetParams.setParams().ex(settings.getBlobUncommittedTtlSeconds()));
+                return;
+            }
+
+            Map<String, Object> requestBody = new HashMap<>();
+            requestBody.put("action", "blob_chunk");
+            requestBody.put("key", key);
+            requestBody.put("upload_id", uploadId);
+            requestBody.put("index", index);
+            requestBody.put("data", Base64.getEncoder().encodeToString(Arrays.copyOf(data, length)));
+            HttpResponse<String> response = postStorageRequest(requestBody);
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP-Status " + response.statusCode());
+            }
+        } catch (Exception e) {
+            throw new IOException("Chunk " + index + " konnte nicht gespeichert werden - Key: " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    byte[] readBlobChunk(String key, String uploadId, int index) throws IOException {
+        try {
+            if ("redis".equals(communicationType)) {
+                byte[] chunkKey = blobChunkKey(key, uploadId, index);
+                return redisMigrated(chunkKey).get(chunkKey);
+            }
+
+            Map<String, Object> requestBody = new HashMap<>();
+            requestBody.put("action", "blob_chunk_get");
+            requestBody.put("key", key);
+            requestBody.put("upload_id", uploadId);
+            requestBody.put("index", index);
+            HttpResponse<String> response = postStorageRequest(requestBody);
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP-Status " + response.statusCode());
+            }
+            StorageResponse storageResponse = gson.fromJson(response.body(), StorageResponse.class);
+            if (storageResponse == null || storageResponse.data == null || storageResponse.data.isJsonNull()) {
+                return null;
+            }
+            return Base64.getDecoder().decode(storageResponse.data.getAsString());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Chunk " + index + " konnte nicht gelesen werden - Key: " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Macht einen Upload sichtbar: Chunks werden dauerhaft, das Manifest ersetzt einen älteren Blob,
+     * dessen Chunks nach kurzer Zeit ablaufen (laufende Leser können noch zu Ende lesen).
+     * Ist ein Chunk bereits abgelaufen, wird der Upload verworfen und das alte Manifest bleibt bestehen.
+     */
+    void commitBlob(String key, String uploadId, JsonObject manifest) throws IOException {
+        try {
+            if ("redis".equals(communicationType)) {
+                int chunks = manifest.get("chunks").getAsInt();
+                List<byte[]> chunkKeys = blobChunkKeys(key, uploadId, chunks);
+                // Vor dem PERSIST eintragen, damit auch ein abgebrochener Commit später aufgeräumt wird
+                registerBlob(key, uploadId, chunks);
+
+                // Chunks liegen über alle Knoten verteilt, das Manifest beim Knoten des Keys
+                long persisted = pipelinePerShard(chunkKeys, AbstractPipeline::persist);
+                if (persisted != chunks) {
+                    pipelinePerShard(chunkKeys, AbstractPipeline::del);
+                    unregisterBlob(key, uploadId);
+                    throw new IOException((chunks - persisted) + " von " + chunks + " Chunks fehlen oder sind abgelaufen");
+                }
+
+                // SET ... GET tauscht das Manifest atomar und liefert das tatsächlich ersetzte
+                JsonObject previous = toBlobManifest(codecs.decode(redisFor(key).setGet(storageKey(key), codecs.encode(manifest))));
+                if (previous != null && !uploadId.equals(previous.get("upload_id").getAsString())) {
+                    String previousId = previous.get("upload_id").getAsString();
+                    expireBlobChunks(key, previousId, previous.get("chunks").getAsInt());
+                    unregisterBlob(key, previousId);
+                }
+            } else {
+                Map<String, Object> requestBody = new HashMap<>();
+                requestBody.put("action", "blob_commit");
+                requestBody.put("key", key);
+                requestBody.put("upload_id", uploadId);
+                requestBody.put("manifest", manifest);
+                HttpResponse<String> response = postStorageRequest(requestBody);
+                if (response.statusCode() != 200) {
+                    throw new IOException("HTTP-Status " + response.statusCode());
+                }
+            }
+            invalidateLocal(key);
+            discardSpooled(key);
+            logger.debug("[CloudStorage] Blob gespeichert - Key: " + key + ", Bytes: " + manifest.get("size").getAsLong());
+        } catch (Exception e) {
+            throw new IOException("Blob konnte nicht abgeschlossen werden - Key: " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Liest das Manifest eines Blobs, null wenn der Key fehlt oder keinen Blob enthält
+     */
+    private JsonObject readBlobManifest(String key) throws IOException {
+        JsonElement value;
+        try {
+            if ("redis".equals(communicationType)) {
+                value = codecs.decode(redisMigrated(storageKey(key)).get(storageKey(key)));
+            } else {
+                LoadedValue loaded = getRawViaHttp(key).join();
+                value = loaded != null ? loaded.value : null;
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Manifest konnte nicht gelesen werden - Key: " + key + ": " + e.getMessage(), e);
+        }
+
+        return toBlobManifest(value);
+    }
+
+    private static JsonObject toBlobManifest(JsonElement value) {
+        if (value == null || !value.isJsonObject()) {
+            return null;
+        }
+        JsonObject manifest = value.getAsJsonObject();
+        return manifest.has("blob") && manifest.has("upload_id") ? manifest : null;
     }
 
     public boolean storeSync(String key, Object data) {
+        // Vor dem Schreiben prüfen, damit ein abgelehnter Aufruf (FAIL) keine Änderung hinterlässt;
+        // mit Write-Behind wird nur eingereiht und nie blockiert
+        if (writeBehind == null) {
+            checkBlockingCall(false, "storeSync", key);
+        }
+        CompletableFuture<Boolean> future = store(key, data);
         try {
-            return store(key, data).get();
+            return future.get();
         } catch (Exception e) {
             logger.error("[CloudStorage] Sync Store Fehler - Key: " + key + ", Error: " + e.getMessage());
             return false;
@@ -381,8 +2507,10 @@ public class CloudStorage {
     }
 
     public <T> T getSync(String key, Class<T> clazz) {
+        CompletableFuture<T> future = get(key, clazz);
+        checkBlockingCall(future, "getSync", key);
         try {
-            return get(key, clazz).get();
+            return future.get();
         } catch (Exception e) {
             logger.error("[CloudStorage] Sync Get Fehler - Key: " + key + ", Error: " + e.getMessage());
             return null;
@@ -390,8 +2518,10 @@ public class CloudStorage {
     }
 
     public Map<String, Object> getAsMapSync(String key) {
+        CompletableFuture<Map<String, Object>> future = getAsMap(key);
+        checkBlockingCall(future, "getAsMapSync", key);
         try {
-            return getAsMap(key).get();
+            return future.get();
         } catch (Exception e) {
             logger.error("[CloudStorage] Sync GetAsMap Fehler - Key: " + key + ", Error: " + e.getMessage());
             return null;
@@ -399,14 +2529,80 @@ public class CloudStorage {
     }
 
     public boolean deleteSync(String key) {
+        checkBlockingCall(false, "deleteSync", key);
+        CompletableFuture<Boolean> future = delete(key);
         try {
-            return delete(key).get();
+            return future.get();
         } catch (Exception e) {
             logger.error("[CloudStorage] Sync Delete Fehler - Key: " + key + ", Error: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Warnt bzw. bricht ab (storage.mainThread.syncCalls), wenn ein Sync-Aufruf den Server-Thread blockieren würde.
+     * Lesezugriffe prüfen erst nach dem Start, damit bereits abgeschlossene (z.B. Cache-Treffer) erlaubt bleiben.
+     */
+    private void checkBlockingCall(CompletableFuture<?> future, String operation, String key) {
+        checkBlockingCall(future.isDone(), operation, key);
+    }
+
+    /**
+     * Schreibende Aufrufe prüfen vor dem Start, da sie sich nach einem Abbruch nicht mehr zurücknehmen lassen
+     */
+    private void checkBlockingCall(boolean alreadyDone, String operation, String key) {
+        MainThreadDispatcher dispatcher = mainThread;
+        if (dispatcher != null) {
+            dispatcher.checkBlockingCall(alreadyDone, operation, key);
+        }
+    }
+
+    public void setMainThreadDispatcher(MainThreadDispatcher dispatcher) {
+        this.mainThread = dispatcher;
+    }
+
+    public MainThreadDispatcher getMainThreadDispatcher() {
+        return mainThread;
+    }
+
+    /**
+     * Lädt einen Wert und ruft {@code callback} im nächsten Tick auf dem Server-Thread auf (null bei Fehlern)
+     */
+    public <T> void getOnMainThread(String key, Class<T> clazz, Consumer<T> callback) {
+        onMainThread(get(key, clazz), callback);
+    }
+
+    /**
+     * Speichert einen Wert und ruft {@code callback} mit dem Ergebnis auf dem Server-Thread auf
+     */
+    public void storeOnMainThread(String key, Object data, Consumer<Boolean> callback) {
+        onMainThread(store(key, data), callback);
+    }
+
+    /**
+     * Löscht einen Key und ruft {@code callback} mit dem Ergebnis auf dem Server-Thread auf
+     */
+    public void deleteOnMainThread(String key, Consumer<Boolean> callback) {
+        onMainThread(delete(key), callback);
+    }
+
+    /**
+     * Leitet das Ergebnis eines beliebigen Storage-Futures auf den Server-Thread um.
+     * Ohne Dispatcher (außerhalb des Plugins) läuft der Callback direkt im abschließenden Thread.
+     */
+    public <T> void onMainThread(CompletableFuture<T> future, Consumer<T> callback) {
+        MainThreadDispatcher dispatcher = mainThread;
+        CompletableFuture<T> safe = future.exceptionally(error -> {
+            logger.error("[CloudStorage] Fehler vor Main-Thread-Callback: " + error.getMessage());
+            return null;
+        });
+        if (dispatcher == null) {
+            safe.thenAccept(callback);
+        } else {
+            safe.thenAcceptAsync(callback, dispatcher);
+        }
+    }
+
     public CompletableFuture<Boolean> storeString(String key, String value) {
         return store(key, value);
     }
@@ -435,18 +2631,137 @@ public class CloudStorage {
         return getAsMap(key);
     }
 
+    /**
+     * Anzahl aktuell ausgeliehener Redis-Verbindungen
+     */
+    public int getPoolActiveCount() {
+        int total = 0;
+        for (Pool<?> pool : poolNodes()) {
+            total += pool.getNumActive();
+        }
+        return total;
+    }
+
+    /**
+     * Anzahl freier Redis-Verbindungen im Pool
+     */
+    public int getPoolIdleCount() {
+        int total = 0;
+        for (Pool<?> pool : poolNodes()) {
+            total += pool.getNumIdle();
+        }
+        return total;
+    }
+
+    /**
+     * Anzahl Threads, die gerade auf eine Redis-Verbindung warten
+     */
+    public int getPoolWaiterCount() {
+        int total = 0;
+        for (Pool<?> pool : poolNodes()) {
+            total += pool.getNumWaiters();
+        }
+        return total;
+    }
+
+    /**
+     * Durchschnittliche Wartezeit beim Ausleihen einer Verbindung in ms (Mittel über alle Knoten)
+     */
+    public long getPoolMeanBorrowWaitMillis() {
+        List<Pool<?>> pools = poolNodes();
+        long total = 0;
+        for (Pool<?> pool : pools) {
+            total += pool.getMeanBorrowWaitTimeMillis();
+        }
+        return pools.isEmpty() ? 0 : total / pools.size();
+    }
+
+    /**
+     * Maximale Wartezeit beim Ausleihen einer Verbindung in ms
+     */
+    public long getPoolMaxBorrowWaitMillis() {
+        long max = 0;
+        for (Pool<?> pool : poolNodes()) {
+            max = Math.max(max, pool.getMaxBorrowWaitTimeMillis());
+        }
+        return max;
+    }
+
+    /**
+     * Verbindungs-Pools aller Knoten (im Cluster einer pro Master, bei Sentinel nicht ermittelbar)
+     */
+    private List<Pool<?>> poolNodes() {
+        StorageShards current = shards;
+        if (current == null) {
+            return List.of();
+        }
+        List<Pool<?>> pools = new ArrayList<>();
+        for (UnifiedJedis client : current.nodes()) {
+            pools.addAll(RedisTopology.pools(client));
+        }
+        return pools;
+    }
+
     /**
      * Schließt die Verbindungen
      */
     public void close() {
-        if (redisClient != null) {
+        // Ausstehende Schreibvorgänge übertragen, solange die Verbindung noch offen ist
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        if (spool != null) {
+            spool.close();
+        }
+        CloudCounters localCounters;
+        synchronized (this) {
+            localCounters = counters;
+        }
+        if (localCounters != null) {
+            localCounters.close();
+        }
+        executor.shutdown(5000);
+
+        closed = true;
+        if (blobSweeper != null) {
+            blobSweeper.shutdownNow();
+        }
+
+        for (InvalidationSubscription subscription : invalidationSubscribers.values()) {
             try {
-                redisClient.close();
-                logger.debug("[CloudStorage] Redis-Verbindung geschlossen");
+                subscription.close();
             } catch (Exception e) {
-                logger.error("[CloudStorage] Fehler beim Schließen der Redis-Verbindung: " + e.getMessage());
+                logger.debug("[CloudStorage] Fehler beim Beenden der Keyspace-Invalidierung: " + e.getMessage());
             }
         }
+        invalidationSubscribers.clear();
+
+        StorageShards current = shards;
+        if (current != null) {
+            current.close();
+            shards = null;
+            logger.debug("[CloudStorage] Redis-Pool geschlossen");
+        }
+    }
+
+    // Response-Klasse für die paginierte "list"-Aktion
+    private static class ScanResponse {
+        String status;
+        String cursor;
+        List<String> keys;
+        Map<String, JsonElement> data;
+        String message;
+    }
+
+    // Geladener Wert mit Restlaufzeit in ms (-1 = keine Ablaufzeit bzw. unbekannt)
+    private static class LoadedValue {
+        final JsonElement value;
+        final long ttlMillis;
+
+        LoadedValue(JsonElement value, long ttlMillis) {
+            this.value = value;
+            this.ttlMillis = ttlMillis;
+        }
     }
 
     // Response-Klasse für HTTP-API
@@ -454,7 +2769,19 @@ public class CloudStorage {
         String status;
         String action;
         String key;
-        Object data;
+        JsonElement data;
+        Long ttl_ms;
+        String message;
+    }
+
+    // Response-Klasse für Batch-Aktionen der HTTP-API
+    private static class BatchResponse {
+        String status;
+        String operation;
+        Map<String, JsonElement> data;
+        Map<String, Long> ttl_ms;
+        Map<String, Boolean> results;
+        Map<String, String> errors;
         String message;
     }
 }
\ No newline at end of file
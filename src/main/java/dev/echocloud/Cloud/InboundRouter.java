@@ -0,0 +1,203 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Verteilt eingehende Nachrichten anhand ihres Typs. Der Typ ("type" bzw. "message_type") wird per
+ * {@link JsonReader} aus dem Top-Level-Objekt gelesen, ohne die Nachricht vollständig zu deserialisieren;
+ * den Body parsen nur Handler, die ihn tatsächlich brauchen.
+ */
+public class InboundRouter {
+
+    @FunctionalInterface
+    public interface Handler {
+        void handle(Message message) throws Exception;
+    }
+
+    private final Gson gson;
+    private final CloudLogger logger;
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    // Für unbekannte Typen und nicht lesbare Nachrichten (Typ ist dann null)
+    private volatile Handler fallback;
+
+    private final LongAdder routed = new LongAdder();
+    private final LongAdder unhandled = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final LongAdder bodiesParsed = new LongAdder();
+    private final LongAdder failedHandlers = new LongAdder();
+
+    public InboundRouter(Gson gson, CloudLogger logger) {
+        this.gson = gson;
+        this.logger = logger;
+    }
+
+    /**
+     * Registriert einen Handler für einen Nachrichtentyp (ersetzt einen vorhandenen)
+     */
+    public void register(String type, Handler handler) {
+        handlers.put(type, handler);
+    }
+
+    /**
+     * Nachrichten dieses Typs werden ohne weitere Verarbeitung verworfen
+     */
+    public void ignore(String type) {
+        handlers.put(type, message -> {});
+    }
+
+    public void unregister(String type) {
+        handlers.remove(type);
+    }
+
+    public void setFallback(Handler fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Ermittelt den Typ und ruft den passenden Handler auf
+     */
+    public void route(String raw, String channel) {
+        Message message = peek(raw, channel);
+        Handler handler = message.type != null ? handlers.get(message.type) : null;
+        if (handler != null) {
+            routed.increment();
+        } else {
+            if (message.type == null) {
+                malformed.increment();
+            } else {
+                unhandled.increment();
+            }
+            handler = fallback;
+            if (handler == null) {
+                return;
+            }
+        }
+
+        try {
+            handler.handle(message);
+        } catch (Exception e) {
+            failedHandlers.increment();
+            logger.error("[EchoCloud] Fehler beim Verarbeiten einer Nachricht (Typ: " + message.type + "): " + e.getMessage());
+        }
+    }
+
+    /**
+     * Liest nur die Top-Level-Felder type/message_type und sender_id, alle anderen Werte werden übersprungen
+     */
+    private Message peek(String raw, String channel) {
+        String type = null;
+        String senderId = null;
+        try (JsonReader reader = new JsonReader(new StringReader(raw))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return new Message(this, raw, channel, null, null);
+            }
+            reader.beginObject();
+            while (reader.hasNext() && (type == null || senderId == null)) {
+                String name = reader.nextName();
+                boolean typeField = "type".equals(name) || ("message_type".equals(name) && type == null);
+                boolean senderField = "sender_id".equals(name);
+                if ((typeField || senderField) && reader.peek() == JsonToken.STRING) {
+                    if (typeField) {
+                        type = reader.nextString();
+                    } else {
+                        senderId = reader.nextString();
+                    }
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } catch (Exception e) {
+            // Kein gültiges JSON, wird wie eine Nachricht ohne Typ behandelt
+            return new Message(this, raw, channel, null, null);
+        }
+        return new Message(this, raw, channel, type, senderId);
+    }
+
+    public long getRoutedCount() {
+        return routed.sum();
+    }
+
+    /**
+     * Nachrichten mit Typ, für den kein Handler registriert ist
+     */
+    public long getUnhandledCount() {
+        return unhandled.sum();
+    }
+
+    public long getMalformedCount() {
+        return malformed.sum();
+    }
+
+    /**
+     * Anzahl vollständig deserialisierter Nachrichten
+     */
+    public long getBodiesParsed() {
+        return bodiesParsed.sum();
+    }
+
+    public long getFailedHandlerCount() {
+        return failedHandlers.sum();
+    }
+
+    /**
+     * Eingehende Nachricht; der Body wird erst beim ersten Zugriff geparst
+     */
+    public static class Message {
+        private final InboundRouter router;
+        private final String raw;
+        private final String channel;
+        private final String type;
+        private final String senderId;
+        private Object body;
+
+        Message(InboundRouter router, String raw, String channel, String type, String senderId) {
+            this.router = router;
+            this.raw = raw;
+            this.channel = channel;
+            this.type = type;
+            this.senderId = senderId;
+        }
+
+        public String getRaw() {
+            return raw;
+        }
+
+        /**
+         * Kanal der Nachricht (Redis), null bei WebSocket
+         */
+        public String getChannel() {
+            return channel;
+        }
+
+        /**
+         * Nachrichtentyp, null wenn die Nachricht kein JSON-Objekt mit Typ ist
+         */
+        public String getType() {
+            return type;
+        }
+
+        public String getSenderId() {
+            return senderId;
+        }
+
+        /**
+         * Deserialisiert die Nachricht (einmalig je Message, danach aus dem Zwischenspeicher)
+         */
+        public <T> T getBody(Class<T> clazz) {
+            if (clazz.isInstance(body)) {
+                return clazz.cast(body);
+            }
+            T parsed = router.gson.fromJson(raw, clazz);
+            router.bodiesParsed.increment();
+            body = parsed;
+            return parsed;
+        }
+    }
+}
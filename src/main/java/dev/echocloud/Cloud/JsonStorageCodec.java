@@ -0,0 +1,43 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Standard-Codec: speichert Werte als JSON-Text (kompatibel mit bestehenden Daten)
+ */
+public class JsonStorageCodec implements StorageCodec {
+
+    public static final byte ID = 'J';
+
+    private final Gson gson = new Gson();
+
+    @Override
+    public byte getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "json";
+    }
+
+    @Override
+    public byte[] encode(JsonElement value) {
+        return gson.toJson(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public JsonElement decode(byte[] data, int offset, int length) throws IOException {
+        try (InputStreamReader reader = new InputStreamReader(
+                new ByteArrayInputStream(data, offset, length), StandardCharsets.UTF_8)) {
+            return JsonParser.parseReader(reader);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package dev.echocloud.Cloud;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Führt Storage-Callbacks auf dem Server-Thread aus. Abgeschlossene Futures reihen ihre Callbacks hier ein,
+ * einmal pro Tick wird die Warteschlange innerhalb eines Zeitbudgets abgearbeitet (Rest im nächsten Tick).
+ * Erkennt außerdem blockierende Sync-Aufrufe auf dem Server-Thread.
+ */
+public class MainThreadDispatcher implements Executor {
+
+    public enum SyncCallPolicy {
+        IGNORE, WARN, FAIL
+    }
+
+    private final CloudLogger logger;
+    private final long tickBudgetNanos;
+    private final SyncCallPolicy syncCallPolicy;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private BukkitTask task;
+
+    // Warnungen höchstens alle 10 Sekunden, dazwischen wird nur gezählt
+    private static final long WARN_INTERVAL_NANOS = 10_000_000_000L;
+    private final AtomicLong lastWarning = new AtomicLong(System.nanoTime() - WARN_INTERVAL_NANOS);
+    private final LongAdder suppressedWarnings = new LongAdder();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder failedCallbacks = new LongAdder();
+    private final LongAdder budgetExceededTicks = new LongAdder();
+    private final LongAdder blockingCalls = new LongAdder();
+    private final AtomicInteger maxQueued = new AtomicInteger();
+
+    public MainThreadDispatcher(CloudLogger logger, long tickBudgetMicros, String syncCallPolicy) {
+        this.logger = logger;
+        this.tickBudgetNanos = Math.max(1, tickBudgetMicros) * 1000L;
+        this.syncCallPolicy = parsePolicy(syncCallPolicy);
+    }
+
+    public static MainThreadDispatcher fromSettings(StorageSettings settings, CloudLogger logger) {
+        return new MainThreadDispatcher(logger, settings.getMainThreadTickBudgetMicros(), settings.getMainThreadSyncCalls());
+    }
+
+    private static SyncCallPolicy parsePolicy(String policy) {
+        return switch (policy == null ? "" : policy.toLowerCase()) {
+            case "ignore" -> SyncCallPolicy.IGNORE;
+            case "fail" -> SyncCallPolicy.FAIL;
+            default -> SyncCallPolicy.WARN;
+        };
+    }
+
+    /**
+     * Startet das Abarbeiten der Warteschlange in jedem Tick
+     */
+    public void start(Plugin plugin) {
+        if (task == null) {
+            task = Bukkit.getScheduler().runTaskTimer(plugin, this::drain, 1L, 1L);
+        }
+    }
+
+    /**
+     * Reiht einen Callback für den nächsten Tick ein
+     */
+    @Override
+    public void execute(Runnable callback) {
+        queue.add(callback);
+        submitted.increment();
+        maxQueued.accumulateAndGet(queued.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * Arbeitet Callbacks ab, bis die Warteschlange leer oder das Tick-Budget aufgebraucht ist
+     */
+    void drain() {
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        Runnable callback;
+        while ((callback = queue.poll()) != null) {
+            queued.decrementAndGet();
+            run(callback);
+            if (System.nanoTime() >= deadline) {
+                if (!queue.isEmpty()) {
+                    budgetExceededTicks.increment();
+                }
+                return;
+            }
+        }
+    }
+
+    private void run(Runnable callback) {
+        try {
+            callback.run();
+            executed.increment();
+        } catch (Exception e) {
+            failedCallbacks.increment();
+            logger.error("[CloudStorage] Fehler im Main-Thread-Callback: " + e.getMessage(), e);
+        }
+    }
+
+    public boolean isPrimaryThread() {
+        return Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * Prüft einen Sync-Aufruf: blockiert er den Server-Thread, wird je nach Einstellung gewarnt
+     * oder eine {@link IllegalStateException} geworfen. Bereits abgeschlossene Aufrufe (z.B. Cache-Treffer) sind erlaubt.
+     */
+    public void checkBlockingCall(boolean alreadyDone, String operation, String key) {
+        if (alreadyDone || syncCallPolicy == SyncCallPolicy.IGNORE || !isPrimaryThread()) {
+            return;
+        }
+        blockingCalls.increment();
+
+        String message = "[CloudStorage] Blockierender Aufruf " + operation + " auf dem Server-Thread (Key: " + key
+                + ", Aufrufer: " + findCaller() + ") - bitte die asynchrone API oder getOnMainThread verwenden";
+        if (syncCallPolicy == SyncCallPolicy.FAIL) {
+            throw new IllegalStateException(message);
+        }
+
+        long now = System.nanoTime();
+        long last = lastWarning.get();
+        if (now - last >= WARN_INTERVAL_NANOS && lastWarning.compareAndSet(last, now)) {
+            long suppressed = suppressedWarnings.sumThenReset();
+            logger.warn(message + (suppressed > 0 ? " (" + suppressed + " weitere seit der letzten Warnung)" : ""));
+        } else {
+            suppressedWarnings.increment();
+        }
+    }
+
+    /**
+     * Erster Aufrufer außerhalb von EchoCloud (für Warnungen)
+     */
+    private static String findCaller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> !frame.getClassName().startsWith("dev.echocloud.Cloud."))
+                .findFirst()
+                .map(frame -> frame.getClassName() + "." + frame.getMethodName() + ":" + frame.getLineNumber())
+                .orElse("unbekannt"));
+    }
+
+    /**
+     * Stoppt den Tick-Task und führt alle verbleibenden Callbacks ohne Budget aus
+     */
+    public void close() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        Runnable callback;
+        while ((callback = queue.poll()) != null) {
+            queued.decrementAndGet();
+            run(callback);
+        }
+    }
+
+    public SyncCallPolicy getSyncCallPolicy() {
+        return syncCallPolicy;
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    public int getMaxQueuedCount() {
+        return maxQueued.get();
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    public long getFailedCallbackCount() {
+        return failedCallbacks.sum();
+    }
+
+    /**
+     * Anzahl Ticks, in denen das Budget nicht für alle Callbacks gereicht hat
+     */
+    public long getBudgetExceededTicks() {
+        return budgetExceededTicks.sum();
+    }
+
+    /**
+     * Anzahl erkannter blockierender Sync-Aufrufe auf dem Server-Thread
+     */
+    public long getBlockingCallCount() {
+        return blockingCalls.sum();
+    }
+}
@@ -0,0 +1,225 @@
+package dev.echocloud.Cloud;
+
+import dev.echocloud.PluginConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Komprimiert ausgehende Nachrichten ab einer Mindestgröße. Komprimierte Nachrichten beginnen mit
+ * {@link #HEADER} und dem Codec ("~ec:D:" + Base64), alles andere wird unverändert durchgereicht –
+ * dadurch bleiben Gegenstellen kompatibel, die selbst nicht komprimieren.
+ * Der Codec "deflate-dictionary" nutzt ein gemeinsames Preset-Dictionary mit den typischen Feldern
+ * unserer Nachrichten, was gerade bei kleinen Heartbeats deutlich mehr spart als reines Deflate.
+ */
+public class PayloadCodec {
+
+    public static final String HEADER = "~ec:";
+    private static final char CODEC_DEFLATE = 'd';
+    private static final char CODEC_DEFLATE_DICTIONARY = 'D';
+
+    // Häufigste Fragmente stehen am Ende, dort kann Deflate sie mit den kürzesten Distanzen referenzieren
+    private static final byte[] DICTIONARY = ("\"error\":null,\"keys\":[],\"key\":\"storage_invalidate\","
+            + "\"rpc_type\":\"\",\"correlation_id\":\"\",\"rpc_request\",\"rpc_response\","
+            + "\"sender_id\":\"\",\"target_id\":\"\",\"message_type\":\"\",\"payload\":\"{\\\"\",\"timestamp\":\"\","
+            + "\"shutdown_notification\",\"server_state\":\"OFFLINE\",\"is_running\":false,"
+            + "{\"type\":\"heartbeat_response\",\"server_id\":\"\",\"request_timestamp\":\"\",\"response_timestamp\":\"\","
+            + "\"server_state\":\"ONLINE\",\"is_running\":true,\"tps\":20.0,\"cpu_usage\":0.0,\"ram_usage_mb\":,"
+            + "\"max_players\":,\"start_time\":\"\",\"players_online\":[\"\",\"\",\"")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private boolean enabled = false;
+    private int thresholdBytes = 1024;
+    private boolean useDictionary = true;
+    private int level = Deflater.BEST_SPEED;
+    // Obergrenze für entpackte Nachrichten, schützt vor Dekompressionsbomben
+    private int maxDecodedBytes = 4 * 1024 * 1024;
+
+    private final ThreadLocal<Deflater> deflaters = ThreadLocal.withInitial(Deflater::new);
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder decompressed = new LongAdder();
+    private final LongAdder bytesBefore = new LongAdder();
+    private final LongAdder bytesAfter = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder oversized = new LongAdder();
+
+    /**
+     * Liest die Einstellungen aus dem Abschnitt "compression" der settings.yml
+     */
+    public static PayloadCodec fromConfig(PluginConfig config) {
+        PayloadCodec codec = new PayloadCodec();
+        codec.enabled = config.getBoolean("compression.enabled", false);
+        codec.thresholdBytes = Math.max(0, config.getInt("compression.thresholdBytes", codec.thresholdBytes));
+        codec.useDictionary = !"deflate".equalsIgnoreCase(config.getString("compression.codec", "deflate-dictionary"));
+        codec.level = Math.max(Deflater.BEST_SPEED, Math.min(Deflater.BEST_COMPRESSION,
+                config.getInt("compression.level", codec.level)));
+        codec.maxDecodedBytes = Math.max(1024, config.getInt("compression.maxDecodedBytes", codec.maxDecodedBytes));
+        return codec;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getThresholdBytes() {
+        return thresholdBytes;
+    }
+
+    public int getMaxDecodedBytes() {
+        return maxDecodedBytes;
+    }
+
+    /**
+     * Komprimiert die Nachricht, wenn sie groß genug ist und dadurch tatsächlich kleiner wird
+     */
+    public String encode(String message) {
+        if (!enabled || message == null || message.length() < thresholdBytes) {
+            return message;
+        }
+
+        long start = System.nanoTime();
+        byte[] input = message.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setLevel(level);
+        if (useDictionary) {
+            deflater.setDictionary(DICTIONARY);
+        }
+        deflater.setInput(input);
+        deflater.finish();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+        byte[] buffer = new byte[Math.min(8192, Math.max(256, input.length))];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            output.write(buffer, 0, length);
+        }
+
+        String encoded = HEADER + (useDictionary ? CODEC_DEFLATE_DICTIONARY : CODEC_DEFLATE) + ":"
+                + Base64.getEncoder().encodeToString(output.toByteArray());
+        compressNanos.add(System.nanoTime() - start);
+
+        if (encoded.length() >= input.length) {
+            // Lohnt sich nicht (z.B. bereits komprimierte Daten)
+            skipped.increment();
+            return message;
+        }
+        compressed.increment();
+        bytesBefore.add(input.length);
+        bytesAfter.add(encoded.length());
+        return encoded;
+    }
+
+    /**
+     * Entpackt eine komprimierte Nachricht; unkomprimierte Nachrichten werden unverändert zurückgegeben.
+     * Gibt null zurück, wenn die Nachricht nicht entpackt werden kann oder entpackt größer als
+     * {@link #getMaxDecodedBytes()} wäre.
+     */
+    public String decode(String message) {
+        if (message == null || !message.startsWith(HEADER)) {
+            return message;
+        }
+
+        long start = System.nanoTime();
+        try {
+            int dataStart = HEADER.length() + 2;
+            if (message.length() < dataStart || message.charAt(dataStart - 1) != ':') {
+                throw new DataFormatException("Ungültiger Header");
+            }
+            char codec = message.charAt(HEADER.length());
+            if (codec != CODEC_DEFLATE && codec != CODEC_DEFLATE_DICTIONARY) {
+                throw new DataFormatException("Unbekannter Codec: " + codec);
+            }
+
+            byte[] input = Base64.getDecoder().decode(message.substring(dataStart));
+            Inflater inflater = inflaters.get();
+            inflater.reset();
+            inflater.setInput(input);
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.min(maxDecodedBytes, input.length * 4));
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0) {
+                    if (inflater.needsDictionary()) {
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.needsInput()) {
+                        throw new DataFormatException("Unvollständige Daten");
+                    }
+                }
+                if (output.size() + length > maxDecodedBytes) {
+                    oversized.increment();
+                    return null;
+                }
+                output.write(buffer, 0, length);
+            }
+
+            decompressed.increment();
+            return output.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException | IllegalArgumentException e) {
+            failed.increment();
+            return null;
+        } finally {
+            decompressNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    public long getCompressedCount() {
+        return compressed.sum();
+    }
+
+    /**
+     * Nachrichten über der Schwelle, die unkomprimiert gesendet wurden, weil sie nicht kleiner wurden
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    public long getDecompressedCount() {
+        return decompressed.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Verworfene Nachrichten, die entpackt größer als maxDecodedBytes gewesen wären
+     */
+    public long getOversizedCount() {
+        return oversized.sum();
+    }
+
+    /**
+     * Eingesparte Bytes (inklusive Header und Base64-Aufschlag)
+     */
+    public long getBytesSaved() {
+        return bytesBefore.sum() - bytesAfter.sum();
+    }
+
+    public double getCompressionRatio() {
+        long before = bytesBefore.sum();
+        return before == 0 ? 1.0 : (double) bytesAfter.sum() / before;
+    }
+
+    /**
+     * CPU-Zeit für das Komprimieren in Millisekunden (inklusive verworfener Versuche)
+     */
+    public double getCompressMillis() {
+        return compressNanos.sum() / 1_000_000.0;
+    }
+
+    public double getDecompressMillis() {
+        return decompressNanos.sum() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,447 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Lädt registrierte Spieler-Keys (z.B. "player:{uuid}:stats") gebündelt im AsyncPlayerPreLoginEvent
+ * und hält sie bis zum Quit in einer Session. {@link #get(UUID, String, Class)} auf dem Main-Thread
+ * trifft dann den lokalen Wert, statt auf einen Netzwerk-Roundtrip zu warten.
+ * Platzhalter in Templates: {uuid} und {name}. Ändert ein anderer Server einen Key, wird er im Hintergrund neu geladen.
+ */
+public class PlayerPrefetch implements Listener {
+
+    private final CloudCommunication communication;
+    private final CloudLogger logger;
+    private final Gson gson = new Gson();
+    private final boolean enabled;
+    private final long timeoutMillis;
+    private final long sessionTimeoutMillis;
+
+    // Template -> Write-Back (true = Änderungen über put() werden erst beim Quit gespeichert)
+    private final Map<String, Boolean> templates = new ConcurrentHashMap<>();
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+    // Key -> Session, damit fremde Schreibvorgänge den lokalen Wert verwerfen
+    private final Map<String, Session> sessionsByKey = new ConcurrentHashMap<>();
+    // Laufende Write-Backs, damit ein schneller Rejoin keine veralteten Daten lädt
+    private final Map<UUID, CompletableFuture<?>> pendingWriteBacks = new ConcurrentHashMap<>();
+    private final Consumer<String> changeListener = this::onKeyChanged;
+    private CloudStorage attachedStorage;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder prefetchedPlayers = new LongAdder();
+    private final LongAdder prefetchedKeys = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder writtenBack = new LongAdder();
+    private final LongAdder loginDelayCount = new LongAdder();
+    private final LongAdder loginDelayTotalNanos = new LongAdder();
+    private final AtomicLong loginDelayMaxNanos = new AtomicLong();
+
+    public PlayerPrefetch(CloudCommunication communication, CloudLogger logger) {
+        StorageSettings settings = communication.getStorageSettings();
+        this.communication = communication;
+        this.logger = logger;
+        this.enabled = settings.isPrefetchEnabled();
+        this.timeoutMillis = settings.getPrefetchTimeoutMillis();
+        this.sessionTimeoutMillis = settings.getPrefetchSessionTimeoutSeconds() * 1000L;
+    }
+
+    /**
+     * Registriert ein Key-Template, das beim Login jedes Spielers vorgeladen wird
+     */
+    public void register(String template) {
+        register(template, false);
+    }
+
+    /**
+     * Registriert ein Key-Template. Mit {@code writeBack} werden Änderungen über {@link #put(UUID, String, Object)}
+     * nur in der Session gehalten und beim Quit gebündelt gespeichert.
+     */
+    public void register(String template, boolean writeBack) {
+        templates.put(template, writeBack);
+        logger.debug("[EchoCloud] Prefetch-Template registriert: " + template + (writeBack ? " (Write-Back)" : ""));
+    }
+
+    public void unregister(String template) {
+        templates.remove(template);
+    }
+
+    public Set<String> getTemplates() {
+        return Set.copyOf(templates.keySet());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (!enabled || templates.isEmpty() || event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        expireStaleSessions();
+        try {
+            prefetch(event.getUniqueId(), event.getName(), start);
+        } finally {
+            recordLoginDelay(System.nanoTime() - start);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        Session session = sessions.get(event.getPlayer().getUniqueId());
+        if (session != null) {
+            session.joined = true;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        Session session = sessions.remove(event.getPlayer().getUniqueId());
+        if (session != null) {
+            release(session);
+        }
+    }
+
+    private void prefetch(UUID uuid, String name, long start) {
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            CompletableFuture<?> pendingWriteBack = pendingWriteBacks.get(uuid);
+            if (pendingWriteBack != null) {
+                pendingWriteBack.get(remainingMillis(deadline), TimeUnit.MILLISECONDS);
+            }
+
+            CloudStorage storage = storage();
+            Session session = new Session(uuid, name);
+            for (Map.Entry<String, Boolean> template : templates.entrySet()) {
+                String key = expand(template.getKey(), uuid, name);
+                session.writeBack.put(key, template.getValue());
+            }
+
+            // Session vor dem Laden eintragen, damit gleichzeitige Schreibvorgänge den Key als veraltet markieren
+            Session previous = sessions.put(uuid, session);
+            if (previous != null) {
+                release(previous);
+            }
+            for (String key : session.writeBack.keySet()) {
+                sessionsByKey.put(key, session);
+            }
+
+            Map<String, JsonElement> values = storage.getAll(session.writeBack.keySet(), JsonElement.class)
+                    .get(remainingMillis(deadline), TimeUnit.MILLISECONDS);
+            // Nicht gefundene Keys bleiben leer und werden bei Bedarf normal geladen
+            values.forEach((key, value) -> {
+                if (!session.versions.containsKey(key)) {
+                    session.values.putIfAbsent(key, value);
+                }
+            });
+
+            prefetchedPlayers.increment();
+            prefetchedKeys.add(values.size());
+            logger.debug("[EchoCloud] Prefetch für " + name + ": " + values.size() + "/" + session.writeBack.size() + " Keys geladen");
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            logger.warn("[EchoCloud] Prefetch für {} nach {} ms abgebrochen", name, timeoutMillis);
+        } catch (Exception e) {
+            failures.increment();
+            logger.error("[EchoCloud] Prefetch für " + name + " fehlgeschlagen: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Liefert den Wert aus der Session des Spielers. Ist er nicht vorgeladen, wird er synchron
+     * über den CloudStorage geladen (blockiert dann wie {@link CloudStorage#getSync(String, Class)}).
+     */
+    public <T> T get(UUID uuid, String template, Class<T> clazz) {
+        Session session = sessions.get(uuid);
+        String key = expand(template, uuid, nameOf(uuid, session));
+        if (session != null) {
+            JsonElement value = session.values.get(key);
+            if (value != null) {
+                hits.increment();
+                try {
+                    return gson.fromJson(value, clazz);
+                } catch (Exception e) {
+                    logger.error("[EchoCloud] Prefetch: Fehler beim Deserialisieren - Key: " + key + ", Error: " + e.getMessage());
+                    return null;
+                }
+            }
+        }
+        misses.increment();
+        return storage().getSync(key, clazz);
+    }
+
+    /**
+     * Prüft, ob der Wert ohne Netzwerkzugriff verfügbar ist
+     */
+    public boolean isPrefetched(UUID uuid, String template) {
+        Session session = sessions.get(uuid);
+        return session != null && session.values.containsKey(expand(template, uuid, session.name));
+    }
+
+    /**
+     * Speichert einen Wert. Bei Write-Back-Templates nur in der Session (gespeichert wird beim Quit),
+     * sonst direkt im CloudStorage und anschließend in der Session.
+     */
+    public CompletableFuture<Boolean> put(UUID uuid, String template, Object value) {
+        Session session = sessions.get(uuid);
+        String key = expand(template, uuid, nameOf(uuid, session));
+        JsonElement tree = gson.toJsonTree(value);
+
+        if (session != null && Boolean.TRUE.equals(session.writeBack.get(key))) {
+            session.dirty.add(key);
+            session.values.put(key, tree);
+            return CompletableFuture.completedFuture(true);
+        }
+
+        CompletableFuture<Boolean> future = storage().store(key, value);
+        if (session == null || !session.writeBack.containsKey(key)) {
+            return future;
+        }
+        return future.thenApply(success -> {
+            if (success && sessions.get(uuid) == session) {
+                // Neue Version, damit ein laufendes Nachladen den Wert nicht mit dem alten überschreibt
+                session.versions.compute(key, (k, version) -> {
+                    session.values.put(k, tree);
+                    return version == null ? 1 : version + 1;
+                });
+            }
+            return success;
+        });
+    }
+
+    private void onKeyChanged(String key) {
+        Session session = sessionsByKey.get(key);
+        if (session == null || session.dirty.contains(key)) {
+            return;
+        }
+        long changed = session.versions.compute(key, (k, version) -> {
+            session.values.remove(k);
+            return version == null ? 1 : version + 1;
+        });
+
+        // Im Hintergrund neu laden, sonst würde jedes weitere get() bis zum Quit synchron nachladen
+        storage().get(key, JsonElement.class).whenComplete((value, error) -> {
+            if (error != null) {
+                logger.debug("[EchoCloud] Prefetch: Nachladen von {} fehlgeschlagen: {}", key, error.getMessage());
+                return;
+            }
+            if (sessions.get(session.uuid) != session) {
+                return;
+            }
+            // Nur übernehmen, wenn der Key inzwischen nicht erneut geändert wurde
+            session.versions.computeIfPresent(key, (k, version) -> {
+                if (version == changed && !session.dirty.contains(k)) {
+                    session.values.put(k, value != null ? value : JsonNull.INSTANCE);
+                }
+                return version;
+            });
+        });
+    }
+
+    /**
+     * Gibt eine Session frei und speichert ihre geänderten Write-Back-Werte
+     */
+    private void release(Session session) {
+        Map<String, JsonElement> dirty = new LinkedHashMap<>();
+        for (String key : session.writeBack.keySet()) {
+            sessionsByKey.remove(key, session);
+            JsonElement value = session.values.get(key);
+            if (session.dirty.contains(key) && value != null) {
+                dirty.put(key, value);
+            }
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<Map<String, Boolean>> future = storage().storeAll(dirty);
+        pendingWriteBacks.put(session.uuid, future);
+        future.whenComplete((results, error) -> {
+            pendingWriteBacks.remove(session.uuid, future);
+            long stored = results != null ? results.values().stream().filter(Boolean::booleanValue).count() : 0;
+            writtenBack.add(stored);
+            if (stored < dirty.size()) {
+                logger.error("[EchoCloud] Prefetch: Write-Back für " + session.name + " unvollständig ("
+                        + stored + "/" + dirty.size() + " Keys)" + (error != null ? ": " + error.getMessage() : ""));
+            }
+        });
+    }
+
+    /**
+     * Entfernt Sessions, deren Login nach dem Prefetch nie abgeschlossen wurde
+     */
+    private void expireStaleSessions() {
+        long now = System.currentTimeMillis();
+        for (Session session : sessions.values()) {
+            if (!session.joined && now - session.createdAt > sessionTimeoutMillis && sessions.remove(session.uuid, session)) {
+                release(session);
+            }
+        }
+    }
+
+    /**
+     * Speichert alle offenen Write-Backs und wartet auf deren Abschluss (beim Deaktivieren des Plugins)
+     */
+    public void close() {
+        for (Session session : new ArrayList<>(sessions.values())) {
+            if (sessions.remove(session.uuid, session)) {
+                release(session);
+            }
+        }
+        List<CompletableFuture<?>> pending = new ArrayList<>(pendingWriteBacks.values());
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            logger.error("[EchoCloud] Prefetch: Write-Backs beim Beenden nicht abgeschlossen: " + e.getMessage());
+        }
+        synchronized (this) {
+            if (attachedStorage != null) {
+                attachedStorage.removeChangeListener(changeListener);
+                attachedStorage = null;
+            }
+        }
+    }
+
+    /**
+     * Aktueller CloudStorage; nach einem Neuaufbau wird der Change-Listener neu registriert
+     */
+    private synchronized CloudStorage storage() {
+        CloudStorage storage = communication.getCloudStorage();
+        if (storage != attachedStorage) {
+            if (attachedStorage != null) {
+                attachedStorage.removeChangeListener(changeListener);
+            }
+            storage.addChangeListener(changeListener);
+            attachedStorage = storage;
+        }
+        return storage;
+    }
+
+    /**
+     * Name aus der Session; ohne Session (nach Quit oder Ablauf) über Bukkit
+     */
+    private static String nameOf(UUID uuid, Session session) {
+        if (session != null) {
+            return session.name;
+        }
+        Player player = Bukkit.getPlayer(uuid);
+        return player != null ? player.getName() : Bukkit.getOfflinePlayer(uuid).getName();
+    }
+
+    private static String expand(String template, UUID uuid, String name) {
+        String key = template.replace("{uuid}", uuid.toString());
+        if (!key.contains("{name}")) {
+            return key;
+        }
+        // Sonst würden alle Spieler denselben Key "...{name}..." teilen
+        if (name == null) {
+            throw new IllegalArgumentException("Name für " + uuid + " unbekannt, Template nicht auflösbar: " + template);
+        }
+        return key.replace("{name}", name);
+    }
+
+    private static long remainingMillis(long deadlineNanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    private void recordLoginDelay(long nanos) {
+        loginDelayCount.increment();
+        loginDelayTotalNanos.add(nanos);
+        loginDelayMaxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public long getPrefetchedPlayers() {
+        return prefetchedPlayers.sum();
+    }
+
+    public long getPrefetchedKeys() {
+        return prefetchedKeys.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Anzahl beim Quit gespeicherter Write-Back-Werte
+     */
+    public long getWrittenBackCount() {
+        return writtenBack.sum();
+    }
+
+    /**
+     * Durchschnittliche zusätzliche Login-Verzögerung durch den Prefetch in ms
+     */
+    public double getAverageLoginDelayMillis() {
+        long count = loginDelayCount.sum();
+        return count == 0 ? 0.0 : loginDelayTotalNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    public double getMaxLoginDelayMillis() {
+        return loginDelayMaxNanos.get() / 1_000_000.0;
+    }
+
+    private static class Session {
+        final UUID uuid;
+        final String name;
+        final long createdAt = System.currentTimeMillis();
+        // Key -> Write-Back
+        final Map<String, Boolean> writeBack = new LinkedHashMap<>();
+        final Map<String, JsonElement> values = new ConcurrentHashMap<>();
+        final Set<String> dirty = ConcurrentHashMap.newKeySet();
+        // Key -> Anzahl fremder Änderungen seit dem Login; geänderte Keys überschreibt der Prefetch nicht mehr
+        final Map<String, Long> versions = new ConcurrentHashMap<>();
+        volatile boolean joined = false;
+
+        Session(UUID uuid, String name) {
+            this.uuid = uuid;
+            this.name = name;
+        }
+    }
+}
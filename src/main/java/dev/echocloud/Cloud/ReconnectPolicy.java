@@ -0,0 +1,175 @@
+package dev.echocloud.Cloud;
+
+import dev.echocloud.PluginConfig;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reconnect-Strategie für Redis und WebSocket: exponentielles Backoff mit Full Jitter
+ * (zufällige Wartezeit zwischen 0 und min(maxDelay, baseDelay * 2^(Versuch-1))), damit nach einem Failover
+ * nicht alle Server gleichzeitig neu verbinden. Aufgegeben wird erst, wenn sowohl die Versuche als auch das
+ * Zeitfenster seit Beginn des Ausfalls aufgebraucht sind, damit ein Failover von 30-60s überbrückt wird.
+ * Misst außerdem die Zeit bis zur Wiederverbindung.
+ */
+public class ReconnectPolicy {
+
+    private long baseDelayMillis = 1000;
+    private long maxDelayMillis = 30_000;
+    private int maxAttempts = 5;
+    // 0 = maxAttempts * maxDelay, entspricht dem Zeitfenster der festen Wartezeit vor dem Backoff
+    private long retryWindowMillis = 0;
+    private boolean unlimited = false;
+    private int healthCheckIntervalSeconds = 10;
+
+    // Beginn des aktuellen Ausfalls, 0 wenn verbunden
+    private final AtomicLong disconnectedAt = new AtomicLong();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final LongAdder reconnectTotalNanos = new LongAdder();
+    private final AtomicLong reconnectMaxNanos = new AtomicLong();
+    private volatile long lastReconnectNanos;
+
+    /**
+     * Liest die Einstellungen aus "communication" (reconnectInterval ist die maximale Wartezeit)
+     */
+    public static ReconnectPolicy fromConfig(PluginConfig config) {
+        ReconnectPolicy policy = new ReconnectPolicy();
+        int interval = config.getInt("communication.reconnectInterval", 30);
+        policy.setMaxDelayMillis(config.getInt("communication.backoff.maxDelaySeconds", interval) * 1000L);
+        policy.setBaseDelayMillis(config.getInt("communication.backoff.baseDelayMillis", 1000));
+        policy.setMaxAttempts(config.getInt("communication.maxReconnectAttempts", 5));
+        policy.setRetryWindowMillis(config.getInt("communication.backoff.maxRetrySeconds",
+                Math.max(0, policy.maxAttempts) * interval) * 1000L);
+        policy.setUnlimited(config.getBoolean("communication.backoff.unlimited", false));
+        policy.setHealthCheckIntervalSeconds(config.getInt("communication.backoff.healthCheckIntervalSeconds", 10));
+        return policy;
+    }
+
+    public void setBaseDelayMillis(long baseDelayMillis) {
+        this.baseDelayMillis = Math.max(1, baseDelayMillis);
+    }
+
+    public void setMaxDelayMillis(long maxDelayMillis) {
+        this.maxDelayMillis = Math.max(1, maxDelayMillis);
+    }
+
+    /**
+     * Maximale Versuche pro Ausfall; 0 oder weniger bedeutet unbegrenzt
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Mindestdauer eines Ausfalls, bevor aufgegeben wird; 0 oder weniger bedeutet maxAttempts * maxDelay
+     */
+    public void setRetryWindowMillis(long retryWindowMillis) {
+        this.retryWindowMillis = Math.max(0, retryWindowMillis);
+    }
+
+    public void setUnlimited(boolean unlimited) {
+        this.unlimited = unlimited;
+    }
+
+    /**
+     * Abstand der PING-Health-Checks auf der bestehenden Verbindung; 0 deaktiviert sie
+     */
+    public void setHealthCheckIntervalSeconds(int healthCheckIntervalSeconds) {
+        this.healthCheckIntervalSeconds = Math.max(0, healthCheckIntervalSeconds);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getRetryWindowMillis() {
+        return retryWindowMillis > 0 ? retryWindowMillis : maxAttempts * maxDelayMillis;
+    }
+
+    public boolean isUnlimited() {
+        return unlimited || maxAttempts <= 0;
+    }
+
+    public int getHealthCheckIntervalSeconds() {
+        return healthCheckIntervalSeconds;
+    }
+
+    /**
+     * Prüft, ob nach {@code attempt} bisherigen Versuchen noch ein weiterer erlaubt ist.
+     * Auch nach maxAttempts wird weiter versucht, solange der Ausfall kürzer als das Zeitfenster ist.
+     */
+    public boolean canRetry(int attempt) {
+        if (isUnlimited() || attempt < maxAttempts) {
+            return true;
+        }
+        long since = disconnectedAt.get();
+        return since != 0 && System.nanoTime() - since < TimeUnit.MILLISECONDS.toNanos(getRetryWindowMillis());
+    }
+
+    /**
+     * Wartezeit vor dem Versuch {@code attempt} (ab 1)
+     */
+    public long nextDelayMillis(int attempt) {
+        attempts.increment();
+        // Shift begrenzen, damit baseDelay * 2^n nicht überläuft
+        int exponent = Math.min(Math.max(0, attempt - 1), 30);
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << exponent);
+        if (ceiling <= 0) {
+            ceiling = maxDelayMillis;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Beginn eines Ausfalls (weitere Aufrufe während desselben Ausfalls werden ignoriert)
+     */
+    public void markDisconnected() {
+        disconnectedAt.compareAndSet(0, System.nanoTime());
+    }
+
+    /**
+     * Verbindung steht wieder; misst die Zeit seit Beginn des Ausfalls
+     */
+    public void markConnected() {
+        long since = disconnectedAt.getAndSet(0);
+        if (since == 0) {
+            return;
+        }
+        long duration = System.nanoTime() - since;
+        lastReconnectNanos = duration;
+        reconnects.increment();
+        reconnectTotalNanos.add(duration);
+        reconnectMaxNanos.accumulateAndGet(duration, Math::max);
+    }
+
+    public boolean isDisconnected() {
+        return disconnectedAt.get() != 0;
+    }
+
+    public long getAttemptCount() {
+        return attempts.sum();
+    }
+
+    public long getReconnectCount() {
+        return reconnects.sum();
+    }
+
+    /**
+     * Dauer des letzten Ausfalls bis zur Wiederverbindung in Millisekunden
+     */
+    public double getLastReconnectMillis() {
+        return lastReconnectNanos / 1_000_000.0;
+    }
+
+    public double getAverageReconnectMillis() {
+        long count = reconnects.sum();
+        return count == 0 ? 0.0 : reconnectTotalNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    public double getMaxReconnectMillis() {
+        return reconnectMaxNanos.get() / 1_000_000.0;
+    }
+}
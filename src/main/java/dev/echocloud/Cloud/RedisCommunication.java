@@ -2,26 +2,77 @@ package dev.echocloud.Cloud;
 
 import dev.echocloud.Events.Manager.EchoCloudEventManager;
 import org.bukkit.Server;
+import redis.clients.jedis.ConnectionPoolConfig;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
 import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.JedisShardedPubSub;
+import redis.clients.jedis.UnifiedJedis;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 public class RedisCommunication extends CloudCommunication {
-    private Jedis publishJedis;
-    private Jedis subscribeJedis;
-    private Thread subscribeThread;
-    private int reconnectAttempts = 0;
+    // Standalone, Sentinel oder Cluster je nach redis.mode; Pub/Sub läuft außerhalb des Clusters über eine eigene Verbindung
+    private volatile UnifiedJedis publishJedis;
+    // Ein Writer-Thread sendet alle ausgehenden Nachrichten gebündelt
+    private RedisPublishQueue publishQueue;
+    private final List<Thread> subscribeThreads = new CopyOnWriteArrayList<>();
+    // Subscriber für Pub/Sub ohne Sharding, wird vom Health-Check angepingt
+    private volatile JedisPubSub subscriber;
+    // Subscriber für Sharded Pub/Sub (ein Kanal pro Subscriber)
+    private final List<JedisShardedPubSub> shardedSubscribers = new CopyOnWriteArrayList<>();
+    // Eigene Verbindung des Subscribers außerhalb des Pools, damit sie beim Reconnect sicher geschlossen werden kann
+    private volatile Jedis subscriberConnection;
+    private volatile HostAndPort address;
+    private volatile JedisClientConfig clientConfig;
+    // Wird beim Abmelden erhöht; Fehler älterer Subscribe-Threads lösen dann keinen Reconnect mehr aus
+    private volatile int subscriptionEpoch;
+    private volatile long lastPong;
+    private ScheduledFuture<?> healthTask;
     private EchoCloudEventManager eventManager;
 
     private String password = "";
     private int database = 0;
     private String channel = "echocloud:all";
 
+    private int publishQueueCapacity = 10000;
+    private int publishMaxBatch = 128;
+    private long publishLingerMicros = 200;
+    private String publishOverflow = "drop-oldest";
+    private static final long SUBSCRIBE_JOIN_TIMEOUT_MILLIS = 3000;
+    private long publishBlockTimeoutMillis = 100;
+
     public RedisCommunication(String baseUrl, String serverId, String authToken, CloudLogger logger, Server server) {
         super(baseUrl, serverId, authToken, logger, server);
-        this.eventManager = new EchoCloudEventManager("redis", serverId, server);
+        this.eventManager = new EchoCloudEventManager("redis", serverId, server, logger);
+
+        inboundRouter.register("heartbeat_request", message -> {
+            HeartbeatRequest heartbeatRequest = message.getBody(HeartbeatRequest.class);
+            // Nur auf Requests für diesen Server oder "all" antworten
+            if (serverId.equals(heartbeatRequest.server_id) || "all".equals(heartbeatRequest.server_id)) {
+
+                // HEARTBEAT REQUEST EVENT FEUERN
+                eventManager.fireHeartbeatRequest(heartbeatRequest.server_id, message.getRaw());
+
+                sendHeartbeatResponse(heartbeatRequest);
+            }
+        });
+        // Heartbeats und Shutdown-Meldungen der anderen Server auf dem Broadcast-Kanal
+        inboundRouter.ignore("heartbeat_response");
+        inboundRouter.ignore("shutdown_notification");
+        // MESSAGE RECEIVED EVENT FEUERN für alle übrigen Nachrichten
+        inboundRouter.setFallback(message -> eventManager.fireLazyMessageReceived(
+                message::getRaw,
+                message.getType() != null ? message.getType() : "unknown",
+                message.getSenderId() != null ? message.getSenderId() : "unknown"
+        ));
     }
 
     public void setPassword(String password) {
@@ -36,108 +87,336 @@ public class RedisCommunication extends CloudCommunication {
         this.channel = channel;
     }
 
+    public void setPublishQueueCapacity(int capacity) {
+        this.publishQueueCapacity = capacity;
+    }
+
+    public void setPublishMaxBatch(int maxBatch) {
+        this.publishMaxBatch = maxBatch;
+    }
+
+    public void setPublishLingerMicros(long lingerMicros) {
+        this.publishLingerMicros = lingerMicros;
+    }
+
+    /**
+     * Verhalten bei voller Queue: drop-oldest (Standard), drop-newest oder block (bis blockTimeoutMillis warten,
+     * nie auf dem Server-Thread)
+     */
+    public void setPublishOverflow(String overflow, long blockTimeoutMillis) {
+        this.publishOverflow = overflow;
+        this.publishBlockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Aktuelle Redis-Verbindung (null vor dem ersten Verbindungsaufbau)
+     */
+    protected UnifiedJedis getRedis() {
+        return publishJedis;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public int getDatabase() {
+        return database;
+    }
+
     @Override
     public void connect() {
         try {
-            String[] parts = baseUrl.split(":");
-            String host = parts[0];
-            int port = parts.length > 1 ? Integer.parseInt(parts[1]) : 6379;
-
-            publishJedis = new Jedis(host, port);
-            subscribeJedis = new Jedis(host, port);
+            RedisTopology topology = storageSettings.getRedisTopology();
+            HostAndPort address = RedisTopology.parseNode(baseUrl, 6379);
 
+            DefaultJedisClientConfig.Builder clientConfig = DefaultJedisClientConfig.builder()
+                    .timeoutMillis(storageSettings.getRedisTimeoutMillis());
             if (password != null && !password.isEmpty()) {
-                publishJedis.auth(password);
-                subscribeJedis.auth(password);
+                clientConfig.password(password);
             }
-
-            // Datenbank auswählen
+            // Datenbank auswählen (im Cluster gibt es nur Datenbank 0)
             if (database != 0) {
-                publishJedis.select(database);
-                subscribeJedis.select(database);
+                if (topology.isCluster()) {
+                    logger.warn("[EchoCloud][Redis] Redis Cluster unterstützt nur Datenbank 0, redis.database ({}) wird ignoriert", database);
+                } else {
+                    clientConfig.database(database);
+                }
+            }
+
+            UnifiedJedis previous = publishJedis;
+            if (previous != null) {
+                // Erst abmelden, damit die Subscriptions ihre geliehenen Verbindungen an den Pool zurückgeben
+                stopSubscriptions();
+                closeQuietly(previous);
+            }
+            this.address = address;
+            this.clientConfig = clientConfig.build();
+            publishJedis = topology.createClient(address, this.clientConfig, new ConnectionPoolConfig());
+            publishJedis.ping();
+            if (publishQueue == null) {
+                publishQueue = new RedisPublishQueue(() -> publishJedis, topology, logger, () -> {
+                    if (connected) {
+                        scheduleReconnect();
+                    }
+                }, publishQueueCapacity, publishMaxBatch, publishLingerMicros, publishOverflow, publishBlockTimeoutMillis,
+                        getStreamMaxLength());
             }
 
             this.connected = true;
             boolean isReconnect = reconnectAttempts > 0;
-            reconnectAttempts = 0;
+            onConnected();
+            startHealthChecks();
 
-            logger.info("[EchoCloud] Mit Redis verbunden: {}:{} (DB: {})", host, port, database);
+            String target = topology.describe(address);
+            logger.info("[EchoCloud] Mit Redis verbunden: {} (DB: {})", target, database);
 
             // CONNECTION ESTABLISHED EVENT FEUERN
-            eventManager.fireConnectionEstablished(host + ":" + port, isReconnect);
+            eventManager.fireConnectionEstablished(target, isReconnect);
 
             // Subscribe in eigenem Thread
-            subscribeThread = new Thread(() -> {
-                try {
-                    subscribeJedis.subscribe(new JedisPubSub() {
-                        @Override
-                        public void onMessage(String channel, String message) {
-                            // REDIS CHANNEL EVENT FEUERN - Message Received
-                            eventManager.fireRedisChannelEvent(channel, "message_received", message);
-                            handleMessage(message);
-                        }
+            startSubscriptions(topology);
 
-                        @Override
-                        public void onSubscribe(String channel, int subscribedChannels) {
-                            logger.info("[EchoCloud][Redis] Subscribed zu {}", channel);
+        } catch (Exception e) {
+            connected = false;
+            logger.error("[EchoCloud] Redis Verbindung fehlgeschlagen: " + e.getMessage());
 
-                            // REDIS CHANNEL EVENT FEUERN - Subscribe
-                            eventManager.fireRedisChannelEvent(channel, "subscribe", null);
-                        }
+            // CONNECTION LOST EVENT FEUERN
+            eventManager.fireConnectionLost("Verbindung fehlgeschlagen", e, reconnectAttempts);
 
-                        @Override
-                        public void onUnsubscribe(String channel, int subscribedChannels) {
-                            // REDIS CHANNEL EVENT FEUERN - Unsubscribe
-                            eventManager.fireRedisChannelEvent(channel, "unsubscribe", null);
+            scheduleReconnect();
+        }
+    }
+
+    /**
+     * Abonniert den eigenen Kanal und den Broadcast-Kanal
+     */
+    protected void startSubscriptions(RedisTopology topology) {
+        subscriber = null;
+        shardedSubscribers.clear();
+        if (topology.isShardedPubSub()) {
+            // Sharded Pub/Sub: die Kanäle liegen in unterschiedlichen Slots, daher ein Thread pro Kanal
+            for (String shardedChannel : List.of("echocloud:" + serverId, channel)) {
+                JedisShardedPubSub pubSub = createShardedSubscriber();
+                shardedSubscribers.add(pubSub);
+                startSubscribeThread(() -> publishJedis.ssubscribe(pubSub, shardedChannel));
+            }
+        } else {
+            JedisPubSub pubSub = createSubscriber();
+            subscriber = pubSub;
+            lastPong = System.nanoTime();
+            if (topology.isCluster()) {
+                // Der Cluster-Client wählt den Knoten selbst, hier bleibt es bei der geliehenen Verbindung
+                startSubscribeThread(() -> publishJedis.subscribe(pubSub, "echocloud:" + serverId, channel));
+                return;
+            }
+            int epoch = subscriptionEpoch;
+            startSubscribeThread(() -> {
+                try (Jedis connection = topology.createDedicatedConnection(address, clientConfig)) {
+                    subscriberConnection = connection;
+                    try {
+                        if (epoch == subscriptionEpoch) {
+                            connection.subscribe(pubSub, "echocloud:" + serverId, channel);
                         }
-                    }, "echocloud:" + serverId, channel);
+                    } finally {
+                        if (subscriberConnection == connection) {
+                            subscriberConnection = null;
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Meldet alle Subscriptions ab, schließt die Subscriber-Verbindung und wartet kurz auf das Ende der Threads,
+     * damit nach einem Reconnect keine alten Subscriber mehr Nachrichten zustellen
+     */
+    protected void stopSubscriptions() {
+        subscriptionEpoch++;
+        JedisPubSub current = subscriber;
+        subscriber = null;
+        if (current != null && current.isSubscribed()) {
+            try {
+                current.unsubscribe();
+            } catch (Exception e) {
+                logger.debug("[EchoCloud][Redis] Fehler beim Abmelden: " + e.getMessage());
+            }
+        }
+        for (JedisShardedPubSub sharded : shardedSubscribers) {
+            if (sharded.isSubscribed()) {
+                try {
+                    sharded.sunsubscribe();
                 } catch (Exception e) {
-                    if (connected) {
-                        logger.error("[EchoCloud][Redis] Subscribe Fehler: " + e.getMessage());
+                    logger.debug("[EchoCloud][Redis] Fehler beim Abmelden: " + e.getMessage());
+                }
+            }
+        }
+        shardedSubscribers.clear();
+
+        // Bei halboffenen Verbindungen kommt das UNSUBSCRIBE nie an, erst das Schließen beendet die Subscription
+        Jedis connection = subscriberConnection;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (Exception e) {
+                logger.debug("[EchoCloud][Redis] Fehler beim Schließen der Subscriber-Verbindung: " + e.getMessage());
+            }
+        }
 
-                        // CONNECTION LOST EVENT FEUERN
-                        eventManager.fireConnectionLost("Subscribe Fehler", e, reconnectAttempts);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SUBSCRIBE_JOIN_TIMEOUT_MILLIS);
+        for (Thread subscribeThread : subscribeThreads) {
+            if (subscribeThread == Thread.currentThread() || !subscribeThread.isAlive()) {
+                continue;
+            }
+            subscribeThread.interrupt();
+            try {
+                subscribeThread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (subscribeThread.isAlive()) {
+                logger.warn("[EchoCloud][Redis] Subscribe-Thread {} hat sich nicht rechtzeitig beendet", subscribeThread.getName());
+            }
+        }
+        subscribeThreads.clear();
+    }
 
-                        scheduleReconnect();
-                    }
+    /**
+     * Maximale Stream-Länge für XADD; 0 bedeutet Pub/Sub per PUBLISH
+     */
+    protected long getStreamMaxLength() {
+        return 0;
+    }
+
+    protected void startSubscribeThread(Runnable subscription) {
+        int epoch = subscriptionEpoch;
+        Thread thread = new Thread(() -> {
+            try {
+                subscription.run();
+            } catch (Exception e) {
+                if (connected && epoch == subscriptionEpoch) {
+                    logger.error("[EchoCloud][Redis] Subscribe Fehler: " + e.getMessage());
+
+                    // CONNECTION LOST EVENT FEUERN
+                    eventManager.fireConnectionLost("Subscribe Fehler", e, reconnectAttempts);
+
+                    scheduleReconnect();
                 }
-            });
-            subscribeThread.setDaemon(true);
-            subscribeThread.start();
+            }
+        }, "EchoCloud-Redis-Subscribe");
+        thread.setDaemon(true);
+        thread.start();
+        subscribeThreads.add(thread);
+    }
 
-        } catch (Exception e) {
-            connected = false;
-            logger.error("[EchoCloud] Redis Verbindung fehlgeschlagen: " + e.getMessage());
+    private JedisPubSub createSubscriber() {
+        return new JedisPubSub() {
+            @Override
+            public void onMessage(String channel, String raw) {
+                String message = decodeInbound(raw);
+                if (message == null) {
+                    return;
+                }
 
-            // CONNECTION LOST EVENT FEUERN
-            eventManager.fireConnectionLost("Verbindung fehlgeschlagen", e, reconnectAttempts);
+                // REDIS CHANNEL EVENT FEUERN - Message Received
+                eventManager.fireRedisChannelEvent(channel, "message_received", message);
+                inboundRouter.route(message, channel);
+            }
 
-            scheduleReconnect();
-        }
+            @Override
+            public void onSubscribe(String channel, int subscribedChannels) {
+                logger.info("[EchoCloud][Redis] Subscribed zu {}", channel);
+
+                // REDIS CHANNEL EVENT FEUERN - Subscribe
+                eventManager.fireRedisChannelEvent(channel, "subscribe", null);
+            }
+
+            @Override
+            public void onPong(String pattern) {
+                lastPong = System.nanoTime();
+            }
+
+            @Override
+            public void onUnsubscribe(String channel, int subscribedChannels) {
+                // REDIS CHANNEL EVENT FEUERN - Unsubscribe
+                eventManager.fireRedisChannelEvent(channel, "unsubscribe", null);
+            }
+        };
     }
 
-    private void handleMessage(String message) {
-        try {
-            // Prüfe auf Heartbeat-Request
-            HeartbeatRequest heartbeatRequest = gson.fromJson(message, HeartbeatRequest.class);
-            if ("heartbeat_request".equals(heartbeatRequest.type)) {
-                // Nur auf Requests für diesen Server oder "all" antworten
-                if (serverId.equals(heartbeatRequest.server_id) || "all".equals(heartbeatRequest.server_id)) {
-
-                    // HEARTBEAT REQUEST EVENT FEUERN
-                    eventManager.fireHeartbeatRequest(
-                            heartbeatRequest.server_id,
-                            message
-                    );
-
-                    sendHeartbeatResponse(heartbeatRequest);
+    private JedisShardedPubSub createShardedSubscriber() {
+        return new JedisShardedPubSub() {
+            @Override
+            public void onSMessage(String channel, String raw) {
+                String message = decodeInbound(raw);
+                if (message == null) {
+                    return;
                 }
-                return;
+
+                // REDIS CHANNEL EVENT FEUERN - Message Received
+                eventManager.fireRedisChannelEvent(channel, "message_received", message);
+                inboundRouter.route(message, channel);
+            }
+
+            @Override
+            public void onSSubscribe(String channel, int subscribedChannels) {
+                logger.info("[EchoCloud][Redis] Sharded subscribed zu {}", channel);
+
+                // REDIS CHANNEL EVENT FEUERN - Subscribe
+                eventManager.fireRedisChannelEvent(channel, "subscribe", null);
+            }
+
+            @Override
+            public void onSUnsubscribe(String channel, int subscribedChannels) {
+                // REDIS CHANNEL EVENT FEUERN - Unsubscribe
+                eventManager.fireRedisChannelEvent(channel, "unsubscribe", null);
             }
+        };
+    }
+
+    /**
+     * Reiht eine Nachricht in die Publish-Queue ein (im Cluster mit Sharded Pub/Sub als SPUBLISH).
+     * Das Future liefert true, sobald Redis sie angenommen hat.
+     */
+    private CompletableFuture<Boolean> publish(String channel, String message) {
+        RedisPublishQueue queue = publishQueue;
+        if (queue == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return queue.publish(channel, payloadCodec.encode(message)).thenApply(published -> {
+            if (published) {
+                // REDIS CHANNEL EVENT FEUERN - Publish
+                eventManager.fireRedisChannelEvent(channel, "publish", message);
+            }
+            return published;
+        });
+    }
+
+    @Override
+    protected CompletableFuture<Boolean> sendRaw(String targetServerId, String json) {
+        if (!connected) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return publish("all".equals(targetServerId) ? channel : "echocloud:" + targetServerId, json);
+    }
+
+    /**
+     * Gibt die Publish-Queue zurück (für Metriken), null vor dem ersten Verbindungsaufbau
+     */
+    public RedisPublishQueue getPublishQueue() {
+        return publishQueue;
+    }
+
+    private void closeQuietly(UnifiedJedis client) {
+        try {
+            client.close();
         } catch (Exception e) {
-            // Kein Heartbeat-Request, normale Nachricht
-            // MESSAGE RECEIVED EVENT FEUERN
-            eventManager.fireMessageReceived(message, "unknown", "unknown");
+            logger.debug("[EchoCloud][Redis] Fehler beim Schließen der alten Verbindung: " + e.getMessage());
         }
     }
 
@@ -158,16 +437,13 @@ public class RedisCommunication extends CloudCommunication {
             HeartbeatResponse response = createHeartbeatResponse(request);
             String json = gson.toJson(response);
 
-            publishJedis.publish(channel, json);
-
-            // REDIS CHANNEL EVENT FEUERN - Publish
-            eventManager.fireRedisChannelEvent(channel, "publish", json);
-
-            // HEARTBEAT RESPONSE EVENT FEUERN - Success
-            eventManager.fireHeartbeatResponse(
-                    true,
-                    json
-            );
+            publish(channel, json).thenAccept(published -> {
+                // HEARTBEAT RESPONSE EVENT FEUERN
+                eventManager.fireHeartbeatResponse(
+                        published,
+                        published ? json : "Publish fehlgeschlagen"
+                );
+            });
 
         } catch (Exception e) {
             logger.error("[EchoCloud][Redis] Fehler beim Senden der Heartbeat-Response: " + e.getMessage());
@@ -177,8 +453,6 @@ public class RedisCommunication extends CloudCommunication {
                     false,
                     e.getMessage()
             );
-
-            scheduleReconnect();
         }
     }
 
@@ -196,12 +470,12 @@ public class RedisCommunication extends CloudCommunication {
             HeartbeatResponse shutdownHeartbeat = createShutdownHeartbeat();
             String json = gson.toJson(shutdownHeartbeat);
 
-            publishJedis.publish(channel, json);
+            // Auf die Bestätigung warten, damit die Nachricht vor dem Disconnect rausgeht
+            if (!publish(channel, json).get(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Publish fehlgeschlagen");
+            }
             logger.info("[EchoCloud][Redis] Shutdown-Heartbeat gesendet - Server ist jetzt OFFLINE");
 
-            // REDIS CHANNEL EVENT FEUERN - Publish
-            eventManager.fireRedisChannelEvent(channel, "publish", json);
-
             // SHUTDOWN EVENT FEUERN - Success
             eventManager.fireShutdown("Server shutdown", true);
 
@@ -214,30 +488,64 @@ public class RedisCommunication extends CloudCommunication {
     }
 
     private void scheduleReconnect() {
-        if (reconnectAttempts >= maxReconnectAttempts) {
-            logger.error("[EchoCloud][Redis] Maximale Reconnect-Versuche erreicht ({}). Gebe auf.", maxReconnectAttempts);
+        connected = false;
+        long delay = planReconnect("[EchoCloud][Redis]");
+        if (delay < 0) {
             return;
         }
 
-        connected = false;
-        reconnectAttempts++;
-        logger.info("[EchoCloud][Redis] Versuche Reconnect in {}s... (Versuch {}/{})",
-                reconnectInterval, reconnectAttempts, maxReconnectAttempts);
-
         // RECONNECT ATTEMPT EVENT FEUERN und prüfen ob erlaubt
-        boolean allowed = eventManager.fireReconnectAttempt(reconnectAttempts, maxReconnectAttempts, reconnectInterval);
+        int delaySeconds = (int) Math.ceil(delay / 1000.0);
+        boolean allowed = eventManager.fireReconnectAttempt(reconnectAttempts, reconnectPolicy.getMaxAttempts(), delaySeconds);
 
         if (allowed) {
-            scheduler.schedule(() -> {
-                if (!connected) {
-                    connect();
-                }
-            }, reconnectInterval, TimeUnit.SECONDS);
+            reconnectAfter(delay);
         } else {
+            reconnectScheduled.set(false);
             logger.info("[EchoCloud][Redis] Reconnect wurde durch Event-Handler verhindert");
         }
     }
 
+    private synchronized void startHealthChecks() {
+        int interval = reconnectPolicy.getHealthCheckIntervalSeconds();
+        if (healthTask == null && interval > 0) {
+            healthTask = scheduler.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Aktiver Health-Check: PING über den Pool und über die Subscriber-Verbindung,
+     * damit halboffene Verbindungen (z.B. nach einem Failover) früh erkannt werden
+     */
+    private void checkHealth() {
+        UnifiedJedis redis = publishJedis;
+        if (!connected || redis == null) {
+            return;
+        }
+        try {
+            redis.ping();
+            JedisPubSub current = subscriber;
+            if (current != null && current.isSubscribed()) {
+                long intervalNanos = TimeUnit.SECONDS.toNanos(reconnectPolicy.getHealthCheckIntervalSeconds());
+                if (System.nanoTime() - lastPong > 3 * intervalNanos) {
+                    throw new IllegalStateException("Keine PONG-Antwort auf der Subscriber-Verbindung");
+                }
+                current.ping();
+            }
+        } catch (Exception e) {
+            // Verbindung wurde inzwischen ersetzt oder geschlossen
+            if (!connected || redis != publishJedis) {
+                return;
+            }
+            logger.warn("[EchoCloud][Redis] Health-Check fehlgeschlagen: {}", e.getMessage());
+
+            // CONNECTION LOST EVENT FEUERN
+            eventManager.fireConnectionLost("Health-Check fehlgeschlagen", e, reconnectAttempts);
+
+            scheduleReconnect();
+        }
+    }
+
     @Override
     public void sendLogEvent(String playerName, String uuid, String action, boolean forced) {
         if (!connected || publishJedis == null) {
@@ -250,43 +558,34 @@ public class RedisCommunication extends CloudCommunication {
 
         LogRequest log = new LogRequest(playerName, uuid, action, forced, Instant.now().toString());
         String json = gson.toJson(log);
-        try {
-            publishJedis.publish("echocloud:" + serverId, json);
-
-            // REDIS CHANNEL EVENT FEUERN - Publish
-            eventManager.fireRedisChannelEvent("echocloud:" + serverId, "publish", json);
-
-            // LOG EVENT FEUERN - Success
-            eventManager.fireLogEvent(playerName, uuid, action, forced, true);
-
-        } catch (Exception e) {
-            logger.error("[EchoCloud][Redis] Fehler beim Publish: " + e.getMessage());
-
-            // LOG EVENT FEUERN - Failed
-            eventManager.fireLogEvent(playerName, uuid, action, forced, false);
-
-            scheduleReconnect();
-        }
+        publish("echocloud:" + serverId, json).thenAccept(published -> {
+            // LOG EVENT FEUERN
+            eventManager.fireLogEvent(playerName, uuid, action, forced, published);
+        });
     }
 
     @Override
     public void disconnect() {
         connected = false;
-        cloudStorage.close();
+        closeCloudStorage();
+        synchronized (this) {
+            if (healthTask != null) {
+                healthTask.cancel(false);
+                healthTask = null;
+            }
+        }
 
         eventManager.fireShutdown("Cloud Disconnect", true);
 
-        if (subscribeThread != null && subscribeThread.isAlive()) {
-            subscribeThread.interrupt();
-        }
+        stopSubscriptions();
 
         try {
-            if (subscribeJedis != null) {
-                subscribeJedis.disconnect();
-                subscribeJedis.close();
+            // Noch eingereihte Nachrichten senden, bevor die Verbindung geschlossen wird
+            if (publishQueue != null) {
+                publishQueue.close(1000);
+                publishQueue = null;
             }
             if (publishJedis != null) {
-                publishJedis.disconnect();
                 publishJedis.close();
             }
         } catch (Exception e) {
@@ -295,43 +594,40 @@ public class RedisCommunication extends CloudCommunication {
             // CONNECTION LOST EVENT FEUERN
             eventManager.fireConnectionLost("Disconnect Fehler", e, 0);
         }
+
+        // Restliche Events zustellen, danach werden Events direkt im aufrufenden Thread gefeuert
+        eventManager.close(1000);
     }
 
-    // Zusätzliche Methode für Server-zu-Server Kommunikation
-    public void sendServerMessage(String targetServerId, String messageType, String payload) {
+    // Zusätzliche Methode für Server-zu-Server Kommunikation (nicht blockierend)
+    public CompletableFuture<Boolean> sendServerMessage(String targetServerId, String messageType, String payload) {
         if (!connected || publishJedis == null) {
             logger.warn("[EchoCloud][Redis] Kann Server-Nachricht nicht senden - nicht verbunden");
 
             eventManager.fireServerCommunication(targetServerId, messageType, payload, false);
-            return;
+            return CompletableFuture.completedFuture(false);
         }
 
-        try {
-            ServerMessage serverMessage = new ServerMessage(serverId, targetServerId, messageType, payload, Instant.now().toString());
-            String json = gson.toJson(serverMessage);
+        ServerMessage serverMessage = new ServerMessage(serverId, targetServerId, messageType, payload, Instant.now().toString());
+        String json = gson.toJson(serverMessage);
 
-            String channel = "echocloud:" + (targetServerId.equals("all") ? "all" : targetServerId);
-            publishJedis.publish(channel, json);
-
-            eventManager.fireRedisChannelEvent(channel, "publish", json);
-            eventManager.fireServerCommunication(targetServerId, messageType, payload, true);
-
-        } catch (Exception e) {
-            logger.error("[EchoCloud][Redis] Fehler beim Senden der Server-Nachricht: " + e.getMessage());
+        String channel = "echocloud:" + (targetServerId.equals("all") ? "all" : targetServerId);
+        return publish(channel, json).thenApply(published -> {
+            eventManager.fireServerCommunication(targetServerId, messageType, payload, published);
+            return published;
+        });
+    }
 
-            eventManager.fireServerCommunication(targetServerId, messageType, payload, false);
-            scheduleReconnect();
-        }
+    @Override
+    public void setMainThreadDispatcher(MainThreadDispatcher dispatcher) {
+        super.setMainThreadDispatcher(dispatcher);
+        eventManager.setMainThreadDispatcher(dispatcher);
     }
 
     public EchoCloudEventManager getEventManager() {
         return eventManager;
     }
 
-    public CloudStorage getCloudStorage() {
-        return cloudStorage;
-    }
-
     private static class ServerMessage {
         public final String sender_id;
         public final String target_id;
@@ -0,0 +1,316 @@
+package dev.echocloud.Cloud;
+
+import org.bukkit.Bukkit;
+import redis.clients.jedis.AbstractPipeline;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.params.XAddParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Ausgehende Redis-Nachrichten: Aufrufer reihen nur ein (nicht blockierend, mit Future),
+ * ein einzelner Writer-Thread sendet sie gebündelt als Pipeline aus PUBLISH- bzw. SPUBLISH-Befehlen.
+ * Ein Batch wird gesendet, sobald er voll ist oder die Linger-Zeit abgelaufen ist.
+ * Im Stream-Modus wird jede Nachricht per XADD (mit MAXLEN-Trimming) an den gleichnamigen Stream angehängt.
+ */
+public class RedisPublishQueue {
+
+    public enum OverflowPolicy {
+        BLOCK, DROP_NEWEST, DROP_OLDEST
+    }
+
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final Supplier<UnifiedJedis> client;
+    private final boolean sharded;
+    // Ohne Sharding hat PUBLISH im Cluster keinen Key, eine Cluster-Pipeline kann ihn nicht zuordnen
+    private final boolean pipelined;
+    // > 0: XADD statt PUBLISH, Streams werden ungefähr auf diese Länge gekürzt
+    private final long streamMaxLength;
+    private final CloudLogger logger;
+    private final Runnable onFailure;
+    private final BlockingQueue<Message> queue;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder droppedSinceWarning = new LongAdder();
+    private final AtomicLong lastDropWarning = new AtomicLong();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final LongAdder latencyTotalNanos = new LongAdder();
+    private final AtomicLong latencyMaxNanos = new AtomicLong();
+
+    public RedisPublishQueue(Supplier<UnifiedJedis> client, RedisTopology topology, CloudLogger logger, Runnable onFailure,
+                             int capacity, int maxBatch, long lingerMicros, String overflowPolicy, long blockTimeoutMillis) {
+        this(client, topology, logger, onFailure, capacity, maxBatch, lingerMicros, overflowPolicy, blockTimeoutMillis, 0);
+    }
+
+    public RedisPublishQueue(Supplier<UnifiedJedis> client, RedisTopology topology, CloudLogger logger, Runnable onFailure,
+                             int capacity, int maxBatch, long lingerMicros, String overflowPolicy, long blockTimeoutMillis,
+                             long streamMaxLength) {
+        this.client = client;
+        this.sharded = topology.isShardedPubSub();
+        this.streamMaxLength = Math.max(0, streamMaxLength);
+        // XADD hat einen Key und kann daher auch im Cluster gepipelined werden
+        this.pipelined = !topology.isCluster() || sharded || this.streamMaxLength > 0;
+        this.logger = logger;
+        this.onFailure = onFailure;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.lingerNanos = Math.max(0, lingerMicros) * 1000L;
+        this.overflowPolicy = parsePolicy(overflowPolicy);
+        this.blockTimeoutMillis = Math.max(0, blockTimeoutMillis);
+
+        this.writer = new Thread(this::run, "EchoCloud-Redis-Publisher");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    private static OverflowPolicy parsePolicy(String policy) {
+        return switch (policy == null ? "" : policy.toLowerCase()) {
+            case "block" -> OverflowPolicy.BLOCK;
+            case "drop-newest" -> OverflowPolicy.DROP_NEWEST;
+            default -> OverflowPolicy.DROP_OLDEST;
+        };
+    }
+
+    private static boolean isPrimaryThread() {
+        return Bukkit.getServer() != null && Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * Reiht eine Nachricht ein. Das Future liefert true, sobald Redis sie angenommen hat,
+     * false bei Überlauf, Fehlern oder geschlossener Queue.
+     */
+    public CompletableFuture<Boolean> publish(String channel, String message) {
+        Message entry = new Message(channel, message);
+        if (!running) {
+            entry.future.complete(false);
+            return entry.future;
+        }
+
+        boolean accepted = queue.offer(entry);
+        if (!accepted) {
+            // Der Server-Thread wartet nie auf Platz in der Queue, auch nicht mit "block"
+            OverflowPolicy policy = overflowPolicy == OverflowPolicy.BLOCK && isPrimaryThread()
+                    ? OverflowPolicy.DROP_OLDEST
+                    : overflowPolicy;
+            switch (policy) {
+                case BLOCK -> {
+                    try {
+                        accepted = queue.offer(entry, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                case DROP_OLDEST -> {
+                    while (!accepted) {
+                        Message oldest = queue.poll();
+                        if (oldest != null) {
+                            dropped.increment();
+                            oldest.future.complete(false);
+                            warnDropped(oldest.channel);
+                        }
+                        accepted = queue.offer(entry);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        if (!accepted) {
+            dropped.increment();
+            entry.future.complete(false);
+            warnDropped(channel);
+            return entry.future;
+        }
+        enqueued.increment();
+        return entry.future;
+    }
+
+    /**
+     * Warnt höchstens alle 10 Sekunden über verworfene Nachrichten, damit eine volle Queue nicht das Log flutet
+     */
+    private void warnDropped(String channel) {
+        droppedSinceWarning.increment();
+        long now = System.nanoTime();
+        long last = lastDropWarning.get();
+        if (now - last >= DROP_WARNING_INTERVAL_NANOS && lastDropWarning.compareAndSet(last, now)) {
+            logger.warn("[EchoCloud][Redis] Publish-Queue voll ({}), {} Nachrichten verworfen (zuletzt an {})",
+                    queue.size(), droppedSinceWarning.sumThenReset(), channel);
+        }
+    }
+
+    private void run() {
+        List<Message> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Message first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - batch.size());
+                if (batch.size() < maxBatch && lingerNanos > 0 && running) {
+                    // Kurz auf weitere Nachrichten warten, damit sich ein Roundtrip lohnt
+                    LockSupport.parkNanos(lingerNanos);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                send(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<Message> batch) {
+        try {
+            UnifiedJedis redis = client.get();
+            if (redis == null) {
+                throw new IllegalStateException("Keine Redis-Verbindung");
+            }
+            if (pipelined) {
+                try (AbstractPipeline pipeline = redis.pipelined()) {
+                    for (Message message : batch) {
+                        if (streamMaxLength > 0) {
+                            pipeline.xadd(message.channel, streamParams(), Map.of(RedisStreamsCommunication.DATA_FIELD, message.message));
+                        } else if (sharded) {
+                            pipeline.spublish(message.channel, message.message);
+                        } else {
+                            pipeline.publish(message.channel, message.message);
+                        }
+                    }
+                    pipeline.sync();
+                }
+            } else {
+                for (Message message : batch) {
+                    redis.publish(message.channel, message.message);
+                }
+            }
+
+            long now = System.nanoTime();
+            for (Message message : batch) {
+                long latency = now - message.enqueuedAt;
+                latencyTotalNanos.add(latency);
+                latencyMaxNanos.accumulateAndGet(latency, Math::max);
+                message.future.complete(true);
+            }
+            published.add(batch.size());
+            batches.increment();
+            maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+        } catch (Exception e) {
+            failed.add(batch.size());
+            logger.error("[EchoCloud][Redis] Fehler beim Publish von " + batch.size() + " Nachrichten: " + e.getMessage());
+            for (Message message : batch) {
+                message.future.complete(false);
+            }
+            if (onFailure != null) {
+                onFailure.run();
+            }
+        }
+    }
+
+    private XAddParams streamParams() {
+        return XAddParams.xAddParams().maxLen(streamMaxLength).approximateTrimming();
+    }
+
+    /**
+     * Sendet noch eingereihte Nachrichten (höchstens {@code timeoutMillis} lang) und beendet den Writer
+     */
+    public void close(long timeoutMillis) {
+        running = false;
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            writer.interrupt();
+        }
+        Message remaining;
+        while ((remaining = queue.poll()) != null) {
+            dropped.increment();
+            remaining.future.complete(false);
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0.0 : (double) published.sum() / count;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    /**
+     * Durchschnittliche Zeit vom Einreihen bis zur Bestätigung durch Redis in Mikrosekunden
+     */
+    public double getAverageLatencyMicros() {
+        long count = published.sum();
+        return count == 0 ? 0.0 : latencyTotalNanos.sum() / (double) count / 1000.0;
+    }
+
+    public double getMaxLatencyMicros() {
+        return latencyMaxNanos.get() / 1000.0;
+    }
+
+    private static class Message {
+        final String channel;
+        final String message;
+        final long enqueuedAt = System.nanoTime();
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        Message(String channel, String message) {
+            this.channel = channel;
+            this.message = message;
+        }
+    }
+}
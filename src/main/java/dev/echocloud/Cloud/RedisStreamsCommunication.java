@@ -0,0 +1,185 @@
+package dev.echocloud.Cloud;
+
+import org.bukkit.Server;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.XReadGroupParams;
+import redis.clients.jedis.resps.StreamEntry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis-Kommunikation über Streams statt Pub/Sub (communication.type: redis-streams).
+ * Nachrichten werden per XADD angehängt und pro Server über eine eigene Consumer-Group gelesen.
+ * Erst nach der Verarbeitung wird ein Batch per XACK bestätigt, daher gehen Nachrichten während
+ * eines Neustarts oder Reconnects nicht verloren (at-least-once): nach dem Verbindungsaufbau werden
+ * zuerst die noch unbestätigten und danach die verpassten Einträge gelesen.
+ */
+public class RedisStreamsCommunication extends RedisCommunication {
+    // Feld im Stream-Eintrag, das die JSON-Nachricht enthält
+    public static final String DATA_FIELD = "data";
+
+    private long maxLength = 10000;
+    private int readBatchSize = 100;
+    private int blockMillis = 2000;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder acknowledged = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+
+    public RedisStreamsCommunication(String baseUrl, String serverId, String authToken, CloudLogger logger, Server server) {
+        super(baseUrl, serverId, authToken, logger, server);
+    }
+
+    /**
+     * Streams werden per XADD MAXLEN ~ ungefähr auf diese Länge gekürzt
+     */
+    public void setMaxLength(long maxLength) {
+        this.maxLength = Math.max(1, maxLength);
+    }
+
+    /**
+     * Maximale Anzahl Einträge pro XREADGROUP
+     */
+    public void setReadBatchSize(int readBatchSize) {
+        this.readBatchSize = Math.max(1, readBatchSize);
+    }
+
+    /**
+     * Wartezeit von XREADGROUP, wenn keine neuen Einträge vorhanden sind
+     */
+    public void setBlockMillis(int blockMillis) {
+        this.blockMillis = Math.max(1, blockMillis);
+    }
+
+    @Override
+    protected long getStreamMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Name der Consumer-Group dieses Servers; jeder Server liest jeden Stream über seine eigene Gruppe
+     */
+    public String getGroupName() {
+        return "echocloud-" + serverId;
+    }
+
+    @Override
+    protected void startSubscriptions(RedisTopology topology) {
+        // Ein Reader pro Stream, damit die Keys auch im Cluster in unterschiedlichen Slots liegen dürfen
+        for (String stream : List.of("echocloud:" + serverId, getChannel())) {
+            startSubscribeThread(() -> readStream(stream));
+        }
+    }
+
+    private void readStream(String stream) {
+        UnifiedJedis redis = getRedis();
+        String group = getGroupName();
+        createGroup(redis, stream, group);
+        logger.info("[EchoCloud][Redis] Lese Stream {} (Gruppe {})", stream, group);
+
+        // REDIS CHANNEL EVENT FEUERN - Subscribe
+        getEventManager().fireRedisChannelEvent(stream, "subscribe", (String) null);
+
+        // Zuerst die eigenen, noch nicht bestätigten Einträge, danach nur neue
+        StreamEntryID position = new StreamEntryID();
+        boolean replay = true;
+        try {
+            while (connected && redis == getRedis()) {
+                XReadGroupParams params = XReadGroupParams.xReadGroupParams().count(readBatchSize);
+                if (!replay) {
+                    params.block(blockMillis);
+                }
+                List<Map.Entry<String, List<StreamEntry>>> result = redis.xreadGroup(
+                        group, serverId, params, Map.of(stream, replay ? position : StreamEntryID.UNRECEIVED_ENTRY));
+                reads.increment();
+
+                List<StreamEntry> entries = result == null || result.isEmpty() ? List.of() : result.get(0).getValue();
+                if (entries == null || entries.isEmpty()) {
+                    if (replay) {
+                        replay = false;
+                    }
+                    continue;
+                }
+
+                StreamEntryID[] ids = new StreamEntryID[entries.size()];
+                for (int i = 0; i < entries.size(); i++) {
+                    StreamEntry entry = entries.get(i);
+                    ids[i] = entry.getID();
+                    handleEntry(stream, entry);
+                }
+                if (replay) {
+                    replayed.add(ids.length);
+                    position = ids[ids.length - 1];
+                } else {
+                    received.add(ids.length);
+                }
+
+                // Ganzen Batch mit einem XACK bestätigen
+                acknowledged.add(redis.xack(stream, group, ids));
+            }
+        } catch (Exception e) {
+            // Fehler einer bereits ersetzten Verbindung lösen keinen weiteren Reconnect aus
+            if (redis == getRedis()) {
+                throw e;
+            }
+        } finally {
+            // REDIS CHANNEL EVENT FEUERN - Unsubscribe
+            getEventManager().fireRedisChannelEvent(stream, "unsubscribe", (String) null);
+        }
+    }
+
+    private void handleEntry(String stream, StreamEntry entry) {
+        Map<String, String> fields = entry.getFields();
+        String message = fields != null ? decodeInbound(fields.get(DATA_FIELD)) : null;
+        if (message == null) {
+            logger.debug("[EchoCloud][Redis] Stream-Eintrag ohne lesbare Daten ignoriert: {} {}", stream, entry.getID());
+            return;
+        }
+
+        // REDIS CHANNEL EVENT FEUERN - Message Received
+        getEventManager().fireRedisChannelEvent(stream, "message_received", message);
+        inboundRouter.route(message, stream);
+    }
+
+    /**
+     * Legt die Consumer-Group an (ab neuen Einträgen); existiert sie bereits, liest sie an ihrer letzten Position weiter
+     */
+    private void createGroup(UnifiedJedis redis, String stream, String group) {
+        try {
+            redis.xgroupCreate(stream, group, StreamEntryID.LAST_ENTRY, true);
+            logger.info("[EchoCloud][Redis] Consumer-Group {} für {} angelegt", group, stream);
+        } catch (JedisDataException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    /**
+     * Nach einem (Re-)Connect erneut zugestellte, zuvor nicht bestätigte Einträge
+     */
+    public long getReplayedCount() {
+        return replayed.sum();
+    }
+
+    public long getAcknowledgedCount() {
+        return acknowledged.sum();
+    }
+
+    /**
+     * Durchschnittliche Anzahl Einträge pro XREADGROUP (inklusive leerer Reads)
+     */
+    public double getAverageReadBatchSize() {
+        long count = reads.sum();
+        return count == 0 ? 0.0 : (double) (received.sum() + replayed.sum()) / count;
+    }
+}
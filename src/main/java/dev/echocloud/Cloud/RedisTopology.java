@@ -0,0 +1,178 @@
+package dev.echocloud.Cloud;
+
+import dev.echocloud.PluginConfig;
+import redis.clients.jedis.ConnectionPoolConfig;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.JedisSentineled;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.util.Pool;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Redis-Topologie für Storage und Pub/Sub: einzelner Knoten, Sentinel (automatischer Failover)
+ * oder Cluster. Erzeugt den passenden {@link UnifiedJedis}-Client.
+ */
+public class RedisTopology {
+
+    public enum Mode {
+        STANDALONE, SENTINEL, CLUSTER
+    }
+
+    private Mode mode = Mode.STANDALONE;
+    private List<HostAndPort> nodes = List.of();
+    private String sentinelMasterName = "mymaster";
+    private String sentinelPassword = "";
+    private int clusterMaxAttempts = 5;
+    private boolean shardedPubSub = true;
+
+    public RedisTopology() {}
+
+    /**
+     * Liest redis.mode sowie redis.sentinel.* bzw. redis.cluster.* aus der settings.yml
+     */
+    public static RedisTopology fromConfig(PluginConfig config) {
+        RedisTopology topology = new RedisTopology();
+        String mode = config.getString("redis.mode", "standalone").toLowerCase();
+
+        switch (mode) {
+            case "sentinel" -> {
+                topology.mode = Mode.SENTINEL;
+                topology.nodes = parseNodes(config.getStringList("redis.sentinel.nodes", List.of()), 26379);
+                topology.sentinelMasterName = config.getString("redis.sentinel.masterName", topology.sentinelMasterName);
+                topology.sentinelPassword = config.getString("redis.sentinel.password", topology.sentinelPassword);
+            }
+            case "cluster" -> {
+                topology.mode = Mode.CLUSTER;
+                topology.nodes = parseNodes(config.getStringList("redis.cluster.nodes", List.of()), 6379);
+                topology.clusterMaxAttempts = Math.max(1, config.getInt("redis.cluster.maxAttempts", topology.clusterMaxAttempts));
+                topology.shardedPubSub = config.getBoolean("redis.cluster.shardedPubSub", topology.shardedPubSub);
+            }
+            default -> topology.mode = Mode.STANDALONE;
+        }
+
+        if (topology.mode != Mode.STANDALONE && topology.nodes.isEmpty()) {
+            throw new IllegalArgumentException("redis.mode " + mode + " benötigt mindestens einen Knoten");
+        }
+        return topology;
+    }
+
+    public static List<HostAndPort> parseNodes(List<String> addresses, int defaultPort) {
+        List<HostAndPort> parsed = new ArrayList<>();
+        for (String address : addresses) {
+            parsed.add(parseNode(address, defaultPort));
+        }
+        return parsed;
+    }
+
+    public static HostAndPort parseNode(String address, int defaultPort) {
+        String[] parts = address.trim().split(":");
+        return new HostAndPort(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : defaultPort);
+    }
+
+    /**
+     * Erzeugt den Client. Im Standalone-Modus wird {@code standaloneAddress} verwendet,
+     * sonst die konfigurierten Sentinel- bzw. Cluster-Knoten.
+     */
+    public UnifiedJedis createClient(HostAndPort standaloneAddress, JedisClientConfig clientConfig,
+                                     ConnectionPoolConfig poolConfig) {
+        return switch (mode) {
+            case SENTINEL -> {
+                DefaultJedisClientConfig.Builder sentinelConfig = DefaultJedisClientConfig.builder()
+                        .timeoutMillis(clientConfig.getSocketTimeoutMillis());
+                if (sentinelPassword != null && !sentinelPassword.isEmpty()) {
+                    sentinelConfig.password(sentinelPassword);
+                }
+                yield new JedisSentineled(sentinelMasterName, clientConfig, poolConfig,
+                        new LinkedHashSet<>(nodes), sentinelConfig.build());
+            }
+            case CLUSTER -> {
+                Set<HostAndPort> seeds = new LinkedHashSet<>(nodes);
+                yield new JedisCluster(seeds, clientConfig, clusterMaxAttempts, poolConfig);
+            }
+            default -> new JedisPooled(standaloneAddress, clientConfig, poolConfig);
+        };
+    }
+
+    /**
+     * Eigene Verbindung für Pub/Sub außerhalb des Pools (Standalone bzw. aktueller Sentinel-Master).
+     * Subscriptions blockieren ihre Verbindung dauerhaft und lassen sich so gezielt schließen.
+     */
+    public Jedis createDedicatedConnection(HostAndPort standaloneAddress, JedisClientConfig clientConfig) {
+        return switch (mode) {
+            case SENTINEL -> new Jedis(resolveSentinelMaster(clientConfig), clientConfig);
+            case CLUSTER -> throw new IllegalStateException("Im Cluster-Modus gibt es keinen einzelnen Knoten");
+            default -> new Jedis(standaloneAddress, clientConfig);
+        };
+    }
+
+    private HostAndPort resolveSentinelMaster(JedisClientConfig clientConfig) {
+        DefaultJedisClientConfig.Builder sentinelConfig = DefaultJedisClientConfig.builder()
+                .timeoutMillis(clientConfig.getSocketTimeoutMillis());
+        if (sentinelPassword != null && !sentinelPassword.isEmpty()) {
+            sentinelConfig.password(sentinelPassword);
+        }
+        for (HostAndPort sentinel : nodes) {
+            try (Jedis jedis = new Jedis(sentinel, sentinelConfig.build())) {
+                List<String> master = jedis.sentinelGetMasterAddrByName(sentinelMasterName);
+                if (master != null && master.size() == 2) {
+                    return new HostAndPort(master.get(0), Integer.parseInt(master.get(1)));
+                }
+            } catch (Exception ignored) {
+                // Nächsten Sentinel versuchen
+            }
+        }
+        throw new IllegalStateException("Kein Sentinel kennt den Master " + sentinelMasterName);
+    }
+
+    /**
+     * Lesbare Beschreibung für Logs
+     */
+    public String describe(HostAndPort standaloneAddress) {
+        return switch (mode) {
+            case SENTINEL -> "Sentinel " + sentinelMasterName + " @ " + nodes;
+            case CLUSTER -> "Cluster " + nodes;
+            default -> standaloneAddress.toString();
+        };
+    }
+
+    /**
+     * Verbindungs-Pools eines Clients (für Metriken), leer wenn nicht ermittelbar (z.B. Sentinel)
+     */
+    public static List<Pool<?>> pools(UnifiedJedis client) {
+        List<Pool<?>> pools = new ArrayList<>();
+        if (client instanceof JedisPooled pooled) {
+            pools.add(pooled.getPool());
+        } else if (client instanceof JedisCluster cluster) {
+            pools.addAll(cluster.getClusterNodes().values());
+        }
+        return pools;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isCluster() {
+        return mode == Mode.CLUSTER;
+    }
+
+    /**
+     * Sharded Pub/Sub (SPUBLISH/SSUBSCRIBE): Nachrichten gehen nur an den Knoten des Kanal-Slots
+     */
+    public boolean isShardedPubSub() {
+        return mode == Mode.CLUSTER && shardedPubSub;
+    }
+
+    public List<HostAndPort> getNodes() {
+        return nodes;
+    }
+}
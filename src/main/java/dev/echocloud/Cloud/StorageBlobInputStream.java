@@ -0,0 +1,148 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Liest einen in Chunks gespeicherten Wert. Es wird immer nur ein Chunk geladen und im Speicher gehalten.
+ * Am Ende werden Größe und SHA-256-Prüfsumme gegen das Manifest geprüft.
+ */
+public class StorageBlobInputStream extends InputStream {
+
+    private final CloudStorage storage;
+    private final String key;
+    private final String uploadId;
+    private final int chunkCount;
+    private final long size;
+    private final String checksum;
+    private final byte[] inflated;
+    private final Inflater inflater = new Inflater();
+    private final MessageDigest digest;
+
+    private byte[] current = new byte[0];
+    private int position;
+    private int limit;
+    private int chunkIndex;
+    private long bytesRead;
+    private boolean verified;
+    private boolean closed;
+
+    StorageBlobInputStream(CloudStorage storage, String key, JsonObject manifest) {
+        this.storage = storage;
+        this.key = key;
+        this.uploadId = manifest.get("upload_id").getAsString();
+        this.chunkCount = manifest.get("chunks").getAsInt();
+        this.size = manifest.get("size").getAsLong();
+        this.checksum = manifest.has("sha256") ? manifest.get("sha256").getAsString() : null;
+        this.inflated = new byte[manifest.get("chunk_size").getAsInt()];
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int copy = Math.min(length, limit - position);
+        System.arraycopy(current, position, target, offset, copy);
+        position += copy;
+        return copy;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    /**
+     * Lädt bei Bedarf den nächsten Chunk. Gibt false am Ende des Blobs zurück.
+     */
+    private boolean fill() throws IOException {
+        if (closed) {
+            throw new IOException("Blob-Stream bereits geschlossen - Key: " + key);
+        }
+        if (position < limit) {
+            return true;
+        }
+        if (chunkIndex >= chunkCount) {
+            verify();
+            return false;
+        }
+
+        byte[] raw = storage.readBlobChunk(key, uploadId, chunkIndex);
+        if (raw == null || raw.length == 0) {
+            throw new IOException("Chunk " + chunkIndex + " fehlt - Key: " + key);
+        }
+
+        if (raw[0] == StorageBlobOutputStream.CHUNK_DEFLATE) {
+            inflater.reset();
+            inflater.setInput(raw, 1, raw.length - 1);
+            try {
+                limit = inflater.inflate(inflated);
+            } catch (DataFormatException e) {
+                throw new IOException("Chunk " + chunkIndex + " ungültig - Key: " + key, e);
+            }
+            if (!inflater.finished()) {
+                throw new IOException("Chunk " + chunkIndex + " größer als erwartet - Key: " + key);
+            }
+            current = inflated;
+            position = 0;
+        } else {
+            current = raw;
+            position = 1;
+            limit = raw.length;
+        }
+
+        digest.update(current, position, limit - position);
+        bytesRead += limit - position;
+        chunkIndex++;
+        return true;
+    }
+
+    private void verify() throws IOException {
+        if (verified) {
+            return;
+        }
+        verified = true;
+        if (bytesRead != size) {
+            throw new IOException("Blob unvollständig (" + bytesRead + " von " + size + " Bytes) - Key: " + key);
+        }
+        if (checksum != null && !checksum.equalsIgnoreCase(HexFormat.of().formatHex(digest.digest()))) {
+            throw new IOException("Prüfsumme stimmt nicht überein - Key: " + key);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            inflater.end();
+        }
+    }
+
+    public long getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,170 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+/**
+ * Schreibt einen großen Wert in Chunks fester Größe, ohne ihn vollständig im Speicher zu halten.
+ * Jeder Chunk wird sofort übertragen, erst {@link #close()} schreibt das Manifest und macht den Blob sichtbar.
+ * Chunk-Format: [Flag (0 = roh, 1 = Deflate)][Daten]
+ */
+public class StorageBlobOutputStream extends OutputStream {
+
+    static final byte CHUNK_RAW = 0;
+    static final byte CHUNK_DEFLATE = 1;
+
+    private final CloudStorage storage;
+    private final String key;
+    private final String uploadId = UUID.randomUUID().toString();
+    private final int chunkSize;
+    private final byte[] buffer;
+    // Flag + Nutzdaten des aktuell übertragenen Chunks
+    private final byte[] chunk;
+    private final Deflater deflater;
+    private final MessageDigest digest;
+
+    private int count;
+    private int chunkIndex;
+    private long size;
+    private boolean closed;
+    private boolean failed;
+
+    StorageBlobOutputStream(CloudStorage storage, String key, int chunkSize, boolean compress) {
+        this.storage = storage;
+        this.key = key;
+        this.chunkSize = chunkSize;
+        this.buffer = new byte[chunkSize];
+        this.chunk = new byte[chunkSize + 1];
+        this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        buffer[count++] = (byte) b;
+        if (count == chunkSize) {
+            writeChunk();
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            int copy = Math.min(length, chunkSize - count);
+            System.arraycopy(data, offset, buffer, count, copy);
+            count += copy;
+            offset += copy;
+            length -= copy;
+            if (count == chunkSize) {
+                writeChunk();
+            }
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        digest.update(buffer, 0, count);
+        size += count;
+
+        int length = compressChunk();
+        if (length < 0) {
+            chunk[0] = CHUNK_RAW;
+            System.arraycopy(buffer, 0, chunk, 1, count);
+            length = count;
+        }
+
+        try {
+            storage.writeBlobChunk(key, uploadId, chunkIndex, chunk, length + 1);
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        }
+        chunkIndex++;
+        count = 0;
+    }
+
+    /**
+     * Komprimiert den Puffer in {@code chunk}. Gibt -1 zurück, wenn das Ergebnis nicht kleiner wäre.
+     */
+    private int compressChunk() {
+        if (deflater == null) {
+            return -1;
+        }
+        deflater.reset();
+        deflater.setInput(buffer, 0, count);
+        deflater.finish();
+        int length = deflater.deflate(chunk, 1, count - 1);
+        if (!deflater.finished()) {
+            return -1;
+        }
+        chunk[0] = CHUNK_DEFLATE;
+        return length;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Blob-Stream bereits geschlossen - Key: " + key);
+        }
+        if (failed) {
+            throw new IOException("Blob-Upload fehlgeschlagen - Key: " + key);
+        }
+    }
+
+    /**
+     * Überträgt den letzten Chunk und schreibt das Manifest
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            ensureOpen();
+            if (count > 0) {
+                writeChunk();
+            }
+
+            JsonObject manifest = new JsonObject();
+            manifest.addProperty("blob", 1);
+            manifest.addProperty("upload_id", uploadId);
+            manifest.addProperty("size", size);
+            manifest.addProperty("chunks", chunkIndex);
+            manifest.addProperty("chunk_size", chunkSize);
+            manifest.addProperty("sha256", HexFormat.of().formatHex(digest.digest()));
+            storage.commitBlob(key, uploadId, manifest);
+        } finally {
+            closed = true;
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Bricht den Upload ab. Bereits übertragene Chunks sind unsichtbar und laufen im Backend ab.
+     */
+    public void abort() {
+        if (!closed) {
+            closed = true;
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    public long getBytesWritten() {
+        return size + count;
+    }
+}
@@ -0,0 +1,183 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.JsonElement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lokaler Read-Through-Cache für CloudStorage.
+ * Speichert die dekodierten Werte als Gson-Baum mit Größenlimit (LRU) und TTL.
+ */
+public class StorageCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> entries;
+
+    // Wird bei jeder Invalidierung erhöht, damit parallele Loads keine veralteten Werte eintragen
+    private final AtomicLong invalidationStamp = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public StorageCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > StorageCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gibt den gecachten Wert zurück oder null bei Miss/Ablauf
+     */
+    public JsonElement get(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(System.currentTimeMillis())) {
+                entries.remove(key);
+                evictions.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value;
+        }
+    }
+
+    /**
+     * Aktueller Invalidierungsstand, vor einem Backend-Load abzufragen
+     */
+    public long stamp() {
+        return invalidationStamp.get();
+    }
+
+    /**
+     * Trägt einen geladenen Wert ein, sofern seit {@code stamp} nichts invalidiert wurde
+     */
+    public void putIfFresh(String key, JsonElement value, long stamp) {
+        putIfFresh(key, value, stamp, -1);
+    }
+
+    /**
+     * Wie {@link #putIfFresh(String, JsonElement, long)}, hält den Wert aber höchstens
+     * {@code remainingTtlMillis} lang (Restlaufzeit im Backend, -1 = keine)
+     */
+    public void putIfFresh(String key, JsonElement value, long stamp, long remainingTtlMillis) {
+        if (value == null) {
+            return;
+        }
+        synchronized (entries) {
+            if (invalidationStamp.get() != stamp) {
+                return;
+            }
+            entries.put(key, new Entry(value, expiresAt(effectiveTtl(remainingTtlMillis))));
+        }
+    }
+
+    /**
+     * Trägt einen Wert nach einem eigenen Schreibvorgang ein
+     */
+    public void put(String key, JsonElement value) {
+        put(key, value, -1);
+    }
+
+    /**
+     * Trägt einen Wert nach einem eigenen Schreibvorgang mit Ablaufzeit ein (-1 = keine)
+     */
+    public void put(String key, JsonElement value, long remainingTtlMillis) {
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(value, expiresAt(effectiveTtl(remainingTtlMillis))));
+        }
+    }
+
+    private long effectiveTtl(long remainingTtlMillis) {
+        if (remainingTtlMillis <= 0) {
+            return ttlMillis;
+        }
+        return ttlMillis > 0 ? Math.min(ttlMillis, remainingTtlMillis) : remainingTtlMillis;
+    }
+
+    public void invalidate(String key) {
+        synchronized (entries) {
+            invalidationStamp.incrementAndGet();
+            if (entries.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidationStamp.incrementAndGet();
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    private long expiresAt(long ttl) {
+        return ttl > 0 ? System.currentTimeMillis() + ttl : Long.MAX_VALUE;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    private static class Entry {
+        final JsonElement value;
+        final long expiresAt;
+
+        Entry(JsonElement value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
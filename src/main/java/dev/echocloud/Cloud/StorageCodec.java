@@ -0,0 +1,26 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+
+/**
+ * Codec-Schnittstelle für CloudStorage-Werte.
+ * Codecs arbeiten auf dem Gson-Baum, damit Objekte nicht erst in Text umgewandelt werden müssen.
+ */
+public interface StorageCodec {
+
+    /**
+     * Eindeutige ID, die mit jedem Wert gespeichert wird
+     */
+    byte getId();
+
+    /**
+     * Name für die Konfiguration (z.B. "json", "binary")
+     */
+    String getName();
+
+    byte[] encode(JsonElement value) throws IOException;
+
+    JsonElement decode(byte[] data, int offset, int length) throws IOException;
+}
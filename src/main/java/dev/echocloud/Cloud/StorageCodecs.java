@@ -0,0 +1,157 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.JsonElement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Registry und Wertformat für CloudStorage-Codecs.
+ * <p>
+ * Format: {@code [0xEC][Codec-ID][Flags][Payload]}. Werte ohne Header sind JSON-Text
+ * (Altbestand bzw. Standard-Codec ohne Kompression) und bleiben damit weiterhin lesbar.
+ */
+public class StorageCodecs {
+
+    private static final byte MAGIC = (byte) 0xEC;
+    private static final int HEADER_SIZE = 3;
+    private static final int FLAG_COMPRESSED = 1;
+
+    private final Map<Byte, StorageCodec> codecs = new ConcurrentHashMap<>();
+    private final Map<String, StorageCodec> codecsByName = new ConcurrentHashMap<>();
+    private final JsonStorageCodec jsonCodec = new JsonStorageCodec();
+
+    private volatile StorageCodec writeCodec;
+    private final int compressionThreshold;
+
+    public StorageCodecs(String writeCodecName, int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+        register(jsonCodec);
+        register(new BinaryStorageCodec());
+
+        StorageCodec codec = codecsByName.get(writeCodecName.toLowerCase());
+        this.writeCodec = codec != null ? codec : jsonCodec;
+    }
+
+    /**
+     * Registriert einen zusätzlichen Codec (z.B. aus einem anderen Plugin)
+     */
+    public void register(StorageCodec codec) {
+        if (codec.getId() == MAGIC) {
+            throw new IllegalArgumentException("Codec-ID 0xEC ist reserviert");
+        }
+        StorageCodec existing = codecs.putIfAbsent(codec.getId(), codec);
+        if (existing != null && existing != codec) {
+            throw new IllegalArgumentException("Codec-ID bereits vergeben: " + codec.getId());
+        }
+        codecsByName.put(codec.getName().toLowerCase(), codec);
+    }
+
+    /**
+     * Setzt den Codec für neue Schreibvorgänge. Bestehende Werte bleiben über ihre ID lesbar.
+     */
+    public void setWriteCodec(String name) {
+        StorageCodec codec = codecsByName.get(name.toLowerCase());
+        if (codec == null) {
+            throw new IllegalArgumentException("Unbekannter Codec: " + name);
+        }
+        this.writeCodec = codec;
+    }
+
+    public StorageCodec getWriteCodec() {
+        return writeCodec;
+    }
+
+    public byte[] encode(JsonElement value) throws IOException {
+        StorageCodec codec = writeCodec;
+        byte[] payload = codec.encode(value);
+
+        boolean compress = compressionThreshold > 0 && payload.length >= compressionThreshold;
+        if (compress) {
+            byte[] compressed = deflate(payload);
+            if (compressed.length < payload.length) {
+                payload = compressed;
+            } else {
+                compress = false;
+            }
+        }
+
+        // Reines JSON ohne Kompression ohne Header speichern, damit andere Leser kompatibel bleiben
+        if (codec == jsonCodec && !compress) {
+            return payload;
+        }
+
+        byte[] result = new byte[HEADER_SIZE + payload.length];
+        result[0] = MAGIC;
+        result[1] = codec.getId();
+        result[2] = (byte) (compress ? FLAG_COMPRESSED : 0);
+        System.arraycopy(payload, 0, result, HEADER_SIZE, payload.length);
+        return result;
+    }
+
+    public JsonElement decode(byte[] raw) throws IOException {
+        if (raw == null || raw.length == 0) {
+            return null;
+        }
+        if (raw[0] != MAGIC) {
+            return jsonCodec.decode(raw, 0, raw.length);
+        }
+        if (raw.length < HEADER_SIZE) {
+            throw new IOException("Ungültiger Header");
+        }
+
+        StorageCodec codec = codecs.get(raw[1]);
+        if (codec == null) {
+            throw new IOException("Unbekannte Codec-ID: " + raw[1]);
+        }
+
+        if ((raw[2] & FLAG_COMPRESSED) != 0) {
+            byte[] payload = inflate(raw, HEADER_SIZE, raw.length - HEADER_SIZE);
+            return codec.decode(payload, 0, payload.length);
+        }
+        return codec.decode(raw, HEADER_SIZE, raw.length - HEADER_SIZE);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(length, 1 << 20) * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Komprimierte Daten unvollständig");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Komprimierte Daten ungültig", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
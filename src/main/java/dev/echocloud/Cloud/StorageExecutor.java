@@ -0,0 +1,135 @@
+package dev.echocloud.Cloud;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Eigener Executor für alle asynchronen CloudStorage-Operationen.
+ * Standardmäßig ein virtueller Thread pro Aufgabe, optional ein fester Pool aus Plattform-Threads.
+ * Ein Semaphor begrenzt gleichzeitige Backend-Aufrufe, wartende Aufgaben sind ebenfalls begrenzt.
+ */
+public class StorageExecutor {
+
+    private final CloudLogger logger;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxInFlight;
+    private final int maxQueued;
+
+    // Angenommene, noch nicht abgeschlossene Aufgaben (wartend + laufend)
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public StorageExecutor(CloudLogger logger, String type, int platformThreads, int maxInFlight, int maxQueued) {
+        this.logger = logger;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.permits = new Semaphore(maxInFlight);
+
+        if ("platform".equalsIgnoreCase(type)) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(platformThreads, platformThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "EchoCloud-Storage-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        } else {
+            this.executor = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("EchoCloud-Storage-", 0).factory());
+        }
+    }
+
+    /**
+     * Führt eine Aufgabe asynchron aus. Ist das Limit erreicht, wird das Future mit
+     * einer {@link RejectedExecutionException} abgeschlossen, statt Aufgaben unbegrenzt zu stauen.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        if (pending.incrementAndGet() > maxInFlight + maxQueued) {
+            pending.decrementAndGet();
+            rejected.increment();
+            logger.warn("[CloudStorage] Executor ausgelastet ({} laufend, {} wartend) - Aufgabe abgelehnt",
+                    inFlight.get(), getQueueDepth());
+            return CompletableFuture.failedFuture(new RejectedExecutionException("CloudStorage-Executor ausgelastet"));
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    pending.decrementAndGet();
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Unterbrochen beim Warten auf freien Slot", e);
+                }
+
+                inFlight.incrementAndGet();
+                try {
+                    return task.get();
+                } finally {
+                    inFlight.decrementAndGet();
+                    permits.release();
+                    pending.decrementAndGet();
+                    completed.increment();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Wartet auf laufende Aufgaben und beendet den Executor
+     */
+    public void shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                logger.warn("[CloudStorage] {} Storage-Aufgaben beim Beenden abgebrochen", pending.get());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Anzahl Aufgaben, die auf einen freien Slot warten
+     */
+    public int getQueueDepth() {
+        return Math.max(0, pending.get() - inFlight.get());
+    }
+
+    /**
+     * Anzahl gerade laufender Backend-Aufrufe
+     */
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+}
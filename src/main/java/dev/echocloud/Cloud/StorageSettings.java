@@ -0,0 +1,340 @@
+package dev.echocloud.Cloud;
+
+import dev.echocloud.PluginConfig;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Einstellungen für CloudStorage (Redis-Pool, Shards, Topologie, Executor, Codec, lokaler Cache, Single-Flight, Write-Behind, Spool, Zähler, Scan, Blobs, Prefetch, Main-Thread usw.)
+ */
+public class StorageSettings {
+
+    // Redis-Pool
+    private int redisTimeoutMillis = 2000;
+    private int poolMaxTotal = 16;
+    private int poolMaxIdle = 8;
+    private int poolMinIdle = 2;
+    private long poolMaxWaitMillis = 2000;
+    private boolean poolTestOnBorrow = true;
+    private boolean poolTestWhileIdle = true;
+
+    // Sharding über mehrere Redis-Knoten (leer = nur der Knoten aus der Verbindungsadresse)
+    private List<String> shardNodes = List.of();
+    private int shardVirtualNodes = 160;
+
+    // Topologie (standalone, sentinel, cluster)
+    private RedisTopology redisTopology = new RedisTopology();
+
+    // Executor
+    private String executorType = "virtual";
+    private int executorPlatformThreads = 8;
+    private int executorMaxInFlight = 64;
+    private int executorMaxQueued = 4096;
+
+    // Codec
+    private String codec = "json";
+    // Komprimierung gespeicherter Werte ab dieser Größe in Bytes, 0 = aus (Opt-in)
+    private int compressionThreshold = 0;
+
+    // Lokaler Cache
+    private boolean cacheEnabled = false;
+    private int cacheMaxEntries = 10000;
+    private long cacheTtlMillis = 60_000;
+    private String cacheInvalidation = "keyspace";
+
+    // Single-Flight (leere Liste = alle Keys)
+    private boolean singleFlightEnabled = true;
+    private List<String> singleFlightNamespaces = List.of();
+
+    // Write-Behind
+    private boolean writeBehindEnabled = false;
+    private long writeBehindFlushIntervalMillis = 1000;
+    private int writeBehindBatchSize = 500;
+    private int writeBehindFlushThreshold = 1000;
+
+    // Lokaler Spool für Ausfälle des Backends
+    private boolean spoolEnabled = false;
+    private Path spoolPath = null;
+    private int spoolMaxSizeBytes = 64 * 1024 * 1024;
+    private String spoolFsync = "interval";
+    private long spoolFsyncIntervalMillis = 1000;
+    private long spoolReplayIntervalMillis = 1000;
+    private int spoolReplayBatchSize = 500;
+
+    // Zähler
+    private long counterFlushIntervalMillis = 1000;
+
+    // Scan
+    private int scanCount = 500;
+
+    // Blobs
+    private int blobChunkSize = 256 * 1024;
+    private boolean blobCompression = true;
+    private int blobUncommittedTtlSeconds = 3600;
+    private int blobStaleTtlSeconds = 60;
+    // Abstand der Suche nach Chunks ersetzter Blobs, 0 = aus
+    private int blobSweepIntervalSeconds = 300;
+
+    // Prefetch von Spielerdaten beim Login
+    private boolean prefetchEnabled = true;
+    private long prefetchTimeoutMillis = 3000;
+    private int prefetchSessionTimeoutSeconds = 60;
+
+    // Callbacks auf dem Server-Thread
+    private long mainThreadTickBudgetMicros = 2000;
+    private String mainThreadSyncCalls = "warn";
+
+    public StorageSettings() {}
+
+    /**
+     * Liest die Storage-Einstellungen aus der settings.yml
+     */
+    public static StorageSettings fromConfig(PluginConfig config) {
+        StorageSettings settings = new StorageSettings();
+
+        settings.redisTimeoutMillis = config.getInt("redis.pool.timeoutMillis", settings.redisTimeoutMillis);
+        settings.poolMaxTotal = Math.max(1, config.getInt("redis.pool.maxTotal", settings.poolMaxTotal));
+        settings.poolMaxIdle = Math.max(0, config.getInt("redis.pool.maxIdle", settings.poolMaxIdle));
+        settings.poolMinIdle = Math.max(0, Math.min(settings.poolMaxIdle, config.getInt("redis.pool.minIdle", settings.poolMinIdle)));
+        settings.poolMaxWaitMillis = config.getInt("redis.pool.maxWaitMillis", (int) settings.poolMaxWaitMillis);
+        settings.poolTestOnBorrow = config.getBoolean("redis.pool.testOnBorrow", settings.poolTestOnBorrow);
+        settings.poolTestWhileIdle = config.getBoolean("redis.pool.testWhileIdle", settings.poolTestWhileIdle);
+
+        settings.shardNodes = config.getStringList("redis.shards", settings.shardNodes);
+        settings.shardVirtualNodes = Math.max(1, config.getInt("redis.shardVirtualNodes", settings.shardVirtualNodes));
+        settings.redisTopology = RedisTopology.fromConfig(config);
+
+        settings.executorType = config.getString("storage.executor.type", settings.executorType);
+        settings.executorPlatformThreads = Math.max(1, config.getInt("storage.executor.platformThreads", settings.executorPlatformThreads));
+        settings.executorMaxInFlight = Math.max(1, config.getInt("storage.executor.maxInFlight", settings.executorMaxInFlight));
+        settings.executorMaxQueued = Math.max(0, config.getInt("storage.executor.maxQueued", settings.executorMaxQueued));
+
+        settings.codec = config.getString("storage.codec", settings.codec);
+        settings.compressionThreshold = config.getInt("storage.compressionThreshold", settings.compressionThreshold);
+
+        settings.cacheEnabled = config.getBoolean("storage.cache.enabled", settings.cacheEnabled);
+        settings.cacheMaxEntries = Math.max(1, config.getInt("storage.cache.maxEntries", settings.cacheMaxEntries));
+        settings.cacheTtlMillis = config.getInt("storage.cache.ttlSeconds", (int) (settings.cacheTtlMillis / 1000)) * 1000L;
+        settings.cacheInvalidation = config.getString("storage.cache.invalidation", settings.cacheInvalidation);
+
+        settings.singleFlightEnabled = config.getBoolean("storage.singleFlight.enabled", settings.singleFlightEnabled);
+        settings.singleFlightNamespaces = config.getStringList("storage.singleFlight.namespaces", settings.singleFlightNamespaces);
+
+        settings.writeBehindEnabled = config.getBoolean("storage.writeBehind.enabled", settings.writeBehindEnabled);
+        settings.writeBehindFlushIntervalMillis = Math.max(10, config.getInt("storage.writeBehind.flushIntervalMillis", (int) settings.writeBehindFlushIntervalMillis));
+        settings.writeBehindBatchSize = Math.max(1, config.getInt("storage.writeBehind.batchSize", settings.writeBehindBatchSize));
+        settings.writeBehindFlushThreshold = Math.max(1, config.getInt("storage.writeBehind.flushThreshold", settings.writeBehindFlushThreshold));
+
+        settings.spoolEnabled = config.getBoolean("storage.spool.enabled", settings.spoolEnabled);
+        settings.spoolPath = config.getConfigDirectory().resolve(config.getString("storage.spool.file", "storage-spool.dat"));
+        int spoolMaxSizeMb = Math.max(1, Math.min(1024, config.getInt("storage.spool.maxSizeMb", settings.spoolMaxSizeBytes / (1024 * 1024))));
+        settings.spoolMaxSizeBytes = spoolMaxSizeMb * 1024 * 1024;
+        settings.spoolFsync = config.getString("storage.spool.fsync", settings.spoolFsync);
+        settings.spoolFsyncIntervalMillis = Math.max(10, config.getInt("storage.spool.fsyncIntervalMillis", (int) settings.spoolFsyncIntervalMillis));
+        settings.spoolReplayIntervalMillis = Math.max(100, config.getInt("storage.spool.replayIntervalMillis", (int) settings.spoolReplayIntervalMillis));
+        settings.spoolReplayBatchSize = Math.max(1, config.getInt("storage.spool.replayBatchSize", settings.spoolReplayBatchSize));
+
+        settings.counterFlushIntervalMillis = Math.max(50, config.getInt("storage.counters.flushIntervalMillis", (int) settings.counterFlushIntervalMillis));
+
+        settings.scanCount = Math.max(1, config.getInt("storage.scan.count", settings.scanCount));
+
+        settings.blobChunkSize = Math.max(4, Math.min(16 * 1024, config.getInt("storage.blob.chunkSizeKb", settings.blobChunkSize / 1024))) * 1024;
+        settings.blobCompression = config.getBoolean("storage.blob.compress", settings.blobCompression);
+        settings.blobUncommittedTtlSeconds = Math.max(60, config.getInt("storage.blob.uncommittedTtlSeconds", settings.blobUncommittedTtlSeconds));
+        settings.blobStaleTtlSeconds = Math.max(1, config.getInt("storage.blob.staleTtlSeconds", settings.blobStaleTtlSeconds));
+        settings.blobSweepIntervalSeconds = Math.max(0, config.getInt("storage.blob.sweepIntervalSeconds", settings.blobSweepIntervalSeconds));
+
+        settings.prefetchEnabled = config.getBoolean("storage.prefetch.enabled", settings.prefetchEnabled);
+        settings.prefetchTimeoutMillis = Math.max(100, config.getInt("storage.prefetch.timeoutMillis", (int) settings.prefetchTimeoutMillis));
+        settings.prefetchSessionTimeoutSeconds = Math.max(5, config.getInt("storage.prefetch.sessionTimeoutSeconds", settings.prefetchSessionTimeoutSeconds));
+
+        settings.mainThreadTickBudgetMicros = Math.max(100, config.getInt("storage.mainThread.tickBudgetMicros", (int) settings.mainThreadTickBudgetMicros));
+        settings.mainThreadSyncCalls = config.getString("storage.mainThread.syncCalls", settings.mainThreadSyncCalls);
+
+        return settings;
+    }
+
+    public int getRedisTimeoutMillis() {
+        return redisTimeoutMillis;
+    }
+
+    public int getPoolMaxTotal() {
+        return poolMaxTotal;
+    }
+
+    public int getPoolMaxIdle() {
+        return poolMaxIdle;
+    }
+
+    public int getPoolMinIdle() {
+        return poolMinIdle;
+    }
+
+    public long getPoolMaxWaitMillis() {
+        return poolMaxWaitMillis;
+    }
+
+    public boolean isPoolTestOnBorrow() {
+        return poolTestOnBorrow;
+    }
+
+    public boolean isPoolTestWhileIdle() {
+        return poolTestWhileIdle;
+    }
+
+    public String getExecutorType() {
+        return executorType;
+    }
+
+    public int getExecutorPlatformThreads() {
+        return executorPlatformThreads;
+    }
+
+    public int getExecutorMaxInFlight() {
+        return executorMaxInFlight;
+    }
+
+    public int getExecutorMaxQueued() {
+        return executorMaxQueued;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public long getCacheTtlMillis() {
+        return cacheTtlMillis;
+    }
+
+    public String getCacheInvalidation() {
+        return cacheInvalidation;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    public long getWriteBehindFlushIntervalMillis() {
+        return writeBehindFlushIntervalMillis;
+    }
+
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    public int getWriteBehindFlushThreshold() {
+        return writeBehindFlushThreshold;
+    }
+
+    public List<String> getShardNodes() {
+        return shardNodes;
+    }
+
+    public int getShardVirtualNodes() {
+        return shardVirtualNodes;
+    }
+
+    public RedisTopology getRedisTopology() {
+        return redisTopology;
+    }
+
+    public boolean isSingleFlightEnabled() {
+        return singleFlightEnabled;
+    }
+
+    public List<String> getSingleFlightNamespaces() {
+        return singleFlightNamespaces;
+    }
+
+    public boolean isSpoolEnabled() {
+        return spoolEnabled && spoolPath != null;
+    }
+
+    public Path getSpoolPath() {
+        return spoolPath;
+    }
+
+    public int getSpoolMaxSizeBytes() {
+        return spoolMaxSizeBytes;
+    }
+
+    public String getSpoolFsync() {
+        return spoolFsync;
+    }
+
+    public long getSpoolFsyncIntervalMillis() {
+        return spoolFsyncIntervalMillis;
+    }
+
+    public long getSpoolReplayIntervalMillis() {
+        return spoolReplayIntervalMillis;
+    }
+
+    public int getSpoolReplayBatchSize() {
+        return spoolReplayBatchSize;
+    }
+
+    public long getCounterFlushIntervalMillis() {
+        return counterFlushIntervalMillis;
+    }
+
+    public int getScanCount() {
+        return scanCount;
+    }
+
+    public int getBlobChunkSize() {
+        return blobChunkSize;
+    }
+
+    public boolean isBlobCompression() {
+        return blobCompression;
+    }
+
+    public int getBlobUncommittedTtlSeconds() {
+        return blobUncommittedTtlSeconds;
+    }
+
+    public int getBlobStaleTtlSeconds() {
+        return blobStaleTtlSeconds;
+    }
+
+    public int getBlobSweepIntervalSeconds() {
+        return blobSweepIntervalSeconds;
+    }
+
+    public boolean isPrefetchEnabled() {
+        return prefetchEnabled;
+    }
+
+    public long getPrefetchTimeoutMillis() {
+        return prefetchTimeoutMillis;
+    }
+
+    public int getPrefetchSessionTimeoutSeconds() {
+        return prefetchSessionTimeoutSeconds;
+    }
+
+    public long getMainThreadTickBudgetMicros() {
+        return mainThreadTickBudgetMicros;
+    }
+
+    /**
+     * Umgang mit blockierenden Sync-Aufrufen auf dem Server-Thread: ignore, warn oder fail
+     */
+    public String getMainThreadSyncCalls() {
+        return mainThreadSyncCalls;
+    }
+}
@@ -0,0 +1,347 @@
+package dev.echocloud.Cloud;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Verteilt Storage-Keys per Consistent Hashing mit virtuellen Knoten auf mehrere Redis-Instanzen.
+ * Mit nur einem Knoten verhält sich der Ring wie eine einzelne Verbindung.
+ * Enthält ein Key einen Hash-Tag ({...}), wird nur dieser gehasht, damit zusammengehörige Keys
+ * auf demselben Knoten landen.
+ */
+public class StorageShards {
+
+    private final CloudLogger logger;
+    private final int virtualNodes;
+    private final Function<HostAndPort, UnifiedJedis> factory;
+
+    private volatile Ring ring;
+    // Ring vor dem letzten Hinzufügen eines Knotens, solange Keys noch migriert werden
+    private volatile Ring previous;
+    // Serialisiert das Verschieben eines Keys mit Zugriffen und Löschvorgängen auf denselben Key
+    private final Object[] stripes = new Object[64];
+
+    public StorageShards(List<HostAndPort> nodes, int virtualNodes, Function<HostAndPort, UnifiedJedis> factory,
+                         CloudLogger logger) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Mindestens ein Redis-Knoten erforderlich");
+        }
+        this.logger = logger;
+        this.virtualNodes = Math.max(1, virtualNodes);
+        this.factory = factory;
+
+        List<Node> created = new ArrayList<>();
+        for (HostAndPort address : nodes) {
+            created.add(new Node(address, factory.apply(address)));
+        }
+        this.ring = new Ring(created, this.virtualNodes);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Knoten, dem der Key gehört
+     */
+    public UnifiedJedis forKey(byte[] storageKey) {
+        return ring.owner(storageKey).client;
+    }
+
+    /**
+     * Bisheriger Knoten eines Keys während einer Migration, null wenn keine läuft oder er sich nicht geändert hat
+     */
+    public UnifiedJedis previousOwner(byte[] storageKey) {
+        Ring before = previous;
+        if (before == null) {
+            return null;
+        }
+        Node old = before.owner(storageKey);
+        return old != ring.owner(storageKey) ? old.client : null;
+    }
+
+    public boolean isMigrating() {
+        return previous != null;
+    }
+
+    /**
+     * Wie {@link #forKey(byte[])}, verschiebt den Key während einer Migration aber vorher auf seinen neuen Knoten.
+     * Für Teil-Updates (HSET, HINCRBY, INCRBY) und Lesezugriffe ohne eigenen Fallback, die sonst auf einem
+     * leeren neuen Knoten arbeiten und den Stand des alten Knotens verdecken würden.
+     */
+    public UnifiedJedis forKeyMigrated(byte[] storageKey) {
+        Ring before = previous;
+        Ring current = ring;
+        Node target = current.owner(storageKey);
+        if (before != null) {
+            Node source = before.owner(storageKey);
+            if (source != target) {
+                moveKey(storageKey, source, target);
+            }
+        }
+        return target.client;
+    }
+
+    /**
+     * Löscht einen Key während einer Migration auf dem alten und erneut auf dem neuen Knoten. Der zweite DEL
+     * erfasst einen Key, den die Migration zwischen Löschen und diesem Aufruf verschoben hat.
+     */
+    public void deleteMigrating(byte[] storageKey) {
+        Ring before = previous;
+        if (before == null) {
+            return;
+        }
+        Node source = before.owner(storageKey);
+        Node target = ring.owner(storageKey);
+        if (source == target) {
+            return;
+        }
+        synchronized (stripe(storageKey)) {
+            source.client.del(storageKey);
+            target.client.del(storageKey);
+        }
+    }
+
+    /**
+     * Gruppiert Keys nach ihrem Knoten (Reihenfolge innerhalb einer Gruppe bleibt erhalten)
+     */
+    public <T> Map<UnifiedJedis, List<T>> group(Collection<T> items, Function<T, byte[]> storageKey) {
+        Ring current = ring;
+        Map<UnifiedJedis, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(current.owner(storageKey.apply(item)).client, k -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Der erste konfigurierte Knoten (z.B. für Befehle ohne Key)
+     */
+    public UnifiedJedis primary() {
+        return ring.nodes.get(0).client;
+    }
+
+    public List<UnifiedJedis> nodes() {
+        List<UnifiedJedis> clients = new ArrayList<>();
+        for (Node node : ring.nodes) {
+            clients.add(node.client);
+        }
+        return clients;
+    }
+
+    public List<HostAndPort> getNodeAddresses() {
+        List<HostAndPort> addresses = new ArrayList<>();
+        for (Node node : ring.nodes) {
+            addresses.add(node.address);
+        }
+        return addresses;
+    }
+
+    public List<String> getNodeNames() {
+        List<String> names = new ArrayList<>();
+        for (Node node : ring.nodes) {
+            names.add(node.address.toString());
+        }
+        return names;
+    }
+
+    public int size() {
+        return ring.nodes.size();
+    }
+
+    /**
+     * Fügt einen Knoten hinzu. Danach wandern nur die Keys, die im Ring auf den neuen Knoten fallen
+     * (ca. 1/n), Lesezugriffe fallen bis zum Abschluss von {@link #migrate(byte[])} auf den alten Knoten zurück.
+     */
+    public synchronized boolean addNode(HostAndPort address) {
+        Ring current = ring;
+        for (Node node : current.nodes) {
+            if (node.address.equals(address)) {
+                return false;
+            }
+        }
+        if (previous != null) {
+            throw new IllegalStateException("Es läuft bereits eine Migration");
+        }
+
+        List<Node> nodes = new ArrayList<>(current.nodes);
+        nodes.add(new Node(address, factory.apply(address)));
+        previous = current;
+        ring = new Ring(nodes, virtualNodes);
+        logger.info("[CloudStorage] Redis-Knoten {} hinzugefügt ({} Knoten)", address, nodes.size());
+        return true;
+    }
+
+    /**
+     * Verschiebt alle Keys, deren Besitzer sich geändert hat, per DUMP/RESTORE (inkl. Restlaufzeit).
+     * Bricht die Migration ab, bleibt der alte Ring samt Lese-Fallback aktiv und ein erneuter Aufruf
+     * setzt sie fort; bereits verschobene Keys liegen dann nicht mehr auf dem alten Knoten.
+     *
+     * @return Anzahl verschobener Keys
+     */
+    public long migrate(byte[] matchPattern) {
+        Ring before = previous;
+        if (before == null) {
+            return 0;
+        }
+        Ring current = ring;
+
+        long moved = 0;
+        for (Node source : before.nodes) {
+            String cursor = ScanParams.SCAN_POINTER_START;
+            ScanParams params = new ScanParams().match(matchPattern).count(500);
+            do {
+                ScanResult<byte[]> result = source.client.scan(cursor.getBytes(StandardCharsets.UTF_8), params);
+                for (byte[] key : result.getResult()) {
+                    Node target = current.owner(key);
+                    if (target != source && moveKey(key, source, target)) {
+                        moved++;
+                    }
+                }
+                cursor = result.getCursor();
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        }
+
+        synchronized (this) {
+            if (previous == before) {
+                previous = null;
+            }
+        }
+        logger.info("[CloudStorage] Shard-Migration abgeschlossen: {} Keys verschoben", moved);
+        return moved;
+    }
+
+    /**
+     * Verschiebt einen Key, sofern er noch auf dem alten Knoten liegt. Existiert er auf dem neuen Knoten bereits,
+     * wurde er dort vollständig neu geschrieben (Teil-Updates verschieben vorher über {@link #forKeyMigrated(byte[])}):
+     * Hashes werden feldweise ergänzt, ohne neuere Felder zu überschreiben, ansonsten gilt der neue Stand.
+     *
+     * @return true, wenn der Key per RESTORE übertragen wurde
+     */
+    private boolean moveKey(byte[] key, Node source, Node target) {
+        synchronized (stripe(key)) {
+            byte[] dump = source.client.dump(key);
+            if (dump == null) {
+                return false;
+            }
+            long ttl = source.client.pttl(key);
+            if (ttl == -2) {
+                // Zwischen DUMP und PTTL abgelaufen
+                return false;
+            }
+            boolean restored = true;
+            try {
+                target.client.restore(key, Math.max(0, ttl), dump);
+            } catch (JedisDataException e) {
+                if (e.getMessage() == null || !e.getMessage().startsWith("BUSYKEY")) {
+                    throw e;
+                }
+                restored = false;
+                mergeHash(key, source, target);
+            }
+            source.client.del(key);
+            return restored;
+        }
+    }
+
+    private void mergeHash(byte[] key, Node source, Node target) {
+        if (!"hash".equals(source.client.type(key)) || !"hash".equals(target.client.type(key))) {
+            return;
+        }
+        Map<byte[], byte[]> fields = source.client.hgetAll(key);
+        for (Map.Entry<byte[], byte[]> field : fields.entrySet()) {
+            target.client.hsetnx(key, field.getKey(), field.getValue());
+        }
+    }
+
+    private Object stripe(byte[] storageKey) {
+        return stripes[(int) (hash(storageKey) & (stripes.length - 1))];
+    }
+
+    public void close() {
+        for (Node node : ring.nodes) {
+            try {
+                node.client.close();
+            } catch (Exception e) {
+                logger.error("[CloudStorage] Fehler beim Schließen des Redis-Pools " + node.address + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 64-Bit-Hash (FNV-1a mit Murmur-Finalizer) über den Key bzw. dessen Hash-Tag
+     */
+    static long hash(byte[] key) {
+        int start = 0;
+        int end = key.length;
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] == '{') {
+                for (int j = i + 1; j < key.length; j++) {
+                    if (key[j] == '}') {
+                        if (j > i + 1) {
+                            start = i + 1;
+                            end = j;
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+
+        long hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= key[i] & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static class Node {
+        final HostAndPort address;
+        final UnifiedJedis client;
+
+        Node(HostAndPort address, UnifiedJedis client) {
+            this.address = address;
+            this.client = client;
+        }
+    }
+
+    private static class Ring {
+        final List<Node> nodes;
+        final TreeMap<Long, Node> points = new TreeMap<>();
+
+        Ring(List<Node> nodes, int virtualNodes) {
+            this.nodes = List.copyOf(nodes);
+            for (Node node : nodes) {
+                for (int i = 0; i < virtualNodes; i++) {
+                    points.put(hash((node.address + "#" + i).getBytes(StandardCharsets.UTF_8)), node);
+                }
+            }
+        }
+
+        Node owner(byte[] key) {
+            if (nodes.size() == 1) {
+                return nodes.get(0);
+            }
+            Map.Entry<Long, Node> entry = points.ceilingEntry(hash(key));
+            return entry != null ? entry.getValue() : points.firstEntry().getValue();
+        }
+    }
+}
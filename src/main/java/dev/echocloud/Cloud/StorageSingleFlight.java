@@ -0,0 +1,106 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.JsonElement;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Fasst gleichzeitige Backend-Loads für denselben Key zusammen (Single-Flight).
+ * Solange ein Load läuft, erhalten weitere Aufrufer dasselbe Ergebnis, statt einen eigenen
+ * GET bzw. HTTP-Request auszulösen. Die Umwandlung in den Zieltyp erfolgt pro Aufrufer.
+ */
+public class StorageSingleFlight {
+
+    private final boolean enabled;
+    // Key-Präfixe, für die zusammengefasst wird (leer = alle Keys)
+    private final List<String> namespaces;
+    private final ConcurrentHashMap<String, CompletableFuture<JsonElement>> inflight = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder savedRequests = new LongAdder();
+
+    public StorageSingleFlight(boolean enabled, List<String> namespaces) {
+        this.enabled = enabled;
+        this.namespaces = List.copyOf(namespaces);
+    }
+
+    /**
+     * Startet den Load oder hängt sich an einen bereits laufenden Load für denselben Key an
+     */
+    public CompletableFuture<JsonElement> load(String key, Supplier<CompletableFuture<JsonElement>> loader) {
+        if (!appliesTo(key)) {
+            return loader.get();
+        }
+
+        CompletableFuture<JsonElement> flight = new CompletableFuture<>();
+        CompletableFuture<JsonElement> existing = inflight.putIfAbsent(key, flight);
+        if (existing != null) {
+            savedRequests.increment();
+            // Kopie, damit ein Aufrufer das gemeinsame Future nicht abschließen oder abbrechen kann
+            return existing.copy();
+        }
+
+        loads.increment();
+        try {
+            loader.get().whenComplete((value, error) -> {
+                inflight.remove(key, flight);
+                if (error != null) {
+                    flight.completeExceptionally(error);
+                } else {
+                    flight.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inflight.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight.copy();
+    }
+
+    /**
+     * Nach einem eigenen Schreibvorgang: spätere Aufrufer starten einen neuen Load,
+     * statt das Ergebnis eines älteren Loads zu übernehmen
+     */
+    public void forget(String key) {
+        if (enabled) {
+            inflight.remove(key);
+        }
+    }
+
+    public boolean appliesTo(String key) {
+        if (!enabled) {
+            return false;
+        }
+        if (namespaces.isEmpty()) {
+            return true;
+        }
+        for (String namespace : namespaces) {
+            if (key.startsWith(namespace)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getInFlightCount() {
+        return inflight.size();
+    }
+
+    /**
+     * Anzahl tatsächlich gestarteter Loads über Single-Flight
+     */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * Anzahl Backend-Aufrufe, die durch Zusammenfassen eingespart wurden
+     */
+    public long getSavedRequests() {
+        return savedRequests.sum();
+    }
+}
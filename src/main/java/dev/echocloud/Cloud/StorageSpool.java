@@ -0,0 +1,622 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Lokaler Write-Ahead-Spool für CloudStorage.
+ * Schreibvorgänge, die das Backend nicht annimmt, werden an eine memory-mapped Segmentdatei angehängt
+ * und nach Wiederherstellung der Verbindung gebündelt und in Reihenfolge nachgespielt.
+ * Nach einem Absturz wird die Datei beim Start erneut eingelesen.
+ * <p>
+ * Satzformat: [int Länge][byte Typ][int Key-Länge][Key UTF-8][Wert (StorageCodecs)][int CRC32].
+ * Die Länge wird zuletzt geschrieben, unvollständige Sätze werden beim Einlesen über die CRC erkannt.
+ */
+public class StorageSpool {
+
+    private static final byte OP_STORE = 1;
+    private static final byte OP_DELETE = 2;
+    // Hebt einen früheren Satz auf, nachdem ein direkter Schreibvorgang ihn überholt hat
+    private static final byte OP_DISCARD = 3;
+    // Länge + Typ + Key-Länge + CRC
+    private static final int RECORD_OVERHEAD = 4 + 1 + 4 + 4;
+
+    private final Path file;
+    private final int capacity;
+    private final StorageCodecs codecs;
+    private final CloudLogger logger;
+    private final boolean fsyncAlways;
+    private final int batchSize;
+    private final long replayTimeoutMillis = 30_000;
+
+    private final Function<Map<String, JsonElement>, CompletableFuture<Map<String, Boolean>>> storeWriter;
+    private final Function<Collection<String>, CompletableFuture<Map<String, Boolean>>> deleteWriter;
+
+    // Geschützt durch this
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private boolean unsynced;
+    // Letzter Stand pro Key in Schreibreihenfolge, spätere Schreibvorgänge ersetzen frühere
+    private final LinkedHashMap<String, Entry> pending = new LinkedHashMap<>();
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final ScheduledExecutorService worker;
+    private final AtomicBoolean replaying = new AtomicBoolean(false);
+
+    private final LongAdder spooledWrites = new LongAdder();
+    private final LongAdder compactedWrites = new LongAdder();
+    private final LongAdder replayedWrites = new LongAdder();
+    private final LongAdder failedReplays = new LongAdder();
+    private final LongAdder droppedWrites = new LongAdder();
+    private final LongAdder rejectedWrites = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final LongAdder totalReplayNanos = new LongAdder();
+    private volatile double lastReplayRate;
+
+    /**
+     * @param fsyncPolicy "always" (force nach jedem Satz), "interval" (alle {@code fsyncIntervalMillis})
+     *                    oder "never" (nur beim Schließen)
+     * @param storeWriter  liefert pro Key true (übernommen) oder false (vom Backend endgültig abgelehnt, wird verworfen);
+     *                     fehlende Keys oder ein fehlgeschlagenes Future gelten als Verbindungsfehler und bleiben im Spool
+     * @param deleteWriter wie storeWriter
+     */
+    public StorageSpool(Path file, int capacity, String fsyncPolicy, long fsyncIntervalMillis,
+                        long replayIntervalMillis, int batchSize, StorageCodecs codecs, CloudLogger logger,
+                        Function<Map<String, JsonElement>, CompletableFuture<Map<String, Boolean>>> storeWriter,
+                        Function<Collection<String>, CompletableFuture<Map<String, Boolean>>> deleteWriter) throws IOException {
+        this.file = file;
+        this.capacity = capacity;
+        this.codecs = codecs;
+        this.logger = logger;
+        this.fsyncAlways = "always".equalsIgnoreCase(fsyncPolicy);
+        this.batchSize = batchSize;
+        this.storeWriter = storeWriter;
+        this.deleteWriter = deleteWriter;
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        synchronized (this) {
+            openSegment();
+            finishCompaction();
+            recover();
+        }
+
+        this.worker = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "EchoCloud-Storage-Spool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.worker.scheduleWithFixedDelay(this::replay, replayIntervalMillis, replayIntervalMillis, TimeUnit.MILLISECONDS);
+        if ("interval".equalsIgnoreCase(fsyncPolicy)) {
+            this.worker.scheduleWithFixedDelay(this::sync, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        if (pendingCount.get() > 0) {
+            logger.warn("[CloudStorage] Spool: {} ausstehende Schreibvorgänge aus {} wiederhergestellt", pendingCount.get(), file);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Liest alle vollständigen Sätze ein und setzt die Schreibposition dahinter
+     */
+    private void recover() {
+        int offset = 0;
+        while (offset + RECORD_OVERHEAD <= capacity) {
+            int length = buffer.getInt(offset);
+            if (length < 5 || length > capacity - offset - 8) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(offset + 4, length));
+            if ((int) crc.getValue() != buffer.getInt(offset + 4 + length)) {
+                logger.warn("[CloudStorage] Spool: Unvollständiger Satz bei Offset {} verworfen", offset);
+                break;
+            }
+
+            byte op = buffer.get(offset + 4);
+            int keyLength = buffer.getInt(offset + 5);
+            int valueLength = length - 5 - keyLength;
+            if (keyLength < 0 || valueLength < 0) {
+                break;
+            }
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(offset + 9, keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+
+            if (op == OP_DISCARD) {
+                untrack(key);
+            } else if (op == OP_DELETE) {
+                track(key, new Entry(null, null));
+            } else {
+                byte[] valueBytes = new byte[valueLength];
+                buffer.get(offset + 9 + keyLength, valueBytes);
+                try {
+                    track(key, new Entry(codecs.decode(valueBytes), valueBytes));
+                } catch (IOException e) {
+                    logger.warn("[CloudStorage] Spool: Wert für Key {} nicht lesbar: {}", key, e.getMessage());
+                }
+            }
+            offset += length + 8;
+        }
+
+        position = offset;
+        // Reste eines abgebrochenen Satzes entfernen, damit sie nicht hinter neuen Sätzen auftauchen
+        if (position + 4 <= capacity && buffer.getInt(position) != 0) {
+            zero(position, capacity);
+        }
+    }
+
+    /**
+     * Hängt einen Schreibvorgang an. Gibt false zurück, wenn der Spool voll ist.
+     */
+    public boolean appendStore(String key, JsonElement value) {
+        try {
+            return append(OP_STORE, key, value, codecs.encode(value));
+        } catch (IOException e) {
+            logger.error("[CloudStorage] Spool: Wert nicht kodierbar - Key: " + key + ", Error: " + e.getMessage());
+            droppedWrites.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Hängt einen Löschvorgang an. Gibt false zurück, wenn der Spool voll ist.
+     */
+    public boolean appendDelete(String key) {
+        return append(OP_DELETE, key, null, null);
+    }
+
+    private synchronized boolean append(byte op, String key, JsonElement value, byte[] valueBytes) {
+        try {
+            if (!write(encodeRecord(op, key, valueBytes))) {
+                droppedWrites.increment();
+                logger.error("[CloudStorage] Spool voll ({} Bytes) - Schreibvorgang für Key {} verworfen", capacity, key);
+                return false;
+            }
+        } catch (Exception e) {
+            droppedWrites.increment();
+            logger.error("[CloudStorage] Spool: Fehler beim Schreiben - Key: " + key + ", Error: " + e.getMessage());
+            return false;
+        }
+
+        spooledWrites.increment();
+        track(key, new Entry(op == OP_DELETE ? null : value, valueBytes));
+        return true;
+    }
+
+    /**
+     * Hängt einen kodierten Satz an (mit Kompaktierung, falls nötig). Gibt false zurück, wenn der Spool voll ist.
+     */
+    private boolean write(byte[] record) throws IOException {
+        if (position + record.length > capacity) {
+            compact();
+        }
+        if (position + record.length > capacity) {
+            return false;
+        }
+
+        // Inhalt vor der Länge schreiben, damit ein Satz erst vollständig sichtbar wird
+        buffer.put(position + 4, record, 4, record.length - 4);
+        buffer.putInt(position, record.length - 8);
+        position += record.length;
+
+        if (fsyncAlways) {
+            buffer.force();
+        } else {
+            unsynced = true;
+        }
+        return true;
+    }
+
+    /**
+     * Verwirft den ausstehenden Satz für den Key, nachdem ein Schreibvorgang am Spool vorbei erfolgreich war.
+     * Sonst würde das spätere Nachspielen den neueren Wert mit dem älteren überschreiben.
+     */
+    public void discard(String key) {
+        if (pendingCount.get() == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (!pending.containsKey(key)) {
+                return;
+            }
+            // Auch in der Datei vermerken, damit der Satz nach einem Neustart nicht wieder auftaucht
+            try {
+                write(encodeRecord(OP_DISCARD, key, null));
+            } catch (Exception e) {
+                logger.warn("[CloudStorage] Spool: Verwerfen von Key {} nicht gespeichert: {}", key, e.getMessage());
+            }
+            untrack(key);
+            if (pending.isEmpty()) {
+                reset();
+            }
+        }
+    }
+
+    private void track(String key, Entry entry) {
+        // Neu einfügen statt ersetzen, damit der Key ans Ende der Reihenfolge rückt
+        if (pending.remove(key) != null) {
+            compactedWrites.increment();
+        }
+        pending.put(key, entry);
+        pendingCount.set(pending.size());
+    }
+
+    private void untrack(String key) {
+        if (pending.remove(key) != null) {
+            compactedWrites.increment();
+        }
+        pendingCount.set(pending.size());
+    }
+
+    private static byte[] encodeRecord(byte op, String key, byte[] valueBytes) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int valueLength = valueBytes != null ? valueBytes.length : 0;
+        int length = 1 + 4 + keyBytes.length + valueLength;
+
+        ByteBuffer record = ByteBuffer.allocate(length + 8);
+        record.putInt(length);
+        record.put(op);
+        record.putInt(keyBytes.length);
+        record.put(keyBytes);
+        if (valueBytes != null) {
+            record.put(valueBytes);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, length);
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * Schreibt nur noch ausstehende Sätze an den Anfang des Segments. Das Mapping bleibt bestehen,
+     * ein erneutes map() würde bis zur nächsten GC zusätzlichen Speicher belegen und unter Windows
+     * das Ersetzen der Datei verhindern. Der neue Inhalt wird vorher als Journal gesichert,
+     * damit ein Absturz während des Überschreibens keine Sätze kostet.
+     */
+    private void compact() throws IOException {
+        ByteBuffer image = ByteBuffer.allocate(position);
+        for (Map.Entry<String, Entry> entry : pending.entrySet()) {
+            Entry value = entry.getValue();
+            image.put(encodeRecord(value.isDelete() ? OP_DELETE : OP_STORE, entry.getKey(), value.encoded));
+        }
+        int size = image.position();
+
+        Path journal = compactionJournal();
+        Path temp = journal.resolveSibling(journal.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            image.flip();
+            while (image.hasRemaining()) {
+                out.write(image);
+            }
+            out.force(true);
+        }
+        try {
+            Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("[CloudStorage] Spool: Kompaktierung fehlgeschlagen: {}", e.getMessage());
+            Files.deleteIfExists(temp);
+            return;
+        }
+
+        int previous = position;
+        buffer.put(0, image.array(), 0, size);
+        zero(size, previous);
+        buffer.force();
+        unsynced = false;
+        position = size;
+        Files.deleteIfExists(journal);
+
+        compactions.increment();
+        logger.debug("[CloudStorage] Spool kompaktiert: {} Sätze, {} Bytes", pending.size(), size);
+    }
+
+    private Path compactionJournal() {
+        return file.resolveSibling(file.getFileName() + ".compact");
+    }
+
+    /**
+     * Schließt eine beim Absturz unterbrochene Kompaktierung ab, indem das Journal erneut ins Segment kopiert wird
+     */
+    private void finishCompaction() throws IOException {
+        Path journal = compactionJournal();
+        Files.deleteIfExists(journal.resolveSibling(journal.getFileName() + ".tmp"));
+        if (!Files.exists(journal)) {
+            return;
+        }
+        byte[] image = Files.readAllBytes(journal);
+        if (image.length <= capacity) {
+            buffer.put(0, image);
+            zero(image.length, capacity);
+            buffer.force();
+            logger.warn("[CloudStorage] Spool: Unterbrochene Kompaktierung abgeschlossen ({} Bytes)", image.length);
+        }
+        Files.delete(journal);
+    }
+
+    /**
+     * Gibt den ausstehenden Wert zurück (JsonNull bei ausstehendem Löschen), sonst null
+     */
+    public JsonElement getPending(String key) {
+        if (pendingCount.get() == 0) {
+            return null;
+        }
+        synchronized (this) {
+            Entry entry = pending.get(key);
+            if (entry == null) {
+                return null;
+            }
+            return entry.isDelete() ? JsonNull.INSTANCE : entry.value;
+        }
+    }
+
+    /**
+     * true, solange noch Schreibvorgänge auf das Nachspielen warten.
+     * Neue Schreibvorgänge müssen dann ebenfalls in den Spool, damit die Reihenfolge erhalten bleibt.
+     */
+    public boolean hasPending() {
+        return pendingCount.get() > 0;
+    }
+
+    private void replay() {
+        if (pendingCount.get() == 0 || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (replayBatch()) {
+                // weiter, bis der Spool leer ist oder das Backend Fehler meldet
+            }
+        } catch (Exception e) {
+            logger.error("[CloudStorage] Spool: Fehler beim Nachspielen: " + e.getMessage());
+        } finally {
+            replaying.set(false);
+        }
+    }
+
+    /**
+     * Spielt einen Batch nach. Gibt false zurück, wenn der Spool leer ist oder ein Fehler auftrat.
+     */
+    private boolean replayBatch() {
+        Map<String, Entry> batch = new LinkedHashMap<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Entry>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                Map.Entry<String, Entry> entry = iterator.next();
+                batch.put(entry.getKey(), entry.getValue());
+            }
+            if (batch.isEmpty()) {
+                reset();
+                return false;
+            }
+        }
+
+        Map<String, JsonElement> stores = new LinkedHashMap<>();
+        List<String> deletes = new ArrayList<>();
+        batch.forEach((key, entry) -> {
+            if (entry.isDelete()) {
+                deletes.add(key);
+            } else {
+                stores.put(key, entry.value);
+            }
+        });
+
+        long start = System.nanoTime();
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        try {
+            if (!stores.isEmpty()) {
+                results.putAll(storeWriter.apply(stores).get(replayTimeoutMillis, TimeUnit.MILLISECONDS));
+            }
+            if (!deletes.isEmpty()) {
+                results.putAll(deleteWriter.apply(deletes).get(replayTimeoutMillis, TimeUnit.MILLISECONDS));
+            }
+        } catch (Exception e) {
+            logger.debug("[CloudStorage] Spool: Backend noch nicht erreichbar: {}", e.getMessage());
+        }
+        long nanos = System.nanoTime() - start;
+
+        int delivered = 0;
+        int rejected = 0;
+        synchronized (this) {
+            for (Map.Entry<String, Entry> entry : batch.entrySet()) {
+                Boolean result = results.get(entry.getKey());
+                if (result == null) {
+                    continue;
+                }
+                // Nur entfernen, wenn inzwischen kein neuerer Wert gespoolt wurde
+                pending.remove(entry.getKey(), entry.getValue());
+                if (result) {
+                    delivered++;
+                } else {
+                    // Endgültig abgelehnt (z.B. HTTP 4xx), ein erneuter Versuch würde den Spool dauerhaft blockieren
+                    rejected++;
+                    logger.error("[CloudStorage] Spool: Backend lehnt Schreibvorgang für Key {} ab, Satz verworfen", entry.getKey());
+                }
+            }
+            pendingCount.set(pending.size());
+            if (pending.isEmpty()) {
+                reset();
+            }
+        }
+
+        if (delivered > 0) {
+            replayedWrites.add(delivered);
+            totalReplayNanos.add(nanos);
+            lastReplayRate = delivered / Math.max(nanos / 1_000_000_000.0, 1e-9);
+            logger.debug("[CloudStorage] Spool: {} Schreibvorgänge nachgespielt in {}ms",
+                    delivered, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+        rejectedWrites.add(rejected);
+        if (delivered + rejected < batch.size()) {
+            failedReplays.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Leert das Segment, nachdem alle Sätze übertragen wurden
+     */
+    private void reset() {
+        if (position == 0) {
+            return;
+        }
+        zero(0, position);
+        position = 0;
+        buffer.force();
+        unsynced = false;
+        logger.info("[CloudStorage] Spool vollständig nachgespielt");
+    }
+
+    private void zero(int from, int to) {
+        byte[] zeros = new byte[Math.min(64 * 1024, Math.max(0, to - from))];
+        for (int offset = from; offset < to; offset += zeros.length) {
+            buffer.put(offset, zeros, 0, Math.min(zeros.length, to - offset));
+        }
+    }
+
+    private synchronized void sync() {
+        if (unsynced) {
+            buffer.force();
+            unsynced = false;
+        }
+    }
+
+    /**
+     * Versucht ein letztes Nachspielen und schreibt den Spool auf die Platte.
+     * Nicht übertragene Sätze bleiben erhalten und werden beim nächsten Start nachgespielt.
+     */
+    public void close() {
+        worker.shutdown();
+        try {
+            if (!worker.awaitTermination(replayTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                worker.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            worker.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        replay();
+        synchronized (this) {
+            try {
+                buffer.force();
+                channel.close();
+            } catch (IOException e) {
+                logger.error("[CloudStorage] Spool: Fehler beim Schließen: " + e.getMessage());
+            }
+            if (!pending.isEmpty()) {
+                logger.warn("[CloudStorage] Spool: {} Schreibvorgänge bleiben bis zum nächsten Start in {}", pending.size(), file);
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public synchronized int getUsedBytes() {
+        return position;
+    }
+
+    public int getCapacityBytes() {
+        return capacity;
+    }
+
+    public long getSpooledWrites() {
+        return spooledWrites.sum();
+    }
+
+    /**
+     * Anzahl Sätze, die durch einen späteren Schreibvorgang auf denselben Key überholt wurden
+     */
+    public long getCompactedWrites() {
+        return compactedWrites.sum();
+    }
+
+    public long getReplayedWrites() {
+        return replayedWrites.sum();
+    }
+
+    public long getFailedReplays() {
+        return failedReplays.sum();
+    }
+
+    /**
+     * Anzahl verworfener Schreibvorgänge, weil der Spool voll war
+     */
+    public long getDroppedWrites() {
+        return droppedWrites.sum();
+    }
+
+    /**
+     * Anzahl Sätze, die das Backend beim Nachspielen endgültig abgelehnt hat und die verworfen wurden
+     */
+    public long getRejectedWrites() {
+        return rejectedWrites.sum();
+    }
+
+    public long getCompactionCount() {
+        return compactions.sum();
+    }
+
+    /**
+     * Durchsatz des letzten Nachspiel-Batches in Schreibvorgängen pro Sekunde
+     */
+    public double getLastReplayRate() {
+        return lastReplayRate;
+    }
+
+    /**
+     * Durchschnittlicher Nachspiel-Durchsatz in Schreibvorgängen pro Sekunde
+     */
+    public double getAverageReplayRate() {
+        long nanos = totalReplayNanos.sum();
+        return nanos == 0 ? 0.0 : replayedWrites.sum() / (nanos / 1_000_000_000.0);
+    }
+
+    // value null = Löschen
+    private static class Entry {
+        final JsonElement value;
+        final byte[] encoded;
+
+        Entry(JsonElement value, byte[] encoded) {
+            this.value = value;
+            this.encoded = encoded;
+        }
+
+        boolean isDelete() {
+            return value == null;
+        }
+    }
+}
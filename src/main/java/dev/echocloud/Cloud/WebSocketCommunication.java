@@ -10,12 +10,15 @@ import java.io.IOException;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 public class WebSocketCommunication extends CloudCommunication {
     private final OkHttpClient httpClient;
     private WebSocket webSocket;
-    private int reconnectAttempts = 0;
+    private boolean permessageDeflate = true;
+    // Die Gegenstelle komprimiert per permessage-deflate, eigene Kompression wäre doppelte Arbeit
+    private volatile boolean transportCompressed = false;
 
     public WebSocketCommunication(String baseUrl, String serverId, String authToken, CloudLogger logger, boolean trustAllCerts, Server server) {
         super(baseUrl, serverId, authToken, logger, server);
@@ -43,6 +46,29 @@ public class WebSocketCommunication extends CloudCommunication {
         }
 
         this.httpClient = builder.build();
+
+        inboundRouter.register("heartbeat_request", message -> {
+            logger.debug("[EchoCloud] Heartbeat-Request empfangen");
+            sendHeartbeatResponse(message.getBody(HeartbeatRequest.class));
+        });
+        inboundRouter.setFallback(message -> {
+            if (message.getType() == null) {
+                logger.info("[EchoCloud] Nachricht: " + message.getRaw());
+            } else {
+                logger.debug("[EchoCloud] Nachricht ohne Handler (Typ: " + message.getType() + ")");
+            }
+        });
+    }
+
+    /**
+     * Komprimierung auf Protokollebene (permessage-deflate) ab compression.thresholdBytes, sofern die Cloud sie aushandelt
+     */
+    public void setPermessageDeflate(boolean permessageDeflate) {
+        this.permessageDeflate = permessageDeflate;
+    }
+
+    public boolean isTransportCompressed() {
+        return transportCompressed;
     }
 
     @Override
@@ -50,19 +76,35 @@ public class WebSocketCommunication extends CloudCommunication {
         String wsUrl = baseUrl.replace("http", "ws") + "/ws/" + serverId + "/" + authToken;
         Request request = new Request.Builder().url(wsUrl).build();
 
-        this.webSocket = httpClient.newWebSocket(request, new WebSocketListener() {
+        // WebSocket-Pings erkennen halboffene Verbindungen (ausbleibendes Pong führt zu onFailure)
+        OkHttpClient.Builder clientBuilder = httpClient.newBuilder();
+        int healthCheckInterval = reconnectPolicy.getHealthCheckIntervalSeconds();
+        if (healthCheckInterval > 0) {
+            clientBuilder.pingInterval(healthCheckInterval, TimeUnit.SECONDS);
+        }
+        // OkHttp bietet permessage-deflate immer an; ohne Freigabe wird ausgehend nie komprimiert
+        clientBuilder.minWebSocketMessageToCompress(permessageDeflate ? payloadCodec.getThresholdBytes() : Long.MAX_VALUE);
+        OkHttpClient client = clientBuilder.build();
+
+        this.webSocket = client.newWebSocket(request, new WebSocketListener() {
             @Override
             public void onOpen(WebSocket webSocket, Response response) {
                 connected = true;
-                reconnectAttempts = 0;
-                logger.info("[EchoCloud] WebSocket verbunden: " + wsUrl);
+                onConnected();
+                String extensions = response.header("Sec-WebSocket-Extensions");
+                transportCompressed = permessageDeflate && extensions != null && extensions.contains("permessage-deflate");
+                logger.info("[EchoCloud] WebSocket verbunden: " + wsUrl + (transportCompressed ? " (permessage-deflate)" : ""));
             }
 
             @Override
-            public void onMessage(WebSocket webSocket, String text) {
+            public void onMessage(WebSocket webSocket, String raw) {
+                String text = decodeInbound(raw);
+                if (text == null) {
+                    return;
+                }
                 logger.debug("[EchoCloud] Nachricht empfangen: " + text);
 
-                handleMessage(text);
+                inboundRouter.route(text, null);
             }
 
             @Override
@@ -81,20 +123,6 @@ public class WebSocketCommunication extends CloudCommunication {
         });
     }
 
-    private void handleMessage(String message) {
-        try {
-            HeartbeatRequest heartbeatRequest = gson.fromJson(message, HeartbeatRequest.class);
-            if ("heartbeat_request".equals(heartbeatRequest.type)) {
-                logger.debug("[EchoCloud] Heartbeat-Request empfangen");
-
-                sendHeartbeatResponse(heartbeatRequest);
-                return;
-            }
-        } catch (Exception e) {
-            logger.info("[EchoCloud] Nachricht: " + message);
-        }
-    }
-
     @Override
     public void sendHeartbeatResponse(HeartbeatRequest request) {
         if (!connected || webSocket == null) {
@@ -105,7 +133,7 @@ public class WebSocketCommunication extends CloudCommunication {
         HeartbeatResponse response = createHeartbeatResponse(request);
         String json = gson.toJson(response);
 
-        if (webSocket.send(json)) {
+        if (send(webSocket, json)) {
             logger.debug("[EchoCloud] Heartbeat-Response gesendet");
         } else {
             logger.error("[EchoCloud] Fehler beim Senden der Heartbeat-Response");
@@ -123,7 +151,7 @@ public class WebSocketCommunication extends CloudCommunication {
             HeartbeatResponse shutdownHeartbeat = createShutdownHeartbeat();
             String json = gson.toJson(shutdownHeartbeat);
 
-            if (webSocket.send(json)) {
+            if (send(webSocket, json)) {
                 logger.info("[EchoCloud] Shutdown-Heartbeat über WebSocket gesendet - Server ist jetzt OFFLINE");
             } else {
                 logger.error("[EchoCloud] Fehler beim Senden des Shutdown-Heartbeats über WebSocket");
@@ -133,21 +161,28 @@ public class WebSocketCommunication extends CloudCommunication {
         }
     }
 
-    private void scheduleReconnect() {
-        if (reconnectAttempts >= maxReconnectAttempts) {
-            logger.error("[EchoCloud] Maximale Reconnect-Versuche erreicht ({}). Gebe auf.", maxReconnectAttempts);
-            return;
+    @Override
+    protected CompletableFuture<Boolean> sendRaw(String targetServerId, String json) {
+        // Die Cloud leitet die Nachricht anhand von target_id weiter
+        WebSocket socket = webSocket;
+        if (!connected || socket == null) {
+            return CompletableFuture.completedFuture(false);
         }
+        return CompletableFuture.completedFuture(send(socket, json));
+    }
 
-        reconnectAttempts++;
-        logger.info("[EchoCloud] Versuche Reconnect in {}s... (Versuch {}/{})",
-                reconnectInterval, reconnectAttempts, maxReconnectAttempts);
+    /**
+     * Sendet eine Nachricht, ab der Schwelle komprimiert (außer bei ausgehandeltem permessage-deflate)
+     */
+    private boolean send(WebSocket socket, String json) {
+        return socket.send(transportCompressed ? json : payloadCodec.encode(json));
+    }
 
-        scheduler.schedule(() -> {
-            if (!connected) {
-                connect();
-            }
-        }, reconnectInterval, TimeUnit.SECONDS);
+    private void scheduleReconnect() {
+        long delay = planReconnect("[EchoCloud]");
+        if (delay >= 0) {
+            reconnectAfter(delay);
+        }
     }
 
     @Override
@@ -178,7 +213,7 @@ public class WebSocketCommunication extends CloudCommunication {
     @Override
     public void disconnect() {
         connected = false;
-        cloudStorage.close();
+        closeCloudStorage();
         if (webSocket != null) {
             webSocket.close(1000, "Client disconnect");
         }
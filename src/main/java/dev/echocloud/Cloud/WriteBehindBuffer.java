@@ -0,0 +1,268 @@
+package dev.echocloud.Cloud;
+
+import com.google.gson.JsonElement;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Write-Behind-Puffer für CloudStorage.
+ * Schreibvorgänge landen in einer Dirty-Map (pro Key nur der letzte Wert) und werden
+ * von einem Hintergrund-Thread gebündelt an das Backend übertragen.
+ */
+public class WriteBehindBuffer {
+
+    private final Function<Map<String, JsonElement>, CompletableFuture<Map<String, Boolean>>> writer;
+    private final CloudLogger logger;
+    private final int batchSize;
+    private final int flushThreshold;
+    private final long flushTimeoutMillis;
+
+    // Noch nicht übertragene Werte
+    private final ConcurrentHashMap<String, JsonElement> dirty = new ConcurrentHashMap<>();
+    // Werte, die gerade übertragen werden (für Read-your-writes während des Flush)
+    private final ConcurrentHashMap<String, JsonElement> inflight = new ConcurrentHashMap<>();
+    // Generation des zuletzt geschriebenen Werts pro Key; fehlt der Eintrag, wurde der Key seitdem verworfen.
+    // Änderungen an dirty laufen unter compute() auf dieser Map, damit sie sich nicht überholen.
+    private final ConcurrentHashMap<String, Long> generations = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    private final LongAdder acceptedWrites = new LongAdder();
+    private final LongAdder coalescedWrites = new LongAdder();
+    private final LongAdder flushedWrites = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong lastFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public WriteBehindBuffer(Function<Map<String, JsonElement>, CompletableFuture<Map<String, Boolean>>> writer,
+                             CloudLogger logger, long flushIntervalMillis, int batchSize, int flushThreshold) {
+        this.writer = writer;
+        this.logger = logger;
+        this.batchSize = batchSize;
+        this.flushThreshold = flushThreshold;
+        this.flushTimeoutMillis = 30_000;
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "EchoCloud-Storage-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Nimmt einen Schreibvorgang auf. Ein noch ausstehender Wert für denselben Key wird ersetzt.
+     */
+    public void enqueue(String key, JsonElement value) {
+        acceptedWrites.increment();
+        long generation = sequence.incrementAndGet();
+        generations.compute(key, (k, previous) -> {
+            if (dirty.put(key, value) != null) {
+                coalescedWrites.increment();
+            }
+            return generation;
+        });
+
+        if (dirty.size() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushRequested.set(false);
+                    flushAll();
+                });
+            } catch (Exception e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Gibt den noch nicht bestätigten Wert für einen Key zurück (Read-your-writes), sonst null
+     */
+    public JsonElement getPending(String key) {
+        JsonElement value = dirty.get(key);
+        return value != null ? value : inflight.get(key);
+    }
+
+    /**
+     * Verwirft einen ausstehenden Wert und führt die Aktion erst nach einem laufenden Flush aus,
+     * damit ein bereits übertragener Wert die Aktion nicht überschreibt (z.B. beim Löschen).
+     */
+    public <T> CompletableFuture<T> discardThen(String key, Supplier<CompletableFuture<T>> action) {
+        // Generation entfernen, damit ein fehlgeschlagener laufender Flush den Wert nicht zurücklegt
+        generations.compute(key, (k, previous) -> {
+            dirty.remove(key);
+            return null;
+        });
+        if (!inflight.containsKey(key)) {
+            return action.get();
+        }
+        return CompletableFuture.supplyAsync(() -> null, flusher).thenCompose(ignored -> action.get());
+    }
+
+    private void flushAll() {
+        try {
+            while (!dirty.isEmpty()) {
+                if (!flushBatch()) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            logger.error("[CloudStorage] Write-Behind: Fehler beim Flush: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Überträgt einen Batch. Gibt false zurück, wenn das Backend Fehler gemeldet hat.
+     */
+    private boolean flushBatch() {
+        Map<String, JsonElement> batch = new LinkedHashMap<>();
+        Map<String, Long> batchGenerations = new HashMap<>();
+        Iterator<String> iterator = dirty.keySet().iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            String key = iterator.next();
+            generations.computeIfPresent(key, (k, generation) -> {
+                JsonElement value = dirty.get(key);
+                if (value != null) {
+                    // Erst inflight eintragen, dann aus dirty entfernen, damit Reads den Wert nie verpassen
+                    inflight.put(key, value);
+                    dirty.remove(key);
+                    batch.put(key, value);
+                    batchGenerations.put(key, generation);
+                }
+                return generation;
+            });
+        }
+
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        Map<String, Boolean> results;
+        try {
+            results = writer.apply(batch).get(flushTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            logger.error("[CloudStorage] Write-Behind: Batch mit " + batch.size() + " Keys fehlgeschlagen: " + e.getMessage());
+            results = Map.of();
+        }
+        recordFlush(System.nanoTime() - start);
+
+        boolean allSuccessful = true;
+        for (Map.Entry<String, JsonElement> entry : batch.entrySet()) {
+            String key = entry.getKey();
+            long generation = batchGenerations.get(key);
+            if (Boolean.TRUE.equals(results.get(key))) {
+                flushedWrites.increment();
+                generations.remove(key, generation);
+            } else {
+                // Nur zurücklegen, wenn der Key seitdem weder neu geschrieben noch verworfen wurde
+                generations.computeIfPresent(key, (k, current) -> {
+                    if (current == generation) {
+                        dirty.putIfAbsent(key, entry.getValue());
+                    }
+                    return current;
+                });
+                failedWrites.increment();
+                allSuccessful = false;
+            }
+            inflight.remove(key, entry.getValue());
+        }
+
+        logger.debug("[CloudStorage] Write-Behind: {} Keys übertragen in {}ms",
+                batch.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return allSuccessful;
+    }
+
+    private void recordFlush(long nanos) {
+        flushCount.increment();
+        totalFlushNanos.add(nanos);
+        lastFlushNanos.set(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Stoppt den Hintergrund-Thread und überträgt alle ausstehenden Werte
+     */
+    public void close() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(flushTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        int pending = dirty.size();
+        flushAll();
+        if (!dirty.isEmpty()) {
+            logger.error("[CloudStorage] Write-Behind: {} von {} Keys konnten beim Schließen nicht übertragen werden",
+                    dirty.size(), pending);
+        } else if (pending > 0) {
+            logger.info("[CloudStorage] Write-Behind: {} ausstehende Keys beim Schließen übertragen", pending);
+        }
+    }
+
+    public int getPendingCount() {
+        return dirty.size() + inflight.size();
+    }
+
+    public long getAcceptedWrites() {
+        return acceptedWrites.sum();
+    }
+
+    public long getCoalescedWrites() {
+        return coalescedWrites.sum();
+    }
+
+    public long getFlushedWrites() {
+        return flushedWrites.sum();
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.sum();
+    }
+
+    /**
+     * Anteil der Schreibvorgänge, die durch Zusammenfassen eingespart wurden (0.0 - 1.0)
+     */
+    public double getCoalescingRatio() {
+        long accepted = acceptedWrites.sum();
+        return accepted == 0 ? 0.0 : (double) coalescedWrites.sum() / accepted;
+    }
+
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    public double getAverageFlushMillis() {
+        long count = flushCount.sum();
+        return count == 0 ? 0.0 : totalFlushNanos.sum() / (double) count / 1_000_000.0;
+    }
+
+    public double getLastFlushMillis() {
+        return lastFlushNanos.get() / 1_000_000.0;
+    }
+
+    public double getMaxFlushMillis() {
+        return maxFlushNanos.get() / 1_000_000.0;
+    }
+}
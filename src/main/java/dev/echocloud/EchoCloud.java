@@ -3,6 +3,8 @@ package dev.echocloud;
 import dev.echocloud.API.EchoCloudAPI;
 import dev.echocloud.Cloud.CloudCommunication;
 import dev.echocloud.Cloud.CloudLogger;
+import dev.echocloud.Cloud.MainThreadDispatcher;
+import dev.echocloud.Cloud.PlayerPrefetch;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.ServicePriority;
@@ -19,6 +21,8 @@ public final class EchoCloud extends JavaPlugin implements EchoCloudAPI {
 
     private static EchoCloud instance;
     private CloudCommunication communication;
+    private PlayerPrefetch prefetch;
+    private MainThreadDispatcher mainThreadDispatcher;
     private PluginConfig config;
     private Instant startTime;
     private CloudLogger logger;
@@ -67,6 +71,10 @@ public final class EchoCloud extends JavaPlugin implements EchoCloudAPI {
 
             communication.setMetricsProvider(new PaperMetricsProvider());
 
+            mainThreadDispatcher = MainThreadDispatcher.fromSettings(communication.getStorageSettings(), logger);
+            mainThreadDispatcher.start(this);
+            communication.setMainThreadDispatcher(mainThreadDispatcher);
+
             communication.connect();
             logger.info("[EchoCloud] Kommunikation gestartet (Typ: {})", communicationType);
 
@@ -77,6 +85,9 @@ public final class EchoCloud extends JavaPlugin implements EchoCloudAPI {
             return;
         }
 
+        prefetch = new PlayerPrefetch(communication, logger);
+        getServer().getPluginManager().registerEvents(prefetch, this);
+
         getServer().getServicesManager().register(EchoCloudAPI.class, this, this, ServicePriority.Normal);
 
         logger.info("[EchoCloud] Plugin erfolgreich gestartet! Server-ID: {}", serverId);
@@ -85,9 +96,17 @@ public final class EchoCloud extends JavaPlugin implements EchoCloudAPI {
     @Override
     public void onDisable() {
         getServer().getServicesManager().unregister(EchoCloudAPI.class, this);
+        // Write-Backs speichern, solange die Verbindung noch offen ist
+        if (prefetch != null) {
+            prefetch.close();
+        }
         if (getCommunication() != null) {
             getCommunication().shutdown();
         }
+        // Verbleibende Callbacks noch auf dem Server-Thread ausführen
+        if (mainThreadDispatcher != null) {
+            mainThreadDispatcher.close();
+        }
         instance = null;
     }
 
@@ -160,6 +179,11 @@ public final class EchoCloud extends JavaPlugin implements EchoCloudAPI {
         return communication;
     }
 
+    @Override
+    public PlayerPrefetch getPrefetch() {
+        return prefetch;
+    }
+
     @Override
     public boolean isConnected() {
         return communication != null && communication.isConnected();
@@ -1,5 +1,6 @@
 package dev.echocloud.Events;
 
+import org.bukkit.Bukkit;
 import org.bukkit.event.Event;
 
 // Base Event Klasse für alle EchoCloud Events (optional, für gemeinsame Properties)
@@ -9,6 +10,8 @@ public abstract class EchoCloudEvent extends Event {
     protected final long timestamp;
 
     public EchoCloudEvent(String communicationType, String serverId) {
+        // Außerhalb des Server-Threads erstellte Events sind asynchron (vom Event-Dispatcher geliefert)
+        super(!Bukkit.isPrimaryThread());
         this.communicationType = communicationType;
         this.serverId = serverId;
         this.timestamp = System.currentTimeMillis();
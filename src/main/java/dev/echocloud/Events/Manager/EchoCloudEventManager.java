@@ -1,24 +1,258 @@
 package dev.echocloud.Events.Manager;
 
+import dev.echocloud.Cloud.CloudLogger;
+import dev.echocloud.Cloud.MainThreadDispatcher;
 import dev.echocloud.Events.*;
-import org.bukkit.Bukkit;
 import org.bukkit.Server;
+import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.PluginManager;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
 /**
- * Manager-Klasse zum einfachen Feuern von EchoCloud Events für Paper
+ * Manager-Klasse zum einfachen Feuern von EchoCloud Events für Paper.
+ * Events werden nicht im Thread des Aufrufers (Subscriber, OkHttp, Scheduler) an die Listener geliefert,
+ * sondern über einen eigenen Dispatcher-Thread mit begrenztem Ringpuffer als asynchrone Events
+ * oder gesammelt pro Tick auf dem Server-Thread. Das Event wird erst im zustellenden Thread erstellt,
+ * damit sein async-Flag zum Thread passt. Hat eine Event-Klasse keine Listener, wird das Event gar nicht erst erstellt.
  */
 public class EchoCloudEventManager {
     private final String communicationType;
     private final String serverId;
     private final Server server;
     private final PluginManager pluginManager;
+    private final CloudLogger logger;
+
+    private volatile EventDispatchSettings settings = new EventDispatchSettings();
+    private volatile MainThreadDispatcher mainThread;
+    private volatile BlockingQueue<PendingEvent> queue;
+    private Thread dispatcher;
+    private volatile boolean running = false;
+
+    private final AtomicInteger maxQueued = new AtomicInteger();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failedListeners = new LongAdder();
+    private final LongAdder listenerNanos = new LongAdder();
+    private final AtomicLong maxListenerNanos = new AtomicLong();
+    private final Map<Class<?>, LongAdder> dropped = new ConcurrentHashMap<>();
+    private final Map<Class<?>, HandlerList> handlerLists = new ConcurrentHashMap<>();
+    private final Map<Class<?>, AtomicLong> sampleCounters = new ConcurrentHashMap<>();
+    private final LongAdder skippedNoListeners = new LongAdder();
+    private final LongAdder skippedSampled = new LongAdder();
 
     public EchoCloudEventManager(String communicationType, String serverId, Server server) {
+        this(communicationType, serverId, server, new CloudLogger(false));
+    }
+
+    public EchoCloudEventManager(String communicationType, String serverId, Server server, CloudLogger logger) {
         this.communicationType = communicationType;
         this.serverId = serverId;
         this.server = server;
         this.pluginManager = server.getPluginManager();
+        this.logger = logger;
+        start();
+    }
+
+    /**
+     * Übernimmt neue Einstellungen; der Ringpuffer wird mit der neuen Kapazität neu angelegt
+     */
+    public synchronized void setSettings(EventDispatchSettings settings) {
+        this.settings = settings;
+        close(1000);
+        start();
+    }
+
+    /**
+     * Dispatcher für die Zustellung auf dem Server-Thread (ohne Dispatcher wird asynchron zugestellt)
+     */
+    public void setMainThreadDispatcher(MainThreadDispatcher mainThread) {
+        this.mainThread = mainThread;
+    }
+
+    private synchronized void start() {
+        if (running) {
+            return;
+        }
+        BlockingQueue<PendingEvent> created = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        queue = created;
+        running = true;
+        dispatcher = new Thread(() -> runDispatcher(created), "EchoCloud-Events");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    private void runDispatcher(BlockingQueue<PendingEvent> source) {
+        while (running || !source.isEmpty()) {
+            try {
+                PendingEvent pending = source.poll(100, TimeUnit.MILLISECONDS);
+                if (pending != null) {
+                    deliver(pending.factory);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                // Der Dispatcher-Thread darf an einem einzelnen Event nicht sterben
+                logger.error("[EchoCloud] Fehler im Event-Dispatcher: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stoppt den Dispatcher-Thread; verbleibende Events werden noch zugestellt (höchstens {@code timeoutMillis} lang).
+     * Danach gefeuerte Events werden direkt im aufrufenden Thread zugestellt.
+     */
+    public synchronized void close(long timeoutMillis) {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            dispatcher.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dispatcher.isAlive()) {
+            dispatcher.interrupt();
+        }
+        PendingEvent pending;
+        while ((pending = queue.poll()) != null) {
+            drop(pending.type);
+        }
+    }
+
+    /**
+     * Stellt ein Event je nach Einstellung für seine Klasse zu
+     */
+    private void dispatch(Class<? extends EchoCloudEvent> type, Supplier<? extends EchoCloudEvent> factory) {
+        EventDispatchSettings current = settings;
+        if (!shouldFire(type, current)) {
+            return;
+        }
+        switch (current.getDelivery(type)) {
+            case SYNC -> deliver(factory);
+            case MAIN_THREAD -> {
+                MainThreadDispatcher main = mainThread;
+                if (main != null) {
+                    main.execute(() -> deliver(factory));
+                } else {
+                    enqueue(type, factory, current);
+                }
+            }
+            default -> enqueue(type, factory, current);
+        }
+    }
+
+    /**
+     * Prüft vor dem Erstellen, ob das Event Listener hat und ob es in die Stichprobe fällt
+     */
+    private boolean shouldFire(Class<? extends EchoCloudEvent> type, EventDispatchSettings current) {
+        if (!hasListeners(type)) {
+            skippedNoListeners.increment();
+            return false;
+        }
+        int rate = current.getSampleRate(type);
+        if (rate > 1 && sampleCounters.computeIfAbsent(type, k -> new AtomicLong()).getAndIncrement() % rate != 0) {
+            skippedSampled.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Prüft die HandlerList der Event-Klasse (wird einmalig per Reflection aufgelöst)
+     */
+    private boolean hasListeners(Class<? extends EchoCloudEvent> type) {
+        HandlerList handlers = handlerLists.computeIfAbsent(type, EchoCloudEventManager::resolveHandlerList);
+        // Ohne auflösbare HandlerList wird vorsichtshalber immer gefeuert
+        return handlers == null || handlers.getRegisteredListeners().length > 0;
+    }
+
+    private static HandlerList resolveHandlerList(Class<?> type) {
+        try {
+            return (HandlerList) type.getMethod("getHandlerList").invoke(null);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return null;
+        }
+    }
+
+    private void enqueue(Class<? extends EchoCloudEvent> type, Supplier<? extends EchoCloudEvent> factory,
+                         EventDispatchSettings current) {
+        BlockingQueue<PendingEvent> target = queue;
+        if (!running || target == null) {
+            deliver(factory);
+            return;
+        }
+
+        PendingEvent pending = new PendingEvent(type, factory);
+        boolean accepted = target.offer(pending);
+        if (!accepted) {
+            switch (current.getOverflow(type)) {
+                case BLOCK -> {
+                    try {
+                        accepted = target.offer(pending, current.getBlockTimeoutMillis(), TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                case DROP_OLDEST -> {
+                    while (!accepted) {
+                        PendingEvent oldest = target.poll();
+                        if (oldest != null) {
+                            drop(oldest.type);
+                        }
+                        accepted = target.offer(pending);
+                    }
+                }
+                case CALLER_RUNS -> {
+                    deliver(factory);
+                    return;
+                }
+                default -> {
+                }
+            }
+        }
+
+        if (!accepted) {
+            drop(type);
+            return;
+        }
+        maxQueued.accumulateAndGet(target.size(), Math::max);
+    }
+
+    private void drop(Class<?> type) {
+        dropped.computeIfAbsent(type, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Erstellt das Event im aktuellen Thread und ruft die Listener auf
+     */
+    private <T extends EchoCloudEvent> T deliver(Supplier<T> factory) {
+        T event = null;
+        long start = System.nanoTime();
+        try {
+            event = factory.get();
+            pluginManager.callEvent(event);
+            delivered.increment();
+        } catch (Exception e) {
+            failedListeners.increment();
+            String name = event != null ? event.getEventName() : "Event (Erstellung fehlgeschlagen)";
+            logger.error("[EchoCloud] Fehler beim Zustellen von " + name + ": " + e.getMessage());
+        }
+        long duration = System.nanoTime() - start;
+        listenerNanos.add(duration);
+        maxListenerNanos.accumulateAndGet(duration, Math::max);
+        return event;
     }
 
     /**
@@ -26,96 +260,99 @@ public class EchoCloudEventManager {
      */
 
     public void fireServerCommunication(String targetServerId, String messageType, String payload, boolean successful) {
-        EchoCloudServerCommunicationEvent event = new EchoCloudServerCommunicationEvent(
+        dispatch(EchoCloudServerCommunicationEvent.class, () -> new EchoCloudServerCommunicationEvent(
                 communicationType, serverId, targetServerId, messageType, payload, successful
-        );
-        pluginManager.callEvent(event);
+        ));
     }
 
     /**
      * Feuert ein Connection Established Event
      */
     public void fireConnectionEstablished(String connectionUrl, boolean isReconnect) {
-        EchoCloudConnectionEstablishedEvent event = new EchoCloudConnectionEstablishedEvent(
+        dispatch(EchoCloudConnectionEstablishedEvent.class, () -> new EchoCloudConnectionEstablishedEvent(
                 communicationType, serverId, connectionUrl, isReconnect
-        );
-        pluginManager.callEvent(event);
+        ));
     }
 
     /**
      * Feuert ein Connection Lost Event
      */
     public void fireConnectionLost(String reason, Exception exception, int reconnectAttempt) {
-        EchoCloudConnectionLostEvent event = new EchoCloudConnectionLostEvent(
+        dispatch(EchoCloudConnectionLostEvent.class, () -> new EchoCloudConnectionLostEvent(
                 communicationType, serverId, reason, exception, reconnectAttempt
-        );
-        pluginManager.callEvent(event);
+        ));
     }
 
     /**
      * Feuert ein Heartbeat Request Event
      */
     public void fireHeartbeatRequest(String targetServerId, String requestData) {
-        EchoCloudHeartbeatRequestEvent event = new EchoCloudHeartbeatRequestEvent(
+        dispatch(EchoCloudHeartbeatRequestEvent.class, () -> new EchoCloudHeartbeatRequestEvent(
                 communicationType, serverId, targetServerId, requestData
-        );
-        pluginManager.callEvent(event);
+        ));
     }
 
     /**
      * Feuert ein Heartbeat Response Event
      */
     public void fireHeartbeatResponse(boolean successful, String responseData) {
-        EchoCloudHeartbeatResponseEvent event = new EchoCloudHeartbeatResponseEvent(
+        dispatch(EchoCloudHeartbeatResponseEvent.class, () -> new EchoCloudHeartbeatResponseEvent(
                 communicationType, serverId, successful, responseData
-        );
-        pluginManager.callEvent(event);
+        ));
     }
 
     /**
      * Feuert ein Shutdown Event
      */
     public void fireShutdown(String shutdownReason, boolean graceful) {
-        EchoCloudShutdownEvent event = new EchoCloudShutdownEvent(
+        dispatch(EchoCloudShutdownEvent.class, () -> new EchoCloudShutdownEvent(
                 communicationType, serverId, shutdownReason, graceful
-        );
-        pluginManager.callEvent(event);
+        ));
     }
 
     /**
      * Feuert ein Log Event
      */
     public void fireLogEvent(String playerName, String uuid, String action, boolean forced, boolean successful) {
-        EchoCloudLogEvent event = new EchoCloudLogEvent(
+        dispatch(EchoCloudLogEvent.class, () -> new EchoCloudLogEvent(
                 communicationType, serverId, playerName, uuid, action, forced, successful
-        );
-        pluginManager.callEvent(event);
+        ));
     }
 
     /**
      * Feuert ein Message Received Event
      */
     public void fireMessageReceived(String messageContent, String messageType, String senderServerId) {
-        EchoCloudMessageReceivedEvent event = new EchoCloudMessageReceivedEvent(
-                communicationType, serverId, messageContent, messageType, senderServerId
-        );
-        pluginManager.callEvent(event);
+        fireLazyMessageReceived(() -> messageContent, messageType, senderServerId);
+    }
+
+    /**
+     * Feuert ein Message Received Event; der Inhalt wird nur abgefragt, wenn das Event tatsächlich erstellt wird
+     */
+    public void fireLazyMessageReceived(Supplier<String> messageContent, String messageType, String senderServerId) {
+        dispatch(EchoCloudMessageReceivedEvent.class, () -> new EchoCloudMessageReceivedEvent(
+                communicationType, serverId, messageContent.get(), messageType, senderServerId
+        ));
     }
 
     /**
      * Feuert ein Reconnect Attempt Event und gibt zurück, ob es erlaubt ist
      */
     public boolean fireReconnectAttempt(int attemptNumber, int maxAttempts, int delaySeconds) {
-        EchoCloudReconnectAttemptEvent event = new EchoCloudReconnectAttemptEvent(
-                communicationType, serverId, attemptNumber, maxAttempts, delaySeconds
-        );
+        // Ohne Listener kann niemand den Versuch abbrechen
+        if (!hasListeners(EchoCloudReconnectAttemptEvent.class)) {
+            skippedNoListeners.increment();
+            return true;
+        }
 
-        // Event synchron feuern - in Bukkit/Paper ist callEvent bereits synchron
-        pluginManager.callEvent(event);
+        // Immer im aufrufenden Thread zustellen, da das Ergebnis direkt ausgewertet wird
+        EchoCloudReconnectAttemptEvent event = deliver(() -> new EchoCloudReconnectAttemptEvent(
+                communicationType, serverId, attemptNumber, maxAttempts, delaySeconds
+        ));
 
         // Prüfen ob das Event gecancelt wurde oder einen spezifischen Rückgabewert hat
         // Falls das Event Cancellable implementiert:
-        return !event.isCancelled();
+        return event == null || !event.isCancelled();
 
     }
 
@@ -123,21 +360,26 @@ public class EchoCloudEventManager {
      * Feuert ein Authentication Failed Event
      */
     public void fireAuthenticationFailed(String authToken, String errorMessage, int responseCode) {
-        EchoCloudAuthenticationFailedEvent event = new EchoCloudAuthenticationFailedEvent(
+        dispatch(EchoCloudAuthenticationFailedEvent.class, () -> new EchoCloudAuthenticationFailedEvent(
                 communicationType, serverId, authToken, errorMessage, responseCode
-        );
-        pluginManager.callEvent(event);
+        ));
     }
 
     /**
      * Feuert ein Redis Channel Event (nur für Redis-Kommunikation)
      */
     public void fireRedisChannelEvent(String channelName, String operation, String message) {
+        fireLazyRedisChannelEvent(channelName, operation, () -> message);
+    }
+
+    /**
+     * Feuert ein Redis Channel Event; die Nachricht wird nur abgefragt, wenn das Event tatsächlich erstellt wird
+     */
+    public void fireLazyRedisChannelEvent(String channelName, String operation, Supplier<String> message) {
         if ("redis".equals(communicationType)) {
-            EchoCloudRedisChannelEvent event = new EchoCloudRedisChannelEvent(
-                    communicationType, serverId, channelName, operation, message
-            );
-            pluginManager.callEvent(event);
+            dispatch(EchoCloudRedisChannelEvent.class, () -> new EchoCloudRedisChannelEvent(
+                    communicationType, serverId, channelName, operation, message.get()
+            ));
         }
     }
 
@@ -146,13 +388,64 @@ public class EchoCloudEventManager {
      */
     public void fireWebSocketStatus(String status, int statusCode, String details) {
         if ("websocket".equals(communicationType)) {
-            EchoCloudWebSocketStatusEvent event = new EchoCloudWebSocketStatusEvent(
+            dispatch(EchoCloudWebSocketStatusEvent.class, () -> new EchoCloudWebSocketStatusEvent(
                     communicationType, serverId, status, statusCode, details
-            );
-            pluginManager.callEvent(event);
+            ));
         }
     }
 
+    public int getQueuedCount() {
+        BlockingQueue<PendingEvent> current = queue;
+        return current != null ? current.size() : 0;
+    }
+
+    public int getMaxQueuedCount() {
+        return maxQueued.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getFailedListenerCount() {
+        return failedListeners.sum();
+    }
+
+    /**
+     * Verworfene Events pro Event-Klasse (Überlauf des Ringpuffers)
+     */
+    public Map<String, Long> getDroppedCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        dropped.forEach((type, count) -> counts.put(type.getSimpleName(), count.sum()));
+        return counts;
+    }
+
+    /**
+     * Nicht erstellte Events, weil für ihre Klasse kein Listener registriert war
+     */
+    public long getSkippedNoListenerCount() {
+        return skippedNoListeners.sum();
+    }
+
+    /**
+     * Nicht erstellte Events, die durch die Stichprobe (events.sampling) ausgelassen wurden
+     */
+    public long getSkippedSampledCount() {
+        return skippedSampled.sum();
+    }
+
+    /**
+     * Durchschnittliche Laufzeit aller Listener eines Events in Mikrosekunden
+     */
+    public double getAverageListenerMicros() {
+        long count = delivered.sum() + failedListeners.sum();
+        return count == 0 ? 0.0 : listenerNanos.sum() / (double) count / 1000.0;
+    }
+
+    public double getMaxListenerMicros() {
+        return maxListenerNanos.get() / 1000.0;
+    }
+
     /**
      * Hilfsmethode um den Kommunikationstyp zu bekommen
      */
@@ -180,4 +473,14 @@ public class EchoCloudEventManager {
     public PluginManager getPluginManager() {
         return pluginManager;
     }
-}
\ No newline at end of file
+
+    private static class PendingEvent {
+        final Class<? extends EchoCloudEvent> type;
+        final Supplier<? extends EchoCloudEvent> factory;
+
+        PendingEvent(Class<? extends EchoCloudEvent> type, Supplier<? extends EchoCloudEvent> factory) {
+            this.type = type;
+            this.factory = factory;
+        }
+    }
+}
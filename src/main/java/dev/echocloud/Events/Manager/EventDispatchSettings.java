@@ -0,0 +1,108 @@
+package dev.echocloud.Events.Manager;
+
+import dev.echocloud.Events.EchoCloudHeartbeatRequestEvent;
+import dev.echocloud.Events.EchoCloudHeartbeatResponseEvent;
+import dev.echocloud.Events.EchoCloudMessageReceivedEvent;
+import dev.echocloud.Events.EchoCloudReconnectAttemptEvent;
+import dev.echocloud.Events.EchoCloudRedisChannelEvent;
+import dev.echocloud.PluginConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Einstellungen für die Event-Zustellung: Größe des Ringpuffers sowie Zustellung und Überlaufverhalten
+ * pro Event-Klasse (Schlüssel ist der einfache Klassenname, z.B. "EchoCloudMessageReceivedEvent").
+ */
+public class EventDispatchSettings {
+
+    public enum Delivery {
+        // Über den Dispatcher-Thread als asynchrones Event
+        ASYNC,
+        // Gesammelt einmal pro Tick auf dem Server-Thread
+        MAIN_THREAD,
+        // Sofort im aufrufenden Thread (z.B. für Cancellable-Events mit Rückgabewert)
+        SYNC
+    }
+
+    public enum Overflow {
+        BLOCK, DROP_NEWEST, DROP_OLDEST, CALLER_RUNS
+    }
+
+    private int queueCapacity = 4096;
+    private long blockTimeoutMillis = 50;
+    private final Map<String, Delivery> delivery = new HashMap<>();
+    private final Map<String, Overflow> overflow = new HashMap<>();
+    // Nur jedes N-te Event einer Klasse wird gefeuert (fehlt = jedes)
+    private final Map<String, Integer> sampling = new HashMap<>();
+
+    public EventDispatchSettings() {
+        // Cancellable-Events werden immer synchron gefeuert, damit das Ergebnis ausgewertet werden kann
+        delivery.put(EchoCloudReconnectAttemptEvent.class.getSimpleName(), Delivery.SYNC);
+
+        // Häufige Events dürfen bei Überlast verworfen werden, Lebenszyklus-Events nicht
+        overflow.put(EchoCloudMessageReceivedEvent.class.getSimpleName(), Overflow.DROP_OLDEST);
+        overflow.put(EchoCloudRedisChannelEvent.class.getSimpleName(), Overflow.DROP_OLDEST);
+        overflow.put(EchoCloudHeartbeatRequestEvent.class.getSimpleName(), Overflow.DROP_OLDEST);
+        overflow.put(EchoCloudHeartbeatResponseEvent.class.getSimpleName(), Overflow.DROP_OLDEST);
+    }
+
+    /**
+     * Liest die Einstellungen aus dem Abschnitt "events" der settings.yml
+     */
+    public static EventDispatchSettings fromConfig(PluginConfig config) {
+        EventDispatchSettings settings = new EventDispatchSettings();
+        settings.queueCapacity = Math.max(16, config.getInt("events.queueCapacity", settings.queueCapacity));
+        settings.blockTimeoutMillis = Math.max(0, config.getInt("events.blockTimeoutMillis", (int) settings.blockTimeoutMillis));
+
+        config.getStringMap("events.delivery").forEach((event, value) -> {
+            switch (value.toLowerCase()) {
+                case "async" -> settings.delivery.put(event, Delivery.ASYNC);
+                case "main" -> settings.delivery.put(event, Delivery.MAIN_THREAD);
+                case "sync" -> settings.delivery.put(event, Delivery.SYNC);
+                default -> {
+                }
+            }
+        });
+        config.getStringMap("events.overflow").forEach((event, value) -> {
+            switch (value.toLowerCase()) {
+                case "block" -> settings.overflow.put(event, Overflow.BLOCK);
+                case "drop-newest" -> settings.overflow.put(event, Overflow.DROP_NEWEST);
+                case "drop-oldest" -> settings.overflow.put(event, Overflow.DROP_OLDEST);
+                case "caller-runs" -> settings.overflow.put(event, Overflow.CALLER_RUNS);
+                default -> {
+                }
+            }
+        });
+        config.getStringMap("events.sampling").forEach((event, value) -> {
+            try {
+                settings.sampling.put(event, Math.max(1, Integer.parseInt(value.trim())));
+            } catch (NumberFormatException ignored) {
+                // Ungültige Werte werden ignoriert
+            }
+        });
+        // Der Rückgabewert des Reconnect-Events wird direkt ausgewertet
+        settings.delivery.put(EchoCloudReconnectAttemptEvent.class.getSimpleName(), Delivery.SYNC);
+        return settings;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getBlockTimeoutMillis() {
+        return blockTimeoutMillis;
+    }
+
+    public Delivery getDelivery(Class<?> eventClass) {
+        return delivery.getOrDefault(eventClass.getSimpleName(), Delivery.ASYNC);
+    }
+
+    public int getSampleRate(Class<?> eventClass) {
+        return sampling.getOrDefault(eventClass.getSimpleName(), 1);
+    }
+
+    public Overflow getOverflow(Class<?> eventClass) {
+        return overflow.getOrDefault(eventClass.getSimpleName(), Overflow.BLOCK);
+    }
+}
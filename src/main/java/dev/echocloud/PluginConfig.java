@@ -12,8 +12,10 @@ import java.io.InputStream;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class PluginConfig {
@@ -74,6 +76,13 @@ public class PluginConfig {
         communicationConfig.put("type", "redis");
         communicationConfig.put("reconnectInterval", 30);
         communicationConfig.put("maxReconnectAttempts", 5);
+        Map<String, Object> backoffConfig = new LinkedHashMap<>();
+        backoffConfig.put("baseDelayMillis", 1000);
+        backoffConfig.put("maxDelaySeconds", 30);
+        backoffConfig.put("unlimited", false);
+        backoffConfig.put("maxRetrySeconds", 150);
+        backoffConfig.put("healthCheckIntervalSeconds", 10);
+        communicationConfig.put("backoff", backoffConfig);
         defaultConfig.put("communication", communicationConfig);
 
         Map<String, Object> apiConfig = new LinkedHashMap<>();
@@ -90,8 +99,131 @@ public class PluginConfig {
         redisConfig.put("password", "");
         redisConfig.put("database", 0);
         redisConfig.put("channel", "echocloud:all");
+        redisConfig.put("mode", "standalone");
+
+        Map<String, Object> redisPoolConfig = new LinkedHashMap<>();
+        redisPoolConfig.put("maxTotal", 16);
+        redisPoolConfig.put("maxIdle", 8);
+        redisPoolConfig.put("minIdle", 2);
+        redisPoolConfig.put("maxWaitMillis", 2000);
+        redisPoolConfig.put("timeoutMillis", 2000);
+        redisPoolConfig.put("testOnBorrow", true);
+        redisPoolConfig.put("testWhileIdle", true);
+        redisConfig.put("pool", redisPoolConfig);
+
+        Map<String, Object> redisPublishConfig = new LinkedHashMap<>();
+        redisPublishConfig.put("queueCapacity", 10000);
+        redisPublishConfig.put("maxBatch", 128);
+        redisPublishConfig.put("lingerMicros", 200);
+        redisPublishConfig.put("overflow", "drop-oldest");
+        redisPublishConfig.put("blockTimeoutMillis", 100);
+        redisConfig.put("publish", redisPublishConfig);
+
+        Map<String, Object> redisStreamsConfig = new LinkedHashMap<>();
+        redisStreamsConfig.put("maxLength", 10000);
+        redisStreamsConfig.put("readBatchSize", 100);
+        redisStreamsConfig.put("blockMillis", 2000);
+        redisConfig.put("streams", redisStreamsConfig);
+        redisConfig.put("shards", new ArrayList<String>());
+        redisConfig.put("shardVirtualNodes", 160);
+
+        Map<String, Object> redisSentinelConfig = new LinkedHashMap<>();
+        redisSentinelConfig.put("masterName", "mymaster");
+        redisSentinelConfig.put("nodes", new ArrayList<String>());
+        redisSentinelConfig.put("password", "");
+        redisConfig.put("sentinel", redisSentinelConfig);
+
+        Map<String, Object> redisClusterConfig = new LinkedHashMap<>();
+        redisClusterConfig.put("nodes", new ArrayList<String>());
+        redisClusterConfig.put("maxAttempts", 5);
+        redisClusterConfig.put("shardedPubSub", true);
+        redisConfig.put("cluster", redisClusterConfig);
         defaultConfig.put("redis", redisConfig);
 
+        Map<String, Object> storageConfig = new LinkedHashMap<>();
+        Map<String, Object> storageExecutorConfig = new LinkedHashMap<>();
+        storageExecutorConfig.put("type", "virtual");
+        storageExecutorConfig.put("platformThreads", 8);
+        storageExecutorConfig.put("maxInFlight", 64);
+        storageExecutorConfig.put("maxQueued", 4096);
+        storageConfig.put("executor", storageExecutorConfig);
+        storageConfig.put("codec", "json");
+        storageConfig.put("compressionThreshold", 0);
+
+        Map<String, Object> storageCacheConfig = new LinkedHashMap<>();
+        storageCacheConfig.put("enabled", false);
+        storageCacheConfig.put("maxEntries", 10000);
+        storageCacheConfig.put("ttlSeconds", 60);
+        storageCacheConfig.put("invalidation", "keyspace");
+        storageConfig.put("cache", storageCacheConfig);
+
+        Map<String, Object> storageWriteBehindConfig = new LinkedHashMap<>();
+        storageWriteBehindConfig.put("enabled", false);
+        storageWriteBehindConfig.put("flushIntervalMillis", 1000);
+        storageWriteBehindConfig.put("batchSize", 500);
+        storageWriteBehindConfig.put("flushThreshold", 1000);
+        storageConfig.put("writeBehind", storageWriteBehindConfig);
+
+        Map<String, Object> storageSpoolConfig = new LinkedHashMap<>();
+        storageSpoolConfig.put("enabled", false);
+        storageSpoolConfig.put("file", "storage-spool.dat");
+        storageSpoolConfig.put("maxSizeMb", 64);
+        storageSpoolConfig.put("fsync", "interval");
+        storageSpoolConfig.put("fsyncIntervalMillis", 1000);
+        storageSpoolConfig.put("replayIntervalMillis", 1000);
+        storageSpoolConfig.put("replayBatchSize", 500);
+        storageConfig.put("spool", storageSpoolConfig);
+
+        Map<String, Object> storageCountersConfig = new LinkedHashMap<>();
+        storageCountersConfig.put("flushIntervalMillis", 1000);
+        storageConfig.put("counters", storageCountersConfig);
+
+        Map<String, Object> storageSingleFlightConfig = new LinkedHashMap<>();
+        storageSingleFlightConfig.put("enabled", true);
+        storageSingleFlightConfig.put("namespaces", new ArrayList<String>());
+        storageConfig.put("singleFlight", storageSingleFlightConfig);
+
+        Map<String, Object> storageScanConfig = new LinkedHashMap<>();
+        storageScanConfig.put("count", 500);
+        storageConfig.put("scan", storageScanConfig);
+
+        Map<String, Object> storageBlobConfig = new LinkedHashMap<>();
+        storageBlobConfig.put("chunkSizeKb", 256);
+        storageBlobConfig.put("compress", true);
+        storageBlobConfig.put("uncommittedTtlSeconds", 3600);
+        storageBlobConfig.put("staleTtlSeconds", 60);
+        storageBlobConfig.put("sweepIntervalSeconds", 300);
+        storageConfig.put("blob", storageBlobConfig);
+
+        Map<String, Object> storagePrefetchConfig = new LinkedHashMap<>();
+        storagePrefetchConfig.put("enabled", true);
+        storagePrefetchConfig.put("timeoutMillis", 3000);
+        storagePrefetchConfig.put("sessionTimeoutSeconds", 60);
+        storageConfig.put("prefetch", storagePrefetchConfig);
+
+        Map<String, Object> storageMainThreadConfig = new LinkedHashMap<>();
+        storageMainThreadConfig.put("tickBudgetMicros", 2000);
+        storageMainThreadConfig.put("syncCalls", "warn");
+        storageConfig.put("mainThread", storageMainThreadConfig);
+        defaultConfig.put("storage", storageConfig);
+
+        Map<String, Object> eventsConfig = new LinkedHashMap<>();
+        eventsConfig.put("queueCapacity", 4096);
+        eventsConfig.put("blockTimeoutMillis", 50);
+        eventsConfig.put("delivery", new LinkedHashMap<String, Object>());
+        eventsConfig.put("overflow", new LinkedHashMap<String, Object>());
+        eventsConfig.put("sampling", new LinkedHashMap<String, Object>());
+        defaultConfig.put("events", eventsConfig);
+
+        Map<String, Object> compressionConfig = new LinkedHashMap<>();
+        compressionConfig.put("enabled", false);
+        compressionConfig.put("thresholdBytes", 1024);
+        compressionConfig.put("codec", "deflate-dictionary");
+        compressionConfig.put("level", 1);
+        compressionConfig.put("maxDecodedBytes", 4 * 1024 * 1024);
+        compressionConfig.put("permessageDeflate", true);
+        defaultConfig.put("compression", compressionConfig);
+
         Map<String, Object> loggingConfig = new LinkedHashMap<>();
         loggingConfig.put("logPlayerJoins", true);
         loggingConfig.put("logPlayerLeaves", true);
@@ -144,6 +276,33 @@ public class PluginConfig {
         return def;
     }
 
+    public List<String> getStringList(String key, List<String> def) {
+        Object value = getNestedValue(configValues, key);
+        if (value instanceof List<?> list) {
+            List<String> result = new ArrayList<>();
+            for (Object element : list) {
+                if (element != null) {
+                    result.add(element.toString());
+                }
+            }
+            return result;
+        }
+        return def;
+    }
+
+    public Map<String, String> getStringMap(String key) {
+        Object value = getNestedValue(configValues, key);
+        Map<String, String> result = new LinkedHashMap<>();
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((k, v) -> {
+                if (k != null && v != null) {
+                    result.put(k.toString(), v.toString());
+                }
+            });
+        }
+        return result;
+    }
+
     public void set(String key, Object value) {
         setNestedValue(configValues, key, value);
     }